@@ -0,0 +1,26 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the benchmarks of the othello game with the GC profiler, so every result also shows
+ * how many bytes are allocated per operation.
+ */
+public class BenchmarkRunner {
+    /**
+     * This main method runs the benchmarks.
+     * @param args optionally a regular expression that selects the benchmarks, for example "GameBenchmark".
+     * @throws RunnerException if a benchmark fails.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "benchmarks\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
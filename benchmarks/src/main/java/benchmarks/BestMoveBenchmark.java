@@ -0,0 +1,35 @@
+package benchmarks;
+
+import controller.BestMove;
+import model.Game;
+import model.Move;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the best move hint of the human player.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BestMoveBenchmark {
+    /**
+     * This method measures BestMove.getBestMove for the player whose turn it is.
+     * @param positions the positions of the benchmark.
+     * @return the best move, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public Move getBestMove(GamePositions positions) {
+        Game game = positions.nextGame();
+        return new BestMove(game, game.getTurn()).getBestMove();
+    }
+}
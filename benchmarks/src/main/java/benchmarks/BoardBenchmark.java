@@ -0,0 +1,42 @@
+package benchmarks;
+
+import model.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the methods of the board that are called after every move.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    /**
+     * This method measures Board.calculateTheScore.
+     * @param positions the positions of the benchmark.
+     * @return the score, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public int calculateTheScore(GamePositions positions) {
+        return positions.nextGame().returnBoard().calculateTheScore(Square.BLACK);
+    }
+
+    /**
+     * This method measures Board.isBoardFull.
+     * @param positions the positions of the benchmark.
+     * @return true if the board is full, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public boolean isBoardFull(GamePositions positions) {
+        return positions.nextGame().returnBoard().isBoardFull();
+    }
+}
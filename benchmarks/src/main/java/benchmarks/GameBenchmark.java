@@ -0,0 +1,69 @@
+package benchmarks;
+
+import model.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the methods of the game that the players and the search call for every position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    /**
+     * This method measures Game.getAllValidMoves for the player whose turn it is.
+     * @param positions the positions of the benchmark.
+     * @return the valid moves, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public List<Integer> getAllValidMoves(GamePositions positions) {
+        Game game = positions.nextGame();
+        return game.getAllValidMoves(game.getTurn().getColor());
+    }
+
+    /**
+     * This method measures Game.doMove without playing the move, which is how the players count the flips of a move.
+     * @param positions the positions of the benchmark.
+     * @return the number of flipped discs, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public int doMove(GamePositions positions) {
+        Game game = positions.nextGame();
+        return game.doMove(positions.currentMove(), false);
+    }
+
+    /**
+     * This method measures playing a move with Game.makeMove and taking it back with Game.undoMove.
+     * @param positions the positions of the benchmark.
+     * @return the mask of the flipped discs, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public long makeAndUndoMove(GamePositions positions) {
+        Game game = positions.nextGame();
+        int index = positions.currentMove().getIndex();
+        long flips = game.makeMove(index, positions.currentMove().getSquare());
+        game.undoMove(index, flips);
+        return flips;
+    }
+
+    /**
+     * This method measures Game.isGameOver.
+     * @param positions the positions of the benchmark.
+     * @return true if the game is over, so the call is not removed by the compiler.
+     */
+    @Benchmark
+    public boolean isGameOver(GamePositions positions) {
+        return positions.nextGame().isGameOver();
+    }
+}
@@ -0,0 +1,114 @@
+package benchmarks;
+
+import model.BitBoard;
+import model.Board;
+import model.Game;
+import model.Move;
+import model.SilentPlayer;
+import model.Square;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class is the benchmark state with a fixed set of game positions. The positions are made by playing random
+ * moves from the start position with a fixed seed, so every run measures the same positions. In every position
+ * the player whose turn it is has at least one valid move. The benchmarks go through the positions one by one,
+ * so the results are not tuned to a single position.
+ */
+@State(Scope.Thread)
+public class GamePositions {
+    private static final int POSITIONS = 64;
+    private static final long SEED = 20240520L;
+
+    /**
+     * The board engine of the games: "array" for Board and "bitboard" for BitBoard.
+     */
+    @Param({"array", "bitboard"})
+    public String board;
+
+    private Game[] games;
+    private Move[] moves;
+    private int next;
+
+    /**
+     * This method creates the positions, from 4 to 56 plies after the start position.
+     */
+    @Setup
+    public void createPositions() {
+        Random random = new Random(SEED);
+        games = new Game[POSITIONS];
+        moves = new Move[POSITIONS];
+        int created = 0;
+        while (created < POSITIONS) {
+            Game game = newGame(board);
+            int plies = 4 + random.nextInt(53);
+            for (int ply = 0; ply < plies && !game.isGameOver(); ply++) {
+                playRandomMove(game, random);
+            }
+            Square colour = game.getTurn().getColor();
+            List<Integer> validMoves = game.getAllValidMoves(colour);
+            if (!validMoves.isEmpty()) {
+                int index = validMoves.get(random.nextInt(validMoves.size()));
+                games[created] = game;
+                moves[created] = new Move(index / 8, index % 8, colour);
+                created++;
+            }
+        }
+    }
+
+    /**
+     * This method moves on to the next position.
+     * @return the game with the next position.
+     */
+    public Game nextGame() {
+        next = (next + 1) % POSITIONS;
+        return games[next];
+    }
+
+    /**
+     * This method returns the game of the current position.
+     * @return the game.
+     */
+    public Game currentGame() {
+        return games[next];
+    }
+
+    /**
+     * This method returns a valid move of the player whose turn it is in the current position.
+     * @return the move.
+     */
+    public Move currentMove() {
+        return moves[next];
+    }
+
+    /**
+     * This method creates a new game at the start position.
+     * @param board the board engine: "array" for Board and "bitboard" for BitBoard.
+     * @return the new game.
+     */
+    static Game newGame(String board) {
+        Board gameBoard = board.equals("bitboard") ? new BitBoard() : new Board(8, 8);
+        return new Game(new SilentPlayer("Black", Square.BLACK), new SilentPlayer("White", Square.WHITE),
+                gameBoard);
+    }
+
+    /**
+     * This method plays a random valid move for the player whose turn it is, or passes if there is none,
+     * and gives the turn to the other player.
+     * @param game the game to be played.
+     * @param random the random number generator that selects the move.
+     */
+    static void playRandomMove(Game game, Random random) {
+        Square colour = game.getTurn().getColor();
+        List<Integer> validMoves = game.getAllValidMoves(colour);
+        if (!validMoves.isEmpty()) {
+            game.makeMove(validMoves.get(random.nextInt(validMoves.size())), colour);
+        }
+        game.changeTurns();
+    }
+}
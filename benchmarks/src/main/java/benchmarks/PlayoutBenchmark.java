@@ -0,0 +1,59 @@
+package benchmarks;
+
+import model.Game;
+import model.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the throughput of full random games, from the start position until the game is over,
+ * through the methods of the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+    /**
+     * The board engine of the games: "array" for Board and "bitboard" for BitBoard.
+     */
+    @Param({"array", "bitboard"})
+    public String board;
+
+    private Random random;
+
+    /**
+     * This method creates the random number generator with a fixed seed.
+     */
+    @Setup
+    public void createRandom() {
+        random = new Random(20240520L);
+    }
+
+    /**
+     * This method plays one random game.
+     * @return the score of the black player, so the game is not removed by the compiler.
+     */
+    @Benchmark
+    public int randomPlayout() {
+        Game game = GamePositions.newGame(board);
+        while (!game.isGameOver()) {
+            GamePositions.playRandomMove(game, random);
+        }
+        return game.calculatePlayerScore(game.getPlayerBySquare(Square.BLACK));
+    }
+}
@@ -0,0 +1,126 @@
+package archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests that games are added to a game archive without losing the games that are already stored.
+ */
+class GameRecordWriterTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * This method tests that games added to an existing archive are read after the games that were there.
+     * @throws IOException if the archive cannot be written or read.
+     */
+    @Test
+    void appendsToExistingArchive() throws IOException {
+        Path path = directory.resolve("games.oth");
+        List<GameRecord> games = games(6);
+        write(path, games.subList(0, 3));
+        write(path, games.subList(3, 6));
+
+        assertGames(games, path);
+    }
+
+    /**
+     * This method tests that a record cut off at the end of the archive is removed before games are added, so the
+     * new games are read as they were written.
+     * @throws IOException if the archive cannot be written or read.
+     */
+    @Test
+    void removesCutOffRecordBeforeAppending() throws IOException {
+        Path path = directory.resolve("games.oth");
+        List<GameRecord> games = games(6);
+        write(path, games.subList(0, 3));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        write(path, games.subList(3, 6));
+
+        List<GameRecord> expected = new ArrayList<>(games.subList(0, 2));
+        expected.addAll(games.subList(3, 6));
+        assertGames(expected, path);
+    }
+
+    /**
+     * This method tests that an archive whose last record lost only part of its length field can be added to.
+     * @throws IOException if the archive cannot be written or read.
+     */
+    @Test
+    void removesCutOffLengthFieldBeforeAppending() throws IOException {
+        Path path = directory.resolve("games.oth");
+        List<GameRecord> games = games(2);
+        write(path, games.subList(0, 1));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0}), channel.size());
+        }
+        write(path, games.subList(1, 2));
+
+        assertGames(games, path);
+    }
+
+    /**
+     * This method creates games with different names and moves.
+     * @param count the number of games.
+     * @return the games.
+     */
+    private static List<GameRecord> games(int count) {
+        List<GameRecord> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            byte[] moves = new byte[10 + i];
+            for (int ply = 0; ply < moves.length; ply++) {
+                moves[ply] = (byte) ((i * 7 + ply * 3) % 64);
+            }
+            games.add(new GameRecord("Black " + i, "White " + i, 30 + i, 34 - i, moves));
+        }
+        return games;
+    }
+
+    /**
+     * This method adds games to an archive with a new writer.
+     * @param path the path of the archive.
+     * @param games the games to be added.
+     * @throws IOException if the archive cannot be written.
+     */
+    private static void write(Path path, List<GameRecord> games) throws IOException {
+        try (GameRecordWriter writer = new GameRecordWriter(path)) {
+            for (GameRecord game : games) {
+                writer.write(game);
+            }
+        }
+    }
+
+    /**
+     * This method checks that an archive holds exactly the expected games, in order.
+     * @param expected the games that the archive should hold.
+     * @param path the path of the archive.
+     * @throws IOException if the archive cannot be read.
+     */
+    private static void assertGames(List<GameRecord> expected, Path path) throws IOException {
+        try (GameArchive archive = new GameArchive(path)) {
+            List<GameRecord> actual = new ArrayList<>();
+            archive.forEach(cursor -> actual.add(cursor.toRecord()));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getBlackName(), actual.get(i).getBlackName());
+                assertEquals(expected.get(i).getWhiteName(), actual.get(i).getWhiteName());
+                assertEquals(expected.get(i).getBlackDiscs(), actual.get(i).getBlackDiscs());
+                assertEquals(expected.get(i).getWhiteDiscs(), actual.get(i).getWhiteDiscs());
+                assertArrayEquals(expected.get(i).getMoves(), actual.get(i).getMoves());
+            }
+        }
+    }
+}
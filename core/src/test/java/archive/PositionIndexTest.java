@@ -0,0 +1,193 @@
+package archive;
+
+import model.Position;
+import model.RandomGames;
+import model.Square;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the position index of an archive of random games against a brute-force scan that replays every
+ * game of the archive and counts the positions in a map. The runs are kept small, so the index is merged from
+ * many sorted runs, and the archive is indexed again after more games are added to it.
+ */
+class PositionIndexTest {
+    private static final long SEED = 20240608L;
+    private static final int GAMES = 240;
+
+    /**
+     * The number of entries of a run, a few games, so every update sorts and merges several runs.
+     */
+    private static final int RUN_ENTRIES = 1000;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * This method tests that the radix sort orders the keys by their unsigned value, moves the values with their
+     * keys and keeps the order of the entries with the same key.
+     */
+    @Test
+    void sortOrdersByUnsignedKey() {
+        Random random = new Random(SEED);
+        int size = 5000;
+        long[] keys = new long[size];
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            // few different keys in the low bits, so there are many equal keys
+            keys[i] = random.nextBoolean() ? random.nextLong() : random.nextInt(50) * 0x0001_0001_0001_0001L;
+            values[i] = i;
+        }
+        Long[] order = new Long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (long) i;
+        }
+        long[] original = keys.clone();
+        Arrays.sort(order, (first, second) -> Long.compareUnsigned(original[first.intValue()],
+                original[second.intValue()]));
+
+        PositionIndexer.sort(keys, values, size);
+        for (int i = 0; i < size; i++) {
+            assertEquals(order[i], values[i], "entry " + i);
+            assertEquals(original[(int) values[i]], keys[i], "entry " + i);
+        }
+    }
+
+    /**
+     * This method tests that the index finds every position of the archive in the games that reach it, with the
+     * moves that were played from it.
+     * @throws IOException if the archive or the index cannot be written or read.
+     */
+    @Test
+    void indexMatchesBruteForceScan() throws IOException {
+        Path archivePath = directory.resolve("games.oth");
+        Path indexPath = directory.resolve("games.idx");
+        List<GameRecord> games = games();
+        write(archivePath, games);
+
+        assertEquals(GAMES, new PositionIndexer(RUN_ENTRIES).update(archivePath, indexPath));
+        assertIndex(archivePath, indexPath);
+    }
+
+    /**
+     * This method tests that an update after more games are added to the archive indexes only the new games, and
+     * that the index then answers like a brute-force scan of the whole archive.
+     * @throws IOException if the archive or the index cannot be written or read.
+     */
+    @Test
+    void updateIndexesAppendedGames() throws IOException {
+        Path archivePath = directory.resolve("games.oth");
+        Path indexPath = directory.resolve("games.idx");
+        List<GameRecord> games = games();
+        PositionIndexer indexer = new PositionIndexer(RUN_ENTRIES);
+
+        write(archivePath, games.subList(0, GAMES / 3));
+        assertEquals(GAMES / 3, indexer.update(archivePath, indexPath));
+        assertIndex(archivePath, indexPath);
+
+        write(archivePath, games.subList(GAMES / 3, GAMES / 2));
+        assertEquals(GAMES / 2 - GAMES / 3, indexer.update(archivePath, indexPath));
+        assertIndex(archivePath, indexPath);
+
+        write(archivePath, games.subList(GAMES / 2, GAMES));
+        assertEquals(GAMES - GAMES / 2, indexer.update(archivePath, indexPath));
+        assertEquals(0, indexer.update(archivePath, indexPath));
+        assertIndex(archivePath, indexPath);
+    }
+
+    /**
+     * This method compares the answers of the index with a brute-force scan of the archive, for every position of
+     * the archive and for a position that no game reaches.
+     * @param archivePath the path of the archive.
+     * @param indexPath the path of the index.
+     * @throws IOException if the archive or the index cannot be read.
+     */
+    private static void assertIndex(Path archivePath, Path indexPath) throws IOException {
+        Map<Position, List<Long>> offsets = new HashMap<>();
+        Map<Position, long[]> frequencies = new HashMap<>();
+        long entries = 0;
+        try (GameArchive archive = new GameArchive(archivePath)) {
+            GameCursor cursor = archive.cursor();
+            while (cursor.next()) {
+                Position position = Position.START;
+                for (int ply = 0; ply <= cursor.getMoveCount(); ply++) {
+                    offsets.computeIfAbsent(position, key -> new ArrayList<>()).add(cursor.getOffset());
+                    long[] counts = frequencies.computeIfAbsent(position, key -> new long[GameRecord.PASS + 1]);
+                    entries++;
+                    if (ply == cursor.getMoveCount()) {
+                        break;
+                    }
+                    int move = cursor.getMove(ply);
+                    counts[move]++;
+                    position = move == GameRecord.PASS ? position.pass() : position.play(move);
+                }
+            }
+            try (PositionIndex index = new PositionIndex(indexPath)) {
+                assertEquals(entries, index.getEntryCount());
+                assertEquals(archive.size(), index.getArchiveEnd());
+                assertTrue(offsets.get(Position.START).size() > 1);
+                for (Map.Entry<Position, List<Long>> entry : offsets.entrySet()) {
+                    Position position = entry.getKey();
+                    long[] expected = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                    assertEquals(expected.length, index.countGames(position), position::toString);
+                    assertArrayEquals(expected, index.findGames(position), position::toString);
+                    assertArrayEquals(frequencies.get(position), index.moveFrequencies(position),
+                            position::toString);
+                }
+
+                Position missing = Position.of(0x0000001818000000L, 0L, Square.BLACK);
+                assertEquals(0, index.countGames(missing));
+                assertEquals(0, index.findGames(missing).length);
+                assertArrayEquals(new long[GameRecord.PASS + 1], index.moveFrequencies(missing));
+            }
+        }
+    }
+
+    /**
+     * This method creates the records of the random games.
+     * @return the games.
+     */
+    private static List<GameRecord> games() {
+        List<GameRecord> records = new ArrayList<>();
+        int number = 0;
+        for (List<Position> positions : RandomGames.games(SEED, GAMES)) {
+            byte[] moves = new byte[positions.size() - 1];
+            for (int ply = 0; ply < moves.length; ply++) {
+                int move = RandomGames.move(positions.get(ply), positions.get(ply + 1));
+                moves[ply] = move == RandomGames.PASS ? GameRecord.PASS : (byte) move;
+            }
+            Position end = positions.get(positions.size() - 1);
+            records.add(new GameRecord("Black " + number, "White " + number,
+                    Long.bitCount(end.getDiscs(Square.BLACK)), Long.bitCount(end.getDiscs(Square.WHITE)), moves));
+            number++;
+        }
+        return records;
+    }
+
+    /**
+     * This method adds games to an archive with a new writer.
+     * @param path the path of the archive.
+     * @param games the games to be added.
+     * @throws IOException if the archive cannot be written.
+     */
+    private static void write(Path path, List<GameRecord> games) throws IOException {
+        try (GameRecordWriter writer = new GameRecordWriter(path)) {
+            for (GameRecord game : games) {
+                writer.write(game);
+            }
+        }
+    }
+}
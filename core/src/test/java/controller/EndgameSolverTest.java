@@ -0,0 +1,110 @@
+package controller;
+
+import model.MoveGenerator;
+import model.Position;
+import model.RandomGames;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the endgame solver against a plain minimax that plays every move of every position until the
+ * end of the game, on the last empty squares of random games.
+ */
+class EndgameSolverTest {
+    private static final long SEED = 20240614L;
+    private static final int GAMES = 300;
+    private static final int MAX_EMPTIES = 10;
+
+    /**
+     * This method tests that the solver finds the minimax score of every position, and that its best move leads
+     * to a position with that score, so a move that ties with another one is accepted too. The positions include
+     * every position of the games where the player to move has to pass, whose best move is PASS.
+     */
+    @Test
+    void solveMatchesMinimax() {
+        EndgameSolver solver = new EndgameSolver(1);
+        int passes = 0;
+        for (Position position : positions()) {
+            SearchResult result = solver.solve(position.getPlayerDiscs(), position.getOpponentDiscs());
+            int score = minimax(position);
+            assertEquals(score, result.getScore(), position::toString);
+            assertEquals(position.getEmptyCount(), result.getDepth());
+
+            Position child;
+            if (position.getValidMoves() == 0) {
+                assertEquals(SearchResult.PASS, result.getBestMove(), position::toString);
+                child = position.pass();
+                passes++;
+            } else {
+                assertTrue(position.isValidMove(result.getBestMove()), position::toString);
+                child = position.play(result.getBestMove());
+            }
+            assertEquals(score, -minimax(child), position::toString);
+        }
+        assertTrue(passes > 0, "the random games should have positions where a player has to pass");
+    }
+
+    /**
+     * This method tests that the flips of the solver are the same as those of the move generator, for every empty
+     * square of every position of the random games, also where the move is not valid.
+     */
+    @Test
+    void flipsMatchMoveGenerator() {
+        for (Position position : RandomGames.positions(SEED, GAMES / 10)) {
+            long player = position.getPlayerDiscs();
+            long opponent = position.getOpponentDiscs();
+            for (long empty = ~(player | opponent); empty != 0; empty &= empty - 1) {
+                int square = Long.numberOfTrailingZeros(empty);
+                assertEquals(MoveGenerator.flips(player, opponent, square),
+                        EndgameSolver.flips(player, opponent, square), () -> position + " square " + square);
+            }
+        }
+    }
+
+    /**
+     * This method collects positions near the end of random games: in every game one position with a random
+     * number of empty squares up to MAX_EMPTIES, and every position up to MAX_EMPTIES where the player to move
+     * has to pass.
+     * @return the positions, none of which is a finished game.
+     */
+    private static List<Position> positions() {
+        Random random = new Random(SEED);
+        List<Position> positions = new ArrayList<>();
+        for (List<Position> game : RandomGames.games(SEED, GAMES)) {
+            int empties = 1 + random.nextInt(MAX_EMPTIES);
+            boolean added = false;
+            for (Position position : game.subList(0, game.size() - 1)) {
+                boolean pass = position.getValidMoves() == 0;
+                int count = position.getEmptyCount();
+                if (count <= MAX_EMPTIES && (pass || !added && count <= empties)) {
+                    positions.add(position);
+                    added |= !pass;
+                }
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * This method calculates the final disc difference with perfect play from both players by trying every move
+     * until the end of the game, without any pruning.
+     * @param position the position.
+     * @return the final disc difference for the player who is moving.
+     */
+    private static int minimax(Position position) {
+        if (position.isGameOver()) {
+            return position.getDiscDifference();
+        }
+        int best = Integer.MIN_VALUE;
+        for (Position child : position.children()) {
+            best = Math.max(best, -minimax(child));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,121 @@
+package controller;
+
+import model.Position;
+import model.RandomGames;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the Monte Carlo tree search with one thread, a playout limit and a seed, so every search is
+ * the same on every run. The positions come from random games.
+ */
+class MctsSearchTest {
+    private static final long SEED = 20240616L;
+    private static final int GAMES = 4;
+    private static final int PLAYOUTS = 2000;
+
+    /**
+     * The ply of the games from which the positions are searched.
+     */
+    private static final int PLY = 12;
+
+    /**
+     * This method tests that a search counts one visit of the root for every playout, and that the next search
+     * after a move and a reply that are in the tree starts from the node of that position, with its visits, so the
+     * tree then has the visits of that node and the playouts of the new search.
+     */
+    @Test
+    void reusedTreeStartsAtThePlayedPosition() {
+        for (List<Position> game : RandomGames.games(SEED, GAMES)) {
+            MctsSearch search = new MctsSearch(config(), SEED);
+            Position position = game.get(PLY);
+            SearchResult result = search.search(position);
+            assertEquals(PLAYOUTS, result.getNodes());
+            assertEquals(PLAYOUTS, search.getTreeVisits());
+            assertRoot(position, search.getRoot());
+
+            MctsNode move = mostVisited(search.getRoot());
+            MctsNode reply = mostVisited(move);
+            int visits = reply.getVisits();
+            assertTrue(visits > 0, position::toString);
+            Position next = play(play(position, move.getMove()), reply.getMove());
+
+            assertEquals(PLAYOUTS, search.search(next).getNodes());
+            assertSame(reply, search.getRoot(), next::toString);
+            assertRoot(next, search.getRoot());
+            assertEquals(visits + PLAYOUTS, search.getTreeVisits(), next::toString);
+        }
+    }
+
+    /**
+     * This method tests that two searches with the same seed find the same move, score and principal variation,
+     * and that a search without tree reuse starts with a new tree.
+     */
+    @Test
+    void sameSeedGivesSameSearch() {
+        for (List<Position> game : RandomGames.games(SEED, GAMES)) {
+            Position position = game.get(PLY);
+            Position next = game.get(PLY + 2);
+            SearchResult first = new MctsSearch(config(), SEED).search(position);
+            SearchResult second = new MctsSearch(config(), SEED).search(position);
+            assertEquals(first.getBestMove(), second.getBestMove(), position::toString);
+            assertEquals(first.getScore(), second.getScore(), position::toString);
+            assertArrayEquals(first.getPrincipalVariation(), second.getPrincipalVariation(), position::toString);
+
+            MctsSearch fresh = new MctsSearch(config().setTreeReuse(false), SEED);
+            fresh.search(position);
+            fresh.search(next);
+            assertRoot(next, fresh.getRoot());
+            assertEquals(PLAYOUTS, fresh.getTreeVisits(), next::toString);
+        }
+    }
+
+    /**
+     * This method makes the config of the tests: one thread and a playout limit.
+     * @return the config.
+     */
+    private static MctsConfig config() {
+        return new MctsConfig().setPlayouts(PLAYOUTS).setThreads(1);
+    }
+
+    /**
+     * This method checks that a node of the tree has the discs of a position.
+     * @param position the position.
+     * @param node the node.
+     */
+    private static void assertRoot(Position position, MctsNode node) {
+        assertEquals(position.getPlayerDiscs(), node.getPlayer(), position::toString);
+        assertEquals(position.getOpponentDiscs(), node.getOpponent(), position::toString);
+    }
+
+    /**
+     * This method finds the child of a node with the most visits.
+     * @param node the node, which must have children.
+     * @return the child with the most visits.
+     */
+    private static MctsNode mostVisited(MctsNode node) {
+        MctsNode best = null;
+        for (MctsNode child : node.getChildren()) {
+            if (best == null || child.getVisits() > best.getVisits()) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method plays a move of the tree on a position.
+     * @param position the position.
+     * @param move the index of the move, or SearchResult.PASS.
+     * @return the position after the move.
+     */
+    private static Position play(Position position, int move) {
+        return move == SearchResult.PASS ? position.pass() : position.play(move);
+    }
+}
@@ -0,0 +1,144 @@
+package controller;
+
+import archive.GameRecord;
+import model.Position;
+import model.RandomGames;
+import model.Symmetry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class tests that the opening book stores the positions that only differ by a symmetry in one entry and maps
+ * the moves back to the orientation of the lookup, that a book comes back the same through a book file, and that
+ * the loaders reject the games that pass when there are valid moves.
+ */
+class OpeningBookTest {
+    private static final long SEED = 20240612L;
+    private static final int GAMES = 200;
+    private static final int PLIES = 12;
+
+    /**
+     * This method tests that a move added in a position is found in all the eight images of the position, as the
+     * same move turned by the symmetry of the image.
+     */
+    @Test
+    void rotatedPositionSharesTheEntry() {
+        // f5 d6 c3: no symmetry turns this position into itself
+        Position position = Position.START.play(37).play(43).play(18);
+        Set<Position> images = new HashSet<>();
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            images.add(position.applySymmetry(symmetry));
+        }
+        assertEquals(Symmetry.COUNT, images.size());
+
+        for (int stored = 0; stored < Symmetry.COUNT; stored++) {
+            OpeningBook book = new OpeningBook();
+            Position storedPosition = position.applySymmetry(stored);
+            int move = Long.numberOfTrailingZeros(storedPosition.getValidMoves());
+            for (int i = 0; i < OpeningBook.DEFAULT_MIN_VISITS; i++) {
+                book.add(storedPosition, move, 6 + 4 * i);
+            }
+            assertEquals(1, book.size());
+
+            int original = Symmetry.undoOnSquare(move, stored);
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                Position image = position.applySymmetry(symmetry);
+                int expected = Symmetry.applyToSquare(original, symmetry);
+                String message = "stored in image " + stored + ", looked up in image " + symmetry;
+                assertEquals(expected, book.bestMove(image), message);
+                assertEquals(OpeningBook.DEFAULT_MIN_VISITS, book.getVisits(image, expected), message);
+                assertEquals(6 + 2 * (OpeningBook.DEFAULT_MIN_VISITS - 1), book.getAverageScore(image, expected),
+                        message);
+            }
+        }
+    }
+
+    /**
+     * This method tests that the moves of a symmetric position that are the same up to its symmetries share one
+     * entry: in the start position, all four moves are one move of the book.
+     */
+    @Test
+    void symmetricMovesShareTheEntry() {
+        OpeningBook book = new OpeningBook();
+        book.add(Position.START, 37, 10);
+        book.add(Position.START, 19, -2);
+        assertEquals(1, book.size());
+        for (long valid = Position.START.getValidMoves(); valid != 0; valid &= valid - 1) {
+            int move = Long.numberOfTrailingZeros(valid);
+            assertEquals(2, book.getVisits(Position.START, move));
+            assertEquals(4.0, book.getAverageScore(Position.START, move));
+        }
+        assertEquals(Long.numberOfTrailingZeros(Position.START.getValidMoves()), book.bestMove(Position.START));
+    }
+
+    /**
+     * This method tests that a book of random games is the same after it is saved to a book file and loaded
+     * again: the same number of moves, and the same visits, average scores and best moves in every position.
+     * @param directory the temporary directory of the book file.
+     * @throws IOException if the book file cannot be written or read.
+     */
+    @Test
+    void saveAndLoadRoundTrip(@TempDir Path directory) throws IOException {
+        Random random = new Random(SEED);
+        List<byte[]> games = new ArrayList<>();
+        OpeningBook book = new OpeningBook();
+        for (List<Position> positions : RandomGames.games(SEED, GAMES)) {
+            byte[] game = new byte[Math.min(PLIES, positions.size() - 1)];
+            for (int ply = 0; ply < game.length; ply++) {
+                int move = RandomGames.move(positions.get(ply), positions.get(ply + 1));
+                game[ply] = move == RandomGames.PASS ? GameRecord.PASS : (byte) move;
+            }
+            book.addGame(game, random.nextInt(65) - 32, PLIES);
+            games.add(game);
+        }
+
+        Path path = directory.resolve("book.bin");
+        book.save(path);
+        OpeningBook loaded = OpeningBook.load(path);
+        assertEquals(book.size(), loaded.size());
+        for (byte[] game : games) {
+            Position position = Position.START;
+            for (int move : game) {
+                if (move == GameRecord.PASS) {
+                    position = position.pass();
+                    continue;
+                }
+                assertEquals(book.bestMove(position), loaded.bestMove(position));
+                assertEquals(book.bestMove(position, 1), loaded.bestMove(position, 1));
+                assertEquals(book.getVisits(position, move), loaded.getVisits(position, move));
+                assertEquals(book.getAverageScore(position, move), loaded.getAverageScore(position, move));
+                position = position.play(move);
+            }
+        }
+    }
+
+    /**
+     * This method tests that a pass of a player who has valid moves is rejected, both in a game of an archive and
+     * in a line of a move-list file.
+     * @param directory the temporary directory of the move-list file.
+     * @throws IOException if the move-list file cannot be written.
+     */
+    @Test
+    void passWithValidMovesIsRejected(@TempDir Path directory) throws IOException {
+        OpeningBook book = new OpeningBook();
+        // f5, then a pass of white, who can play d6
+        byte[] game = {37, GameRecord.PASS, 43};
+        assertThrows(IllegalArgumentException.class, () -> book.addGame(game, 10, game.length));
+
+        Path path = directory.resolve("openings.txt");
+        Files.writeString(path, "f5d6c3\nf5 pa c4\n");
+        assertThrows(IOException.class, () -> OpeningBook.fromMoveList(path, 10));
+    }
+}
@@ -0,0 +1,130 @@
+package controller;
+
+import model.Position;
+import model.RandomGames;
+import model.Symmetry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests the fast pattern indexing of the PatternEvaluator against a reference that reads every pattern
+ * square by square on every symmetry where the pattern appears. The patterns of the reference are written out here
+ * on their own, so a change to the shifts or the tables of the evaluator that moves a square is found.
+ */
+class PatternEvaluatorTest {
+    private static final long SEED = 20240604L;
+    private static final int GAMES = 300;
+
+    /**
+     * The squares of every pattern without a symmetry, from the lowest to the highest base-3 digit: the edge with
+     * the two X-squares, the 3x3 corner, the 2x5 corner, the second, third and fourth lines and the diagonals of
+     * 8 to 4 squares.
+     */
+    private static final int[][] PATTERNS = {
+            {14, 9, 0, 1, 2, 3, 4, 5, 6, 7},
+            {0, 1, 2, 8, 9, 10, 16, 17, 18},
+            {0, 1, 2, 3, 4, 8, 9, 10, 11, 12},
+            {8, 9, 10, 11, 12, 13, 14, 15},
+            {16, 17, 18, 19, 20, 21, 22, 23},
+            {24, 25, 26, 27, 28, 29, 30, 31},
+            {0, 9, 18, 27, 36, 45, 54, 63},
+            {1, 10, 19, 28, 37, 46, 55},
+            {2, 11, 20, 29, 38, 47},
+            {3, 12, 21, 30, 39},
+            {4, 13, 22, 31}};
+
+    /**
+     * The first weight of every pattern within the weights of a stage.
+     */
+    private static final int[] OFFSETS = new int[PATTERNS.length];
+
+    /**
+     * The symmetries on which every pattern is read. The other symmetries give the same copies again.
+     */
+    private static final int[][] SYMMETRIES = {
+            {0, 2, 4, 6}, {0, 1, 2, 3}, {0, 1, 2, 3, 4, 5, 6, 7}, {0, 2, 4, 6}, {0, 2, 4, 6}, {0, 2, 4, 6},
+            {0, 1}, {0, 1, 2, 3}, {0, 1, 2, 3}, {0, 1, 2, 3}, {0, 1, 2, 3}};
+
+    static {
+        // The tables are stored as: edge, 3x3 corner, 2x5 corner, lines 2 to 4, diagonals of 8 to 4 squares.
+        int offset = 0;
+        for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+            OFFSETS[pattern] = offset;
+            offset += (int) Math.pow(3, PATTERNS[pattern].length);
+        }
+    }
+
+    /**
+     * This method tests that the indices of all the pattern copies are the ones of the reference, on the
+     * positions of random games.
+     */
+    @Test
+    void patternIndicesMatchReference() {
+        assertEquals(PatternEvaluator.MOBILITY, OFFSETS[PATTERNS.length - 1] + 81);
+        int[] indices = new int[PatternEvaluator.PATTERN_COUNT];
+        for (Position position : RandomGames.positions(SEED, GAMES)) {
+            PatternEvaluator.patternIndices(position.getPlayerDiscs(), position.getOpponentDiscs(), indices);
+            int[] actual = indices.clone();
+            Arrays.sort(actual);
+            assertArrayEquals(referenceIndices(position.getPlayerDiscs(), position.getOpponentDiscs()), actual,
+                    position::toString);
+        }
+    }
+
+    /**
+     * This method tests that evaluate adds up the weights of the reference indices and the mobility weight of the
+     * stage, with random weights so every pattern copy counts.
+     */
+    @Test
+    void evaluateAddsUpTheWeightsOfTheReference() {
+        Random random = new Random(SEED);
+        short[] weights = new short[PatternEvaluator.STAGES * PatternEvaluator.STAGE_SIZE];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (short) (random.nextInt(201) - 100);
+        }
+        PatternEvaluator evaluator = new PatternEvaluator(weights);
+        for (Position position : RandomGames.positions(SEED, GAMES)) {
+            long player = position.getPlayerDiscs();
+            long opponent = position.getOpponentDiscs();
+            long moves = position.getValidMoves();
+            int base = PatternEvaluator.stage(player, opponent) * PatternEvaluator.STAGE_SIZE;
+            int expected = weights[base + PatternEvaluator.MOBILITY]
+                    * PatternEvaluator.mobility(player, opponent, moves);
+            for (int index : referenceIndices(player, opponent)) {
+                expected += weights[base + index];
+            }
+            assertEquals(expected, evaluator.evaluate(player, opponent, moves), position::toString);
+        }
+    }
+
+    /**
+     * This method reads every pattern copy of a position square by square.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the indices of all the pattern copies within the weights of a stage, sorted.
+     */
+    private static int[] referenceIndices(long player, long opponent) {
+        int[] indices = new int[PatternEvaluator.PATTERN_COUNT];
+        int count = 0;
+        for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+            for (int symmetry : SYMMETRIES[pattern]) {
+                int index = 0;
+                int digit = 1;
+                for (int square : PATTERNS[pattern]) {
+                    long bit = 1L << Symmetry.undoOnSquare(square, symmetry);
+                    index += digit * ((player & bit) != 0 ? 1 : (opponent & bit) != 0 ? 2 : 0);
+                    digit *= 3;
+                }
+                indices[count++] = OFFSETS[pattern] + index;
+            }
+        }
+        assertEquals(PatternEvaluator.PATTERN_COUNT, count);
+        Arrays.sort(indices);
+        return indices;
+    }
+}
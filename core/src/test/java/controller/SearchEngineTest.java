@@ -0,0 +1,116 @@
+package controller;
+
+import model.Position;
+import model.RandomGames;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the search engine on the positions of random games, with the endgame solver turned off so
+ * every position is searched to a fixed depth.
+ */
+class SearchEngineTest {
+    private static final long SEED = 20240615L;
+    private static final int GAMES = 4;
+    private static final int DEPTH = 5;
+    private static final int LINES = 3;
+
+    /**
+     * The fewest empty squares of the positions that are analysed, so no line reaches the end of the game.
+     */
+    private static final int ANALYSIS_EMPTIES = 20;
+
+    /**
+     * This method tests that principal variation search and aspiration windows only save work: a search without
+     * them, which is a plain alpha-beta search with the full window, finds the same score at the same depth.
+     * The transposition tables are cleared before every search, so no search starts with the bounds of another.
+     */
+    @Test
+    void principalVariationSearchAndAspirationKeepTheScore() {
+        SearchEngine engine = new SearchEngine(config());
+        SearchEngine plain = new SearchEngine(config().setPrincipalVariationSearch(false).setAspirationWindow(0));
+        List<Position> positions = RandomGames.positions(SEED, GAMES);
+        for (Position position : positions) {
+            engine.getTranspositionTable().clear();
+            plain.getTranspositionTable().clear();
+            SearchResult result = engine.search(position);
+            SearchResult expected = plain.search(position);
+            assertEquals(expected.getDepth(), result.getDepth(), position::toString);
+            assertEquals(expected.getScore(), result.getScore(), position::toString);
+        }
+    }
+
+    /**
+     * This method tests that every line of a multi-PV analysis has the score of the best move that the lines
+     * before it do not have, and that the lines of every depth arrive best first, as AnalysisListener says.
+     * The score of every move is found by a search of the position after the move, one ply less deep, so the
+     * score of line k must be the k-th best of those scores.
+     */
+    @Test
+    void analysisLinesAreTheBestMovesInOrder() {
+        SearchEngine engine = new SearchEngine(config().setMaxDepth(DEPTH - 1));
+        SearchEngine child = new SearchEngine(config().setMaxDepth(DEPTH - 2));
+        int analysed = 0;
+        for (Position position : RandomGames.positions(SEED, GAMES)) {
+            if (position.getEmptyCount() < ANALYSIS_EMPTIES || Long.bitCount(position.getValidMoves()) < LINES) {
+                continue;
+            }
+            engine.getTranspositionTable().clear();
+            List<AnalysisLine> lines = new ArrayList<>();
+            SearchResult result = engine.analyze(position, LINES, lines::add);
+
+            for (int depth = 1; depth <= DEPTH - 1; depth++) {
+                List<AnalysisLine> depthLines = new ArrayList<>();
+                for (AnalysisLine line : lines) {
+                    if (line.getDepth() == depth) {
+                        depthLines.add(line);
+                    }
+                }
+                assertEquals(LINES, depthLines.size(), position::toString);
+                for (int rank = 1; rank <= LINES; rank++) {
+                    assertEquals(rank, depthLines.get(rank - 1).getRank(), position::toString);
+                    if (rank > 1) {
+                        assertTrue(depthLines.get(rank - 1).getScore() <= depthLines.get(rank - 2).getScore(),
+                                position::toString);
+                    }
+                }
+            }
+
+            Map<Integer, Integer> moveScores = new HashMap<>();
+            for (long moves = position.getValidMoves(); moves != 0; moves &= moves - 1) {
+                int move = Long.numberOfTrailingZeros(moves);
+                child.getTranspositionTable().clear();
+                moveScores.put(move, -child.search(position.play(move)).getScore());
+            }
+            int[] bestScores = moveScores.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+            List<AnalysisLine> last = lines.subList(lines.size() - LINES, lines.size());
+            for (int rank = 1; rank <= LINES; rank++) {
+                AnalysisLine line = last.get(rank - 1);
+                assertEquals(DEPTH - 1, line.getDepth());
+                assertEquals(bestScores[bestScores.length - rank], line.getScore(),
+                        () -> position + " " + Arrays.toString(bestScores));
+                assertEquals(moveScores.get(line.getMove()), line.getScore(), position::toString);
+            }
+            assertEquals(LINES, last.stream().mapToInt(AnalysisLine::getMove).distinct().count(), position::toString);
+            assertEquals(last.get(0).getMove(), result.getBestMove(), position::toString);
+            analysed++;
+        }
+        assertTrue(analysed > 0, "the random games should have positions to analyse");
+    }
+
+    /**
+     * This method makes the config of the tests: one thread, a fixed depth and no endgame solver.
+     * @return the config.
+     */
+    private static SearchConfig config() {
+        return new SearchConfig().setMaxDepth(DEPTH).setEndgameEmpties(0).setTranspositionTableMegabytes(4);
+    }
+}
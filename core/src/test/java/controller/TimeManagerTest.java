@@ -0,0 +1,102 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the deadlines of the clock through a whole game, on a time source that the test moves
+ * forward itself. Every move runs until its hard deadline, the longest that a search takes, and some moves go past
+ * it, as a search thread that is scheduled too late does.
+ */
+class TimeManagerTest {
+    private static final long CLOCK_MILLIS = 10_000;
+    private static final long MILLIS = 1_000_000L;
+    private static final long MIN_RESERVE = 25 * MILLIS;
+
+    /**
+     * The time that a move goes past its hard deadline, which is less than the smallest reserve.
+     */
+    private static final long OVERRUN = 20 * MILLIS;
+
+    private long now = 1_000 * MILLIS;
+
+    /**
+     * This method tests that the hard deadline of every move of a game is at most three times the share of the
+     * move and never later than the time on the clock minus the reserve, and that the reserve is still on the
+     * clock after the last move.
+     */
+    @Test
+    void hardDeadlineKeepsTheReserve() {
+        TimeManager clock = new TimeManager(CLOCK_MILLIS, () -> now);
+        long remaining = play(clock, 0);
+        assertTrue(remaining >= MIN_RESERVE, () -> "remaining " + remaining);
+    }
+
+    /**
+     * This method tests that one move past its hard deadline makes the clock keep that lag free for every move
+     * that is left, and forget it by an eighth after every later move that stays within its deadline.
+     */
+    @Test
+    void lagIsKeptForTheMovesLeft() {
+        TimeManager clock = new TimeManager(CLOCK_MILLIS, () -> now);
+        long remaining = play(clock, 1L << 3);
+        assertTrue(remaining >= MIN_RESERVE, () -> "remaining " + remaining);
+    }
+
+    /**
+     * This method tests that the clock does not run out when every move goes past its hard deadline, because the
+     * lag of the moves before is kept free, and that reset puts the full time back and forgets the lag.
+     */
+    @Test
+    void overrunOnEveryMoveDoesNotRunOutTheClock() {
+        TimeManager clock = new TimeManager(CLOCK_MILLIS, () -> now);
+        long remaining = play(clock, -1L);
+        assertTrue(remaining > 0, () -> "remaining " + remaining);
+
+        clock.reset();
+        assertEquals(CLOCK_MILLIS, clock.getRemainingMillis());
+        play(clock, 0);
+    }
+
+    /**
+     * This method plays the moves of one player through a game, from 60 empty squares down to 2, and checks the
+     * deadlines of every move with the rules of the clock: the reserve is the larger of 25 milliseconds and a
+     * twentieth of the time left, the lag of the moves before is kept free for every move that is left, and the
+     * hard deadline is at most three times the share of the move. The lag is carried from move to move: it is the
+     * largest overrun so far, and it is forgotten by an eighth after every move that does not go further past its
+     * hard deadline. When the lag does not fit any more, both deadlines are the start of the move.
+     * @param clock the clock, with the full time and no lag.
+     * @param overruns a mask with bit i set if move i goes OVERRUN past its hard deadline.
+     * @return the time that is left on the clock after the game, in nanoseconds.
+     */
+    private long play(TimeManager clock, long overruns) {
+        long remaining = clock.getRemainingMillis() * MILLIS;
+        long lag = 0;
+        for (int move = 0; move < 30; move++) {
+            int empties = 60 - 2 * move;
+            int movesLeft = (empties + 1) / 2;
+            long reserve = Math.max(MIN_RESERVE, remaining / 20);
+            long available = Math.max(0, remaining - reserve - lag * movesLeft);
+            String message = "move " + move + ", lag " + lag;
+
+            long start = now;
+            clock.startMove(empties);
+            long soft = clock.getSoftDeadline() - start;
+            long hard = clock.getHardDeadline() - start;
+            assertEquals(available / movesLeft, soft, message);
+            assertTrue(soft <= hard && hard <= 3 * soft, message);
+            assertTrue(hard <= Math.max(0, remaining - reserve), message);
+            assertTrue(hard <= available, message);
+
+            long overrun = (overruns >>> move & 1) != 0 ? OVERRUN : 0;
+            now += hard + overrun;
+            assertEquals((hard + overrun) / MILLIS, clock.finishMove(), message);
+            lag = overrun > lag ? overrun : lag - lag / 8;
+            remaining -= hard + overrun;
+            assertEquals(remaining / MILLIS, clock.getRemainingMillis(), message);
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,104 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the confidence interval of the Elo difference of a tournament, also when every game has the
+ * same result, where an interval from the spread at the score would shrink to one infinite point.
+ */
+class TournamentResultTest {
+    private static final int GAMES = 20;
+
+    /**
+     * This method tests that a tournament where the first player lost every game has a finite interval below 0.
+     */
+    @Test
+    void allLossesGiveFiniteInterval() {
+        TournamentResult result = result(0, 0, GAMES);
+        assertEquals(Double.NEGATIVE_INFINITY, result.getEloDifference());
+        assertFinite(result);
+        assertTrue(result.getEloUpperBound() < 0, result::toString);
+    }
+
+    /**
+     * This method tests that a tournament where the first player won every game has a finite interval above 0,
+     * which is the interval of all losses mirrored.
+     */
+    @Test
+    void allWinsGiveFiniteInterval() {
+        TournamentResult result = result(GAMES, 0, 0);
+        assertEquals(Double.POSITIVE_INFINITY, result.getEloDifference());
+        assertFinite(result);
+        assertTrue(result.getEloLowerBound() > 0, result::toString);
+
+        TournamentResult losses = result(0, 0, GAMES);
+        assertEquals(-losses.getEloUpperBound(), result.getEloLowerBound(), 1e-9);
+        assertEquals(-losses.getEloLowerBound(), result.getEloUpperBound(), 1e-9);
+    }
+
+    /**
+     * This method tests that a tournament of draws only has an interval around 0 that is not empty, and that
+     * it is narrower than the interval of as many games with as many wins as losses.
+     */
+    @Test
+    void allDrawsGiveIntervalAroundZero() {
+        TournamentResult result = result(0, GAMES, 0);
+        assertEquals(0, result.getEloDifference(), 1e-9);
+        assertFinite(result);
+        assertTrue(result.getEloLowerBound() < 0, result::toString);
+        assertEquals(-result.getEloLowerBound(), result.getEloUpperBound(), 1e-9);
+
+        TournamentResult even = result(GAMES / 2, 0, GAMES / 2);
+        assertTrue(result.getEloUpperBound() < even.getEloUpperBound(), result::toString);
+    }
+
+    /**
+     * This method tests that the interval of a mixed result contains the Elo difference and gets narrower with
+     * more games of the same results.
+     */
+    @Test
+    void intervalContainsEloAndNarrowsWithGames() {
+        TournamentResult result = result(12, 3, 5);
+        double elo = result.getEloDifference();
+        assertTrue(result.getEloLowerBound() < elo && elo < result.getEloUpperBound(), result::toString);
+
+        TournamentResult more = result(120, 30, 50);
+        assertEquals(elo, more.getEloDifference(), 1e-9);
+        assertTrue(more.getEloLowerBound() > result.getEloLowerBound(), more::toString);
+        assertTrue(more.getEloUpperBound() < result.getEloUpperBound(), more::toString);
+    }
+
+    /**
+     * This method tests that both ends of the interval are finite and in order.
+     * @param result the result of the tournament.
+     */
+    private static void assertFinite(TournamentResult result) {
+        assertTrue(Double.isFinite(result.getEloLowerBound()), result::toString);
+        assertTrue(Double.isFinite(result.getEloUpperBound()), result::toString);
+        assertTrue(result.getEloLowerBound() < result.getEloUpperBound(), result::toString);
+    }
+
+    /**
+     * This method makes the result of a tournament with the given numbers of games.
+     * @param wins the number of games that the first player won.
+     * @param draws the number of draws.
+     * @param losses the number of games that the first player lost.
+     * @return the result.
+     */
+    private static TournamentResult result(int wins, int draws, int losses) {
+        TournamentResult result = new TournamentResult();
+        for (int i = 0; i < wins; i++) {
+            result.addGame(10);
+        }
+        for (int i = 0; i < draws; i++) {
+            result.addGame(0);
+        }
+        for (int i = 0; i < losses; i++) {
+            result.addGame(-10);
+        }
+        return result;
+    }
+}
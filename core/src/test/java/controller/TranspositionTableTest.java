@@ -0,0 +1,89 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * This class tests the transposition table: the packed entries, the key check and the replacement in the
+ * buckets of two entries.
+ */
+class TranspositionTableTest {
+    /**
+     * The key of a position in the first bucket of the table.
+     */
+    private static final long KEY = 0x5deece66d0000000L;
+
+    /**
+     * This method tests that every field of a stored entry is read back by probe, also for negative scores, the
+     * highest depth and NO_MOVE.
+     */
+    @Test
+    void storeThenProbeReturnsTheEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1 << 16, table.getCapacity());
+        int[][] entries = {
+                {1, TranspositionTable.EXACT, 0, 19},
+                {60, TranspositionTable.LOWER_BOUND, SearchEngine.WIN_SCORE + 64, 0},
+                {255, TranspositionTable.UPPER_BOUND, -SearchEngine.WIN_SCORE - 64, 63},
+                {7, TranspositionTable.EXACT, -1, TranspositionTable.NO_MOVE}};
+        for (int i = 0; i < entries.length; i++) {
+            long key = KEY + 2L * i;
+            table.store(key, entries[i][0], entries[i][1], entries[i][2], entries[i][3]);
+        }
+        for (int i = 0; i < entries.length; i++) {
+            long entry = table.probe(KEY + 2L * i);
+            assertNotEquals(0L, entry);
+            assertEquals(entries[i][0], TranspositionTable.depth(entry));
+            assertEquals(entries[i][1], TranspositionTable.bound(entry));
+            assertEquals(entries[i][2], TranspositionTable.score(entry));
+            assertEquals(entries[i][3], TranspositionTable.move(entry));
+        }
+    }
+
+    /**
+     * This method tests that a key that falls in the same bucket as a stored entry but is another position is a
+     * miss, because the stored key XOR the data does not give it.
+     */
+    @Test
+    void collidingKeyIsAMiss() {
+        TranspositionTable table = new TranspositionTable(1);
+        long collidingKey = KEY ^ (1L << 40);
+        table.store(KEY, 10, TranspositionTable.EXACT, 12, 27);
+
+        assertEquals(0L, table.probe(collidingKey));
+        assertEquals(0L, table.probe(KEY ^ 1));
+        assertEquals(12, TranspositionTable.score(table.probe(KEY)));
+    }
+
+    /**
+     * This method tests the replacement in a bucket. In the same search the first entry keeps the deepest result
+     * and a shallower one goes to the second entry. After newSearch the entry of the old search is replaced
+     * first, even though it is deeper.
+     */
+    @Test
+    void staleGenerationIsReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = KEY;
+        long shallow = KEY ^ (1L << 32);
+        long newer = KEY ^ (2L << 32);
+        long newest = KEY ^ (3L << 32);
+        table.newSearch();
+        table.store(deep, 20, TranspositionTable.EXACT, 1, 0);
+        table.store(shallow, 5, TranspositionTable.EXACT, 2, 0);
+        assertEquals(1, TranspositionTable.score(table.probe(deep)));
+        assertEquals(2, TranspositionTable.score(table.probe(shallow)));
+
+        table.store(newer, 4, TranspositionTable.EXACT, 3, 0);
+        assertEquals(1, TranspositionTable.score(table.probe(deep)), "the deepest entry is kept in the same search");
+        assertEquals(0L, table.probe(shallow));
+        assertEquals(3, TranspositionTable.score(table.probe(newer)));
+
+        table.newSearch();
+        table.store(newest, 3, TranspositionTable.EXACT, 4, 0);
+        assertEquals(0L, table.probe(deep), "the entry of the old search is replaced first");
+        assertEquals(3, TranspositionTable.score(table.probe(newer)));
+        assertEquals(4, TranspositionTable.score(table.probe(newest)));
+    }
+}
@@ -0,0 +1,88 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class is the regression test of Game.countFlips. It plays random games on both board engines and compares
+ * the count of every move on every position with a brute-force reference that walks the squares of the board one
+ * by one in all the eight directions.
+ */
+class CountFlipsTest {
+    private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int GAMES = 2000;
+    private static final long SEED = 20240520L;
+
+    /**
+     * This method tests countFlips against the reference on the positions of random games.
+     */
+    @Test
+    void countFlipsMatchesReference() {
+        List<List<Position>> games = RandomGames.games(SEED, GAMES);
+        for (int i = 0; i < games.size(); i++) {
+            List<Position> positions = games.get(i);
+            Board board = i % 2 == 0 ? new Board(8, 8) : new BitBoard();
+            Game game = new Game(new SilentPlayer("Black", Square.BLACK), new SilentPlayer("White", Square.WHITE), board);
+            for (int ply = 0; ply + 1 < positions.size(); ply++) {
+                for (Square colour : new Square[]{Square.BLACK, Square.WHITE}) {
+                    checkPosition(game, colour);
+                }
+
+                int move = RandomGames.move(positions.get(ply), positions.get(ply + 1));
+                if (move != RandomGames.PASS) {
+                    game.makeMove(move, game.getTurn().getColor());
+                }
+                game.changeTurns();
+            }
+            assertTrue(game.isGameOver());
+        }
+    }
+
+    /**
+     * This method compares countFlips with the reference for every square of the board, and checks that the board
+     * is not changed by the counts.
+     * @param game the game with the position to be checked.
+     * @param colour the colour of the disc that would be placed.
+     */
+    private static void checkPosition(Game game, Square colour) {
+        String before = game.returnBoard().toString();
+        for (int index = 0; index < 64; index++) {
+            Move move = new Move(index / 8, index % 8, colour);
+            assertEquals(referenceCount(game.returnBoard(), move), game.countFlips(move),
+                    () -> "countFlips(" + move + ") on\n" + before);
+        }
+        assertEquals(before, game.returnBoard().toString(), "countFlips changed the board");
+    }
+
+    /**
+     * This method counts the flipped discs by walking each direction until it finds an empty square,
+     * the edge of the board or a disc of the player.
+     * @param board the board with the position.
+     * @param move the move to be counted.
+     * @return the number of discs that the move flips.
+     */
+    private static int referenceCount(Board board, Move move) {
+        if (!board.getContent(move.getRow(), move.getCol()).equals(Square.EMPTY)) {
+            return 0;
+        }
+        int count = 0;
+        for (int[] direction : DIRECTIONS) {
+            int row = move.getRow() + direction[0];
+            int col = move.getCol() + direction[1];
+            int opponentDiscs = 0;
+            while (board.isInBounds(row, col) && board.getContent(row, col) == move.getSquare().getOtherPlayerSquare()) {
+                opponentDiscs++;
+                row += direction[0];
+                col += direction[1];
+            }
+            if (board.isInBounds(row, col) && board.getContent(row, col) == move.getSquare()) {
+                count += opponentDiscs;
+            }
+        }
+        return count;
+    }
+}
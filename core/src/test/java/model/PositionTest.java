@@ -0,0 +1,141 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the Position value type against a Game that plays the same random moves on a board: the
+ * conversion to and from boards, equals and hashCode, and the children of every position.
+ */
+class PositionTest {
+    private static final long SEED = 20240528L;
+    private static final int GAMES = 300;
+
+    /**
+     * This method tests that the positions of random games go to a board and back without a change, and that they
+     * have the discs, the player to move and the hash key of the game.
+     */
+    @Test
+    void boardRoundTrip() {
+        List<List<Position>> games = RandomGames.games(SEED, GAMES);
+        for (int i = 0; i < games.size(); i++) {
+            List<Position> positions = games.get(i);
+            Game game = newGame(i);
+            for (int ply = 0; ply + 1 < positions.size(); ply++) {
+                Position position = positions.get(ply);
+                Square colour = game.getTurn().getColor();
+                Board board = game.returnBoard();
+                assertEquals(position, Position.fromGame(game));
+                assertEquals(colour, position.getSideToMove());
+                assertEquals(game.getHashKey(), position.getHashKey());
+
+                BitBoard copy = position.toBoard();
+                for (Square disc : new Square[]{Square.BLACK, Square.WHITE}) {
+                    assertEquals(board.getDiscMask(disc), copy.getDiscMask(disc));
+                    assertEquals(board.getDiscMask(disc), position.getDiscs(disc));
+                }
+                assertEquals(position, Position.fromBoard(copy, colour));
+
+                play(game, position, positions.get(ply + 1));
+            }
+            assertTrue(game.isGameOver());
+        }
+    }
+
+    /**
+     * This method tests that positions with the same discs and player to move are equal and have the same hash
+     * code, however they were made, and that a position is not equal to the same discs with the other player
+     * to move.
+     */
+    @Test
+    void equalsAndHashCode() {
+        for (Position position : RandomGames.positions(SEED, GAMES)) {
+            Square colour = position.getSideToMove();
+            Position same = Position.of(position.getDiscs(Square.BLACK), position.getDiscs(Square.WHITE), colour);
+            assertEquals(position, same);
+            assertEquals(position.hashCode(), same.hashCode());
+            assertEquals(position.toString(), same.toString());
+
+            Position passed = position.pass();
+            assertNotEquals(position, passed);
+            assertEquals(position, passed.pass());
+            assertEquals(position.hashCode(), passed.pass().hashCode());
+            assertNotEquals(position, null);
+            assertNotEquals(position, (Object) position.toString());
+        }
+    }
+
+    /**
+     * This method tests that the children of a position are the positions after every valid move of the game,
+     * with the other player to move, that the only child is the pass when the player has no valid move, and that
+     * a finished game has no children.
+     */
+    @Test
+    void childrenAreThePositionsAfterEveryValidMove() {
+        int passes = 0;
+        List<List<Position>> games = RandomGames.games(SEED, GAMES);
+        for (int i = 0; i < games.size(); i++) {
+            List<Position> positions = games.get(i);
+            Game game = newGame(i);
+            for (int ply = 0; ply < positions.size(); ply++) {
+                Position position = positions.get(ply);
+                Square colour = game.getTurn().getColor();
+                Set<Position> expected = new HashSet<>();
+                List<Integer> validMoves = game.getAllValidMoves(colour);
+                for (int index : validMoves) {
+                    long flips = game.makeMove(index, colour);
+                    expected.add(Position.fromBoard(game.returnBoard(), colour.getOtherPlayerSquare()));
+                    game.undoMove(index, flips);
+                    assertTrue(position.isValidMove(index));
+                }
+                if (validMoves.isEmpty() && !game.isGameOver()) {
+                    expected.add(position.pass());
+                    passes++;
+                }
+
+                List<Position> children = position.children();
+                assertEquals(expected.size(), children.size());
+                assertEquals(expected, new HashSet<>(children));
+                if (game.isGameOver()) {
+                    assertTrue(position.isGameOver());
+                    assertEquals(positions.size() - 1, ply);
+                    break;
+                }
+                play(game, position, positions.get(ply + 1));
+            }
+        }
+        assertTrue(passes > 0, "the random games should have positions where a player has to pass");
+    }
+
+    /**
+     * This method plays the move that leads from one position of a random game to the next on the game.
+     * @param game the game, which has the discs and the player to move of the position.
+     * @param position the position.
+     * @param next the next position of the random game.
+     */
+    private static void play(Game game, Position position, Position next) {
+        int move = RandomGames.move(position, next);
+        if (move != RandomGames.PASS) {
+            game.makeMove(move, game.getTurn().getColor());
+        }
+        game.changeTurns();
+    }
+
+    /**
+     * This method creates a game in the start position, on the array board for even numbers and on the bitboard
+     * for odd numbers.
+     * @param number the number of the game.
+     * @return the game.
+     */
+    private static Game newGame(int number) {
+        Board board = number % 2 == 0 ? new Board(8, 8) : new BitBoard();
+        return new Game(new SilentPlayer("Black", Square.BLACK), new SilentPlayer("White", Square.WHITE), board);
+    }
+}
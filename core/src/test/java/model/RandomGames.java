@@ -0,0 +1,69 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class plays the random games that the tests run on. Every game starts from Position.START and goes to a
+ * random child of every position until the game is over, so the same seed always gives the same games.
+ */
+public final class RandomGames {
+    /**
+     * The move that move returns when the player to move passes.
+     */
+    public static final int PASS = -1;
+
+    private RandomGames() {
+    }
+
+    /**
+     * This method plays random games.
+     * @param seed the seed of the random moves.
+     * @param games the number of games.
+     * @return the positions of every game, from the start position to the finished game.
+     */
+    public static List<List<Position>> games(long seed, int games) {
+        Random random = new Random(seed);
+        List<List<Position>> result = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            List<Position> game = new ArrayList<>();
+            Position position = Position.START;
+            game.add(position);
+            while (!position.isGameOver()) {
+                List<Position> children = position.children();
+                position = children.get(random.nextInt(children.size()));
+                game.add(position);
+            }
+            result.add(game);
+        }
+        return result;
+    }
+
+    /**
+     * This method collects the positions of random games, from the start of every game up to the position before
+     * the end, so none of them is a finished game.
+     * @param seed the seed of the random moves.
+     * @param games the number of games.
+     * @return the positions.
+     */
+    public static List<Position> positions(long seed, int games) {
+        List<Position> positions = new ArrayList<>();
+        for (List<Position> game : games(seed, games)) {
+            positions.addAll(game.subList(0, game.size() - 1));
+        }
+        return positions;
+    }
+
+    /**
+     * This method finds the move that leads from a position to one of its children.
+     * @param position the position.
+     * @param child the position after the move.
+     * @return the index position of the new disc, or PASS if the discs are the same.
+     */
+    public static int move(Position position, Position child) {
+        long before = position.getPlayerDiscs() | position.getOpponentDiscs();
+        long after = child.getPlayerDiscs() | child.getOpponentDiscs();
+        return after == before ? PASS : Long.numberOfTrailingZeros(after & ~before);
+    }
+}
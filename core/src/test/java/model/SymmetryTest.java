@@ -0,0 +1,132 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests the symmetries of the board. Every transform is compared square by square with the formula of
+ * the row and the column of the square after the symmetry, and the canonical form must be the same for all the
+ * eight images of a position.
+ */
+class SymmetryTest {
+    private static final long SEED = 20240530L;
+    private static final int GAMES = 200;
+
+    /**
+     * This method tests that the transpose and the two mirrors move every square like their formulas.
+     */
+    @Test
+    void transformsMapSquaresLikeTheirFormulas() {
+        for (int index = 0; index < 64; index++) {
+            int row = index / 8;
+            int col = index % 8;
+            long square = 1L << index;
+            assertEquals(1L << (col * 8 + row), Symmetry.transpose(square), "transpose of " + index);
+            assertEquals(1L << (row * 8 + 7 - col), Symmetry.mirrorColumns(square), "mirrorColumns of " + index);
+            assertEquals(1L << ((7 - row) * 8 + col), Symmetry.mirrorRows(square), "mirrorRows of " + index);
+        }
+    }
+
+    /**
+     * This method tests that every symmetry moves every square like its formula, on masks and on square indexes,
+     * and that undo takes the symmetry back. Symmetry 3 turns the board by 180 degrees, and symmetries 5 and 6
+     * turn it by 90 degrees.
+     */
+    @Test
+    void symmetriesMapSquaresLikeTheirFormulas() {
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            for (int index = 0; index < 64; index++) {
+                int expected = referenceSquare(index, symmetry);
+                String message = "symmetry " + symmetry + " of square " + index;
+                assertEquals(1L << expected, Symmetry.apply(1L << index, symmetry), message);
+                assertEquals(expected, Symmetry.applyToSquare(index, symmetry), message);
+                assertEquals(1L << index, Symmetry.undo(1L << expected, symmetry), message);
+                assertEquals(index, Symmetry.undoOnSquare(expected, symmetry), message);
+            }
+        }
+    }
+
+    /**
+     * This method tests that all the eight images of the positions of random games have the same canonical form,
+     * and that the canonical symmetry turns each image into that form.
+     */
+    @Test
+    void canonicalIsTheSameForAllImages() {
+        for (Position position : RandomGames.positions(SEED, GAMES)) {
+            Position canonical = position.canonical();
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                Position image = position.applySymmetry(symmetry);
+                assertEquals(canonical, image.canonical(), "canonical of image " + symmetry);
+                assertEquals(canonical, image.applySymmetry(image.getCanonicalSymmetry()));
+            }
+        }
+    }
+
+    /**
+     * This method tests that the canonical form is the smallest pair of masks of the eight images, and that its
+     * symmetries are exactly the ones that give that pair, on the positions of random games and on the start
+     * position, which four symmetries keep the same.
+     */
+    @Test
+    void canonicalFormIsTheSmallestImage() {
+        List<Position> positions = new ArrayList<>(RandomGames.positions(SEED, GAMES));
+        positions.add(Position.START);
+        for (Position position : positions) {
+            long player = position.getPlayerDiscs();
+            long opponent = position.getOpponentDiscs();
+            long bestPlayer = -1L;
+            long bestOpponent = -1L;
+            int expected = 0;
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                long newPlayer = Symmetry.apply(player, symmetry);
+                long newOpponent = Symmetry.apply(opponent, symmetry);
+                int compare = Long.compareUnsigned(newPlayer, bestPlayer);
+                if (compare == 0) {
+                    compare = Long.compareUnsigned(newOpponent, bestOpponent);
+                }
+                if (compare < 0) {
+                    bestPlayer = newPlayer;
+                    bestOpponent = newOpponent;
+                    expected = 0;
+                }
+                if (compare <= 0) {
+                    expected |= 1 << symmetry;
+                }
+            }
+
+            CanonicalForm form = Symmetry.canonical(player, opponent);
+            assertEquals(bestPlayer, form.getPlayerDiscs(), position::toString);
+            assertEquals(bestOpponent, form.getOpponentDiscs(), position::toString);
+            assertEquals(expected, form.getSymmetries(), position::toString);
+            assertEquals(Integer.numberOfTrailingZeros(expected), form.getSymmetry());
+            assertEquals(form.getSymmetry(), position.getCanonicalSymmetry());
+        }
+        assertEquals(4, Integer.bitCount(Symmetry.canonical(Position.START.getPlayerDiscs(),
+                Position.START.getOpponentDiscs()).getSymmetries()));
+    }
+
+    /**
+     * This method calculates where a square goes after a symmetry with one formula for every symmetry.
+     * @param index the index position of the square.
+     * @param symmetry the number of the symmetry, from 0 to 7.
+     * @return the index position of the square after the symmetry.
+     */
+    private static int referenceSquare(int index, int symmetry) {
+        int r = index / 8;
+        int c = index % 8;
+        return switch (symmetry) {
+            case 0 -> r * 8 + c;
+            case 1 -> r * 8 + (7 - c);
+            case 2 -> (7 - r) * 8 + c;
+            case 3 -> (7 - r) * 8 + (7 - c);
+            case 4 -> c * 8 + r;
+            case 5 -> c * 8 + (7 - r);
+            case 6 -> (7 - c) * 8 + r;
+            default -> (7 - c) * 8 + (7 - r);
+        };
+    }
+}
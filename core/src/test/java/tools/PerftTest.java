@@ -0,0 +1,58 @@
+package tools;
+
+import model.BitBoard;
+import model.Board;
+import model.Game;
+import model.SilentPlayer;
+import model.Square;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests the move generation with the published perft counts of the start position, through the methods
+ * of the game on both board engines and on the raw 64-bit masks with the move generator.
+ */
+class PerftTest {
+    /**
+     * This method tests the counts of the Game methods on the array board.
+     * @param depth the number of plies.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9})
+    void arrayBoardMatchesPublishedCounts(int depth) {
+        assertEquals(Perft.PERFT_COUNTS[depth], Perft.perft(newGame(new Board(8, 8)), depth, false));
+    }
+
+    /**
+     * This method tests the counts of the Game methods on the bitboard.
+     * @param depth the number of plies.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9})
+    void bitBoardMatchesPublishedCounts(int depth) {
+        assertEquals(Perft.PERFT_COUNTS[depth], Perft.perft(newGame(new BitBoard()), depth, false));
+    }
+
+    /**
+     * This method tests the counts of the move generator on the masks of the start position.
+     * @param depth the number of plies.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11})
+    void moveGeneratorMatchesPublishedCounts(int depth) {
+        Board board = new BitBoard();
+        assertEquals(Perft.PERFT_COUNTS[depth],
+                Perft.perft(board.getDiscMask(Square.BLACK), board.getDiscMask(Square.WHITE), depth, false));
+    }
+
+    /**
+     * This method creates a game with the start position on a board, black to move.
+     * @param board the board of the game.
+     * @return the game.
+     */
+    private static Game newGame(Board board) {
+        return new Game(new SilentPlayer("Black", Square.BLACK), new SilentPlayer("White", Square.WHITE), board);
+    }
+}
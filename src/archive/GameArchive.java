@@ -0,0 +1,193 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * This class reads a game archive that was written by a GameRecordWriter. The file is memory-mapped instead of
+ * read into the heap, so archives of many gigabytes can be read as fast as the disk and the page cache allow.
+ * One mapped buffer can be at most 2 GB, so the file is mapped in windows of WINDOW_BYTES that overlap by the
+ * size of the largest record: a record that starts in a window always ends in the same window.
+ * The games are read through a GameCursor, which reads the fields of one record straight from the mapped file
+ * and moves on to the next record without creating any objects. The archive only reads the mapped buffers with
+ * absolute reads, so several threads can read it at the same time with their own cursors.
+ * A record that was cut off at the end of the file, for example when a writer was stopped, is not read, and the
+ * next GameRecordWriter that opens the file removes it before it adds games.
+ */
+public class GameArchive implements Closeable {
+    /**
+     * The number of bytes of one mapped window, without the overlap with the next window.
+     */
+    static final long WINDOW_BYTES = 1L << 30;
+
+    /**
+     * The largest number of bytes of a record: the length field, three fixed bytes, the two names with
+     * their length bytes and the moves.
+     */
+    static final int MAX_RECORD_BYTES = 2 + 3 + 2 * (1 + GameRecord.MAX_NAME_BYTES) + GameRecord.MAX_MOVES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] windows;
+    private final long size;
+
+    /**
+     * This method opens a game archive for reading and maps it into memory.
+     * @param path the path of the archive file.
+     * @throws IOException if the file cannot be read or is not a game archive.
+     */
+    public GameArchive(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            int windowCount = (int) Math.max(1, (size + WINDOW_BYTES - 1) / WINDOW_BYTES);
+            windows = new MappedByteBuffer[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                long start = i * WINDOW_BYTES;
+                long length = Math.min(size - start, WINDOW_BYTES + MAX_RECORD_BYTES);
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                windows[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            if (size < GameRecordWriter.HEADER_BYTES || windows[0].getInt(0) != GameRecordWriter.MAGIC
+                    || windows[0].getInt(4) != GameRecordWriter.VERSION) {
+                throw new IOException(path + " is not a game archive");
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This method returns the size of the archive file.
+     * @return the number of bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * This method returns the offset of the first record in the file.
+     * @return the offset.
+     */
+    public long firstOffset() {
+        return GameRecordWriter.HEADER_BYTES;
+    }
+
+    /**
+     * This method creates a cursor that is placed before the first game of the archive.
+     * @return the cursor, next must be called to read the first game.
+     */
+    public GameCursor cursor() {
+        return new GameCursor(this, firstOffset(), true);
+    }
+
+    /**
+     * This method creates a cursor that is placed before the game that starts at an offset, for example the end
+     * offset of the last game that was read earlier. Games that are added to the archive later are not seen by
+     * this archive, it must be opened again to read them.
+     * @param offset the offset of the first byte of a record, or the size of the archive.
+     * @return the cursor, next must be called to read the game at the offset.
+     */
+    public GameCursor cursorFrom(long offset) {
+        if (offset < firstOffset() || offset > size) {
+            throw new IllegalArgumentException("The offset " + offset + " is outside the archive");
+        }
+        return new GameCursor(this, offset, true);
+    }
+
+    /**
+     * This method creates a cursor on the game that starts at an offset, for example an offset that was
+     * returned by GameCursor.getOffset.
+     * @param offset the offset of the first byte of a record.
+     * @return the cursor on the game.
+     */
+    public GameCursor cursorAt(long offset) {
+        if (!isComplete(offset)) {
+            throw new IllegalArgumentException("There is no game at offset " + offset);
+        }
+        return new GameCursor(this, offset, false);
+    }
+
+    /**
+     * This method gives every game of the archive to an action, from the first to the last. The action gets
+     * the same cursor every time, so it must not keep it.
+     * @param action the action that reads the games.
+     */
+    public void forEach(Consumer<GameCursor> action) {
+        GameCursor cursor = cursor();
+        while (cursor.next()) {
+            action.accept(cursor);
+        }
+    }
+
+    /**
+     * This method counts the games of the archive.
+     * @return the number of games.
+     */
+    public long count() {
+        long games = 0;
+        GameCursor cursor = cursor();
+        while (cursor.next()) {
+            games++;
+        }
+        return games;
+    }
+
+    /**
+     * This method tells if a whole record starts at an offset.
+     * @param offset the offset of the first byte of the record.
+     * @return true if the record is in the file, false if the offset is outside the file or the record is cut off.
+     */
+    boolean isComplete(long offset) {
+        return offset >= GameRecordWriter.HEADER_BYTES && offset + 2 <= size
+                && offset + 2 + recordLength(offset) <= size;
+    }
+
+    /**
+     * This method reads the number of bytes that follow the length field of a record.
+     * @param offset the offset of the first byte of the record.
+     * @return the number of bytes.
+     */
+    int recordLength(long offset) {
+        return Short.toUnsignedInt(windows[(int) (offset / WINDOW_BYTES)].getShort((int) (offset % WINDOW_BYTES)));
+    }
+
+    /**
+     * This method reads one byte of a record.
+     * @param recordOffset the offset of the first byte of the record.
+     * @param index the index of the byte in the record.
+     * @return the byte as a number from 0 to 255.
+     */
+    int unsignedByte(long recordOffset, int index) {
+        MappedByteBuffer window = windows[(int) (recordOffset / WINDOW_BYTES)];
+        return Byte.toUnsignedInt(window.get((int) (recordOffset % WINDOW_BYTES) + index));
+    }
+
+    /**
+     * This method copies bytes of a record into an array.
+     * @param recordOffset the offset of the first byte of the record.
+     * @param index the index of the first byte in the record.
+     * @param bytes the array that gets the bytes.
+     * @param length the number of bytes.
+     */
+    void copy(long recordOffset, int index, byte[] bytes, int length) {
+        MappedByteBuffer window = windows[(int) (recordOffset / WINDOW_BYTES)];
+        window.get((int) (recordOffset % WINDOW_BYTES) + index, bytes, 0, length);
+    }
+
+    /**
+     * This method closes the file. The mapped memory is released by the garbage collector once no cursor
+     * uses it anymore.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
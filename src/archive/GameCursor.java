@@ -0,0 +1,145 @@
+package archive;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is a cursor on the games of a game archive. It points at one record at a time and reads its fields
+ * straight from the mapped file, so going through an archive creates no objects for the games. Only the methods
+ * that return names or a GameRecord create objects. A cursor must be used by one thread at a time.
+ */
+public class GameCursor {
+    private static final int BLACK_DISCS = 2;
+    private static final int WHITE_DISCS = 3;
+    private static final int MOVE_COUNT = 4;
+    private static final int BLACK_NAME = 5;
+
+    private final GameArchive archive;
+    private long offset;
+    private boolean before;
+    private int whiteName;
+    private int movesStart;
+
+    /**
+     * This method constructs a new cursor.
+     * @param archive the archive that is read.
+     * @param offset the offset of a record.
+     * @param before true if the cursor is placed before the record, false if it is on the record.
+     */
+    GameCursor(GameArchive archive, long offset, boolean before) {
+        this.archive = archive;
+        this.offset = offset;
+        this.before = before;
+        if (!before) {
+            readLayout();
+        }
+    }
+
+    /**
+     * This method moves the cursor to the next game of the archive.
+     * @return true if the cursor is on the next game, false if there are no more games.
+     */
+    public boolean next() {
+        long nextOffset = before ? offset : getEndOffset();
+        if (!archive.isComplete(nextOffset)) {
+            return false;
+        }
+        offset = nextOffset;
+        before = false;
+        readLayout();
+        return true;
+    }
+
+    /**
+     * This method finds where the white name and the moves start in the current record.
+     */
+    private void readLayout() {
+        whiteName = BLACK_NAME + 1 + archive.unsignedByte(offset, BLACK_NAME);
+        movesStart = whiteName + 1 + archive.unsignedByte(offset, whiteName);
+    }
+
+    /**
+     * This method returns the offset of the current game in the file, which can be given to GameArchive.cursorAt.
+     * @return the offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * This method returns the offset right after the current game, which is where the next game starts.
+     * @return the offset.
+     */
+    public long getEndOffset() {
+        return offset + 2 + archive.recordLength(offset);
+    }
+
+    /**
+     * This method returns the number of black discs at the end of the current game.
+     * @return the number of discs.
+     */
+    public int getBlackDiscs() {
+        return archive.unsignedByte(offset, BLACK_DISCS);
+    }
+
+    /**
+     * This method returns the number of white discs at the end of the current game.
+     * @return the number of discs.
+     */
+    public int getWhiteDiscs() {
+        return archive.unsignedByte(offset, WHITE_DISCS);
+    }
+
+    /**
+     * This method returns the number of moves of the current game, passes included.
+     * @return the number of moves.
+     */
+    public int getMoveCount() {
+        return archive.unsignedByte(offset, MOVE_COUNT);
+    }
+
+    /**
+     * This method returns one move of the current game.
+     * @param ply the number of the move, from 0.
+     * @return the index position of the move, or GameRecord.PASS.
+     */
+    public int getMove(int ply) {
+        return archive.unsignedByte(offset, movesStart + ply);
+    }
+
+    /**
+     * This method reads the name of the black player of the current game.
+     * @return the name.
+     */
+    public String getBlackName() {
+        return readName(BLACK_NAME);
+    }
+
+    /**
+     * This method reads the name of the white player of the current game.
+     * @return the name.
+     */
+    public String getWhiteName() {
+        return readName(whiteName);
+    }
+
+    /**
+     * This method reads a name of the current record.
+     * @param index the index of the length byte of the name in the record.
+     * @return the name.
+     */
+    private String readName(int index) {
+        byte[] bytes = new byte[archive.unsignedByte(offset, index)];
+        archive.copy(offset, index + 1, bytes, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method copies the current game to the heap.
+     * @return the game record.
+     */
+    public GameRecord toRecord() {
+        byte[] moves = new byte[getMoveCount()];
+        archive.copy(offset, movesStart, moves, moves.length);
+        return new GameRecord(getBlackName(), getWhiteName(), getBlackDiscs(), getWhiteDiscs(), moves);
+    }
+}
@@ -0,0 +1,130 @@
+package archive;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class represents a finished game that is stored in a game archive: the names of both players, the final
+ * number of discs of both colours and the moves, one byte per move. A move is the index position of the square
+ * (0 to 63) or PASS when the player had no valid move. Black always plays the first move.
+ */
+public class GameRecord {
+    /**
+     * The byte of a pass in the moves of a record.
+     */
+    public static final int PASS = 64;
+
+    /**
+     * The longest name of a player in bytes, so the length fits in one byte.
+     */
+    public static final int MAX_NAME_BYTES = 255;
+
+    /**
+     * The largest number of moves in a record, so the count fits in one byte.
+     */
+    public static final int MAX_MOVES = 255;
+
+    private final String blackName;
+    private final String whiteName;
+    private final int blackDiscs;
+    private final int whiteDiscs;
+    private final byte[] moves;
+
+    /**
+     * This method constructs a new game record.
+     * @param blackName the name of the black player.
+     * @param whiteName the name of the white player.
+     * @param blackDiscs the number of black discs at the end of the game.
+     * @param whiteDiscs the number of white discs at the end of the game.
+     * @param moves the moves of the game, from the first move of black, each 0 to 63 or PASS.
+     */
+    public GameRecord(String blackName, String whiteName, int blackDiscs, int whiteDiscs, byte[] moves) {
+        if (blackName.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES
+                || whiteName.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("A player name can have at most " + MAX_NAME_BYTES + " bytes");
+        }
+        if (blackDiscs < 0 || whiteDiscs < 0 || blackDiscs + whiteDiscs > 64) {
+            throw new IllegalArgumentException("The disc counts must be between 0 and 64 together");
+        }
+        if (moves.length > MAX_MOVES) {
+            throw new IllegalArgumentException("A game record can have at most " + MAX_MOVES + " moves");
+        }
+        for (byte move : moves) {
+            if (move < 0 || move > PASS) {
+                throw new IllegalArgumentException("A move must be an index position from 0 to 63 or PASS");
+            }
+        }
+        this.blackName = blackName;
+        this.whiteName = whiteName;
+        this.blackDiscs = blackDiscs;
+        this.whiteDiscs = whiteDiscs;
+        this.moves = moves.clone();
+    }
+
+    /**
+     * This method returns the name of the black player.
+     * @return the name.
+     */
+    public String getBlackName() {
+        return blackName;
+    }
+
+    /**
+     * This method returns the name of the white player.
+     * @return the name.
+     */
+    public String getWhiteName() {
+        return whiteName;
+    }
+
+    /**
+     * This method returns the number of black discs at the end of the game.
+     * @return the number of discs.
+     */
+    public int getBlackDiscs() {
+        return blackDiscs;
+    }
+
+    /**
+     * This method returns the number of white discs at the end of the game.
+     * @return the number of discs.
+     */
+    public int getWhiteDiscs() {
+        return whiteDiscs;
+    }
+
+    /**
+     * This method returns the number of moves, passes included.
+     * @return the number of moves.
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * This method returns one move of the game.
+     * @param ply the number of the move, from 0.
+     * @return the index position of the move, or PASS.
+     */
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * This method returns the moves of the game.
+     * @return a copy of the moves.
+     */
+    public byte[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * This method prints the game record.
+     * @return the players, the result and the moves.
+     */
+    @Override
+    public String toString() {
+        return blackName + " (BLACK) " + blackDiscs + " - " + whiteDiscs + " " + whiteName + " (WHITE) "
+                + Arrays.toString(moves);
+    }
+}
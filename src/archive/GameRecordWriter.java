@@ -0,0 +1,142 @@
+package archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class appends game records to a game archive file. A new file starts with the archive header, and an
+ * existing file is only added to, so the games that are already stored are never changed. Only a record that was
+ * cut off at the end of an existing file, for example by a crash while a game was saved, is removed before the new
+ * games are added, otherwise the new games would be read as the rest of that record.
+ * Several threads can write to the same writer, every record is written as a whole.
+ * A record is: the number of bytes that follow (2 bytes), the black discs, the white discs, the number of moves,
+ * the black name (length byte and UTF-8 bytes), the white name (length byte and UTF-8 bytes) and the moves,
+ * one byte each.
+ */
+public class GameRecordWriter implements Closeable {
+    /**
+     * The first four bytes of a game archive file, "OTHR".
+     */
+    static final int MAGIC = 0x4f544852;
+
+    /**
+     * The version of the record format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of bytes of the archive header: the magic number and the version.
+     */
+    static final int HEADER_BYTES = 8;
+
+    private final DataOutputStream out;
+    private long games;
+
+    /**
+     * This method opens a game archive to add games to it. The file is created if it doesn't exist.
+     * A record that was cut off at the end of an existing file is removed first.
+     * @param path the path of the archive file.
+     * @throws IOException if the file cannot be opened or is not a game archive.
+     */
+    public GameRecordWriter(Path path) throws IOException {
+        boolean newFile = !Files.exists(path) || Files.size(path) == 0;
+        if (!newFile) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel),
+                        1 << 16));
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException(path + " is not a game archive");
+                }
+                long size = channel.size();
+                long end = completeRecordsEnd(in, size);
+                if (end < size) {
+                    channel.truncate(end);
+                }
+            }
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE), 1 << 16));
+        if (newFile) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+    }
+
+    /**
+     * This method walks the records of an archive by their length fields, without reading the games.
+     * @param in the stream of the archive, placed right after the header.
+     * @param size the number of bytes of the archive.
+     * @return the offset right after the last record that is in the file as a whole.
+     * @throws IOException if the archive cannot be read.
+     */
+    private static long completeRecordsEnd(DataInputStream in, long size) throws IOException {
+        long offset = HEADER_BYTES;
+        while (offset + 2 <= size) {
+            int length = in.readUnsignedShort();
+            if (offset + 2 + length > size) {
+                break;
+            }
+            in.skipNBytes(length);
+            offset += 2 + length;
+        }
+        return offset;
+    }
+
+    /**
+     * This method adds a game to the end of the archive.
+     * @param record the game to be added.
+     * @throws IOException if the game cannot be written.
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        byte[] blackName = record.getBlackName().getBytes(StandardCharsets.UTF_8);
+        byte[] whiteName = record.getWhiteName().getBytes(StandardCharsets.UTF_8);
+        int moveCount = record.getMoveCount();
+        out.writeShort(3 + 1 + blackName.length + 1 + whiteName.length + moveCount);
+        out.writeByte(record.getBlackDiscs());
+        out.writeByte(record.getWhiteDiscs());
+        out.writeByte(moveCount);
+        out.writeByte(blackName.length);
+        out.write(blackName);
+        out.writeByte(whiteName.length);
+        out.write(whiteName);
+        for (int ply = 0; ply < moveCount; ply++) {
+            out.writeByte(record.getMove(ply));
+        }
+        games++;
+    }
+
+    /**
+     * This method returns the number of games that this writer has added.
+     * @return the number of games.
+     */
+    public synchronized long getGamesWritten() {
+        return games;
+    }
+
+    /**
+     * This method writes the buffered games to the file.
+     * @throws IOException if the games cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * This method writes the buffered games and closes the file.
+     * @throws IOException if the games cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
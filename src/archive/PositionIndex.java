@@ -0,0 +1,263 @@
+package archive;
+
+import model.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads a position index that was built by the PositionIndexer. The index has one entry for every
+ * position of every game in an archive: the Zobrist hash key of the position, the offset of the game in the
+ * archive, the ply of the position in the game and the move that was played from it. The entries are sorted by the
+ * hash key, and a directory gives the first entry of every value of the top DIRECTORY_BITS bits of the key, so a
+ * query reads the directory and then binary searches a few entries of the memory-mapped file instead of scanning it.
+ * The hash keys are 64 bits, so two positions with the same key are treated as the same position.
+ * File layout: the header (magic number, version, number of entries, end offset of the indexed games in the
+ * archive), the entries (key and packed value, 8 bytes each) and the directory (DIRECTORY_SIZE + 1 entry numbers).
+ */
+public class PositionIndex implements Closeable {
+    /**
+     * The first four bytes of a position index file, "OTHI".
+     */
+    static final int MAGIC = 0x4f544849;
+
+    /**
+     * The version of the index format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of bytes of the header.
+     */
+    static final int HEADER_BYTES = 24;
+
+    /**
+     * The number of bytes of one entry.
+     */
+    static final int ENTRY_BYTES = 16;
+
+    /**
+     * The number of top bits of the hash key that select a slot of the directory.
+     */
+    static final int DIRECTORY_BITS = 16;
+
+    /**
+     * The number of slots of the directory.
+     */
+    static final int DIRECTORY_SIZE = 1 << DIRECTORY_BITS;
+
+    /**
+     * The move of an entry for the last position of a game, from which no move was played.
+     */
+    public static final int END = 255;
+
+    /**
+     * The number of entries of one mapped window, which is a whole number of entries below 2 GB.
+     */
+    private static final long WINDOW_ENTRIES = 1L << 26;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] windows;
+    private final long[] directory;
+    private final long entryCount;
+    private final long archiveEnd;
+
+    /**
+     * This method opens a position index and maps its entries into memory.
+     * @param path the path of the index file.
+     * @throws IOException if the file cannot be read or is not a position index.
+     */
+    public PositionIndex(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(path + " is not a position index");
+            }
+            entryCount = header.getLong();
+            archiveEnd = header.getLong();
+            long directoryStart = HEADER_BYTES + entryCount * ENTRY_BYTES;
+            if (channel.size() != directoryStart + (DIRECTORY_SIZE + 1) * 8L) {
+                throw new IOException(path + " is not a complete position index");
+            }
+
+            ByteBuffer directoryBytes = ByteBuffer.allocate((DIRECTORY_SIZE + 1) * 8);
+            while (directoryBytes.hasRemaining()) {
+                channel.read(directoryBytes, directoryStart + directoryBytes.position());
+            }
+            directoryBytes.flip();
+            directory = new long[DIRECTORY_SIZE + 1];
+            directoryBytes.asLongBuffer().get(directory);
+
+            windows = new MappedByteBuffer[(int) ((entryCount + WINDOW_ENTRIES - 1) / WINDOW_ENTRIES)];
+            for (int i = 0; i < windows.length; i++) {
+                long first = i * WINDOW_ENTRIES;
+                long entries = Math.min(WINDOW_ENTRIES, entryCount - first);
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * ENTRY_BYTES,
+                        entries * ENTRY_BYTES);
+                windows[i].order(ByteOrder.BIG_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This method returns the number of positions in the index.
+     * @return the number of entries.
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * This method returns the offset in the archive right after the last game that is indexed. The games from
+     * this offset on are added by the next update of the index.
+     * @return the offset.
+     */
+    public long getArchiveEnd() {
+        return archiveEnd;
+    }
+
+    /**
+     * This method counts the games that reach a position.
+     * @param position the position.
+     * @return the number of games.
+     */
+    public long countGames(Position position) {
+        long key = position.getHashKey();
+        long first = firstEntry(key);
+        long entry = first;
+        while (entry < entryCount && key(entry) == key) {
+            entry++;
+        }
+        return entry - first;
+    }
+
+    /**
+     * This method finds all the games that reach a position.
+     * @param position the position.
+     * @return the offsets of the games in the archive, in increasing order, which can be read with
+     * GameArchive.cursorAt.
+     */
+    public long[] findGames(Position position) {
+        long key = position.getHashKey();
+        long first = firstEntry(key);
+        long end = first;
+        while (end < entryCount && key(end) == key) {
+            end++;
+        }
+        long[] games = new long[Math.toIntExact(end - first)];
+        for (long entry = first; entry < end; entry++) {
+            games[(int) (entry - first)] = gameOffset(value(entry));
+        }
+        Arrays.sort(games);
+        return games;
+    }
+
+    /**
+     * This method counts how often every move was played from a position.
+     * @param position the position.
+     * @return an array of 65 counts, where the count of index i is the number of games that played the move on
+     * index position i, and the count of index GameRecord.PASS is the number of games that passed. The games that
+     * ended in the position are not counted.
+     */
+    public long[] moveFrequencies(Position position) {
+        long key = position.getHashKey();
+        long[] frequencies = new long[GameRecord.PASS + 1];
+        for (long entry = firstEntry(key); entry < entryCount && key(entry) == key; entry++) {
+            int move = move(value(entry));
+            if (move != END) {
+                frequencies[move]++;
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * This method finds the first entry with a hash key, with the directory and a binary search in its slot.
+     * @param key the hash key.
+     * @return the number of the first entry with the key, or of the first entry with a bigger key.
+     */
+    private long firstEntry(long key) {
+        int slot = (int) (key >>> (64 - DIRECTORY_BITS));
+        long low = directory[slot];
+        long high = directory[slot + 1];
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * This method reads the hash key of an entry.
+     * @param entry the number of the entry.
+     * @return the hash key.
+     */
+    private long key(long entry) {
+        return windows[(int) (entry / WINDOW_ENTRIES)].getLong((int) (entry % WINDOW_ENTRIES) * ENTRY_BYTES);
+    }
+
+    /**
+     * This method reads the packed value of an entry.
+     * @param entry the number of the entry.
+     * @return the packed value.
+     */
+    private long value(long entry) {
+        return windows[(int) (entry / WINDOW_ENTRIES)].getLong((int) (entry % WINDOW_ENTRIES) * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * This method packs the value of an entry: the offset of the game in the upper 48 bits, then the ply and the
+     * move that was played from the position, one byte each.
+     * @param gameOffset the offset of the game in the archive.
+     * @param ply the number of moves before the position.
+     * @param move the move that was played from the position, GameRecord.PASS or END.
+     * @return the packed value.
+     */
+    static long pack(long gameOffset, int ply, int move) {
+        return gameOffset << 16 | (long) ply << 8 | move;
+    }
+
+    /**
+     * This method unpacks the offset of the game from the value of an entry.
+     * @param value the packed value.
+     * @return the offset of the game in the archive.
+     */
+    static long gameOffset(long value) {
+        return value >>> 16;
+    }
+
+    /**
+     * This method unpacks the move that was played from the position from the value of an entry.
+     * @param value the packed value.
+     * @return the move, GameRecord.PASS or END.
+     */
+    static int move(long value) {
+        return (int) (value & 0xff);
+    }
+
+    /**
+     * This method closes the file. The mapped memory is released by the garbage collector.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,327 @@
+package archive;
+
+import model.MoveGenerator;
+import model.Square;
+import model.Zobrist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This class builds and updates the position index of a game archive. It replays the games of the archive on
+ * the 64-bit masks of the discs, keeps the Zobrist hash key of the position up to date after every move and creates
+ * one entry for every position. The entries are sorted in runs that fit in memory, the runs are written to
+ * temporary files and then merged into the index file, so archives with far more positions than the heap can hold
+ * are indexed. The archive only grows at the end, so an update replays only the games after the end of the last
+ * update and merges their entries with the entries that are already in the index.
+ */
+public class PositionIndexer {
+    /**
+     * The default number of entries that are sorted in memory at once, 64 MB of keys and values.
+     */
+    public static final int DEFAULT_RUN_ENTRIES = 1 << 22;
+
+    private final int runEntries;
+
+    /**
+     * This method constructs a new indexer with the default run size.
+     */
+    public PositionIndexer() {
+        this(DEFAULT_RUN_ENTRIES);
+    }
+
+    /**
+     * This method constructs a new indexer.
+     * @param runEntries the number of entries that are sorted in memory at once, at least enough for one game.
+     */
+    public PositionIndexer(int runEntries) {
+        if (runEntries < GameRecord.MAX_MOVES + 1) {
+            throw new IllegalArgumentException("A run needs room for at least " + (GameRecord.MAX_MOVES + 1)
+                    + " entries");
+        }
+        this.runEntries = runEntries;
+    }
+
+    /**
+     * This method brings the index of an archive up to date. If the index file doesn't exist, all the games of
+     * the archive are indexed, otherwise only the games that were added after the last update.
+     * @param archivePath the path of the game archive.
+     * @param indexPath the path of the index file.
+     * @return the number of games that were indexed.
+     * @throws IOException if a file cannot be read or written, or the index doesn't belong to the archive.
+     */
+    public long update(Path archivePath, Path indexPath) throws IOException {
+        long start = GameRecordWriter.HEADER_BYTES;
+        long oldEntries = 0;
+        if (Files.exists(indexPath)) {
+            try (PositionIndex index = new PositionIndex(indexPath)) {
+                start = index.getArchiveEnd();
+                oldEntries = index.getEntryCount();
+            }
+        }
+
+        List<Path> runs = new ArrayList<>();
+        long games = 0;
+        long newEntries = 0;
+        long end;
+        try (GameArchive archive = new GameArchive(archivePath)) {
+            if (start > archive.size()) {
+                throw new IOException(indexPath + " is not an index of " + archivePath);
+            }
+            long[] keys = new long[runEntries];
+            long[] values = new long[runEntries];
+            int size = 0;
+            GameCursor cursor = archive.cursorFrom(start);
+            end = start;
+            try {
+                while (cursor.next()) {
+                    if (size + cursor.getMoveCount() + 1 > runEntries) {
+                        runs.add(writeRun(indexPath, keys, values, size));
+                        newEntries += size;
+                        size = 0;
+                    }
+                    size = replay(cursor, keys, values, size);
+                    end = cursor.getEndOffset();
+                    games++;
+                }
+                if (size > 0) {
+                    runs.add(writeRun(indexPath, keys, values, size));
+                    newEntries += size;
+                }
+                if (games > 0) {
+                    merge(indexPath, oldEntries, runs, oldEntries + newEntries, end);
+                } else if (!Files.exists(indexPath)) {
+                    merge(indexPath, 0, runs, 0, end);
+                }
+            } finally {
+                for (Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+            }
+        }
+        return games;
+    }
+
+    /**
+     * This method replays the game of the cursor and adds an entry for every position of the game to the run,
+     * from the start position to the final position.
+     * @param cursor the cursor on the game.
+     * @param keys the hash keys of the run.
+     * @param values the packed values of the run.
+     * @param size the number of entries that are already in the run.
+     * @return the number of entries in the run after the game.
+     */
+    private int replay(GameCursor cursor, long[] keys, long[] values, int size) {
+        long player = 0x0000000810000000L;
+        long opponent = 0x0000001008000000L;
+        long key = Zobrist.hash(player, opponent, Square.BLACK);
+        long gameOffset = cursor.getOffset();
+        int moveCount = cursor.getMoveCount();
+        for (int ply = 0; ply < moveCount; ply++) {
+            int move = cursor.getMove(ply);
+            keys[size] = key;
+            values[size++] = PositionIndex.pack(gameOffset, ply, move);
+            long validMoves = MoveGenerator.validMoves(player, opponent);
+            Square colour = ply % 2 == 0 ? Square.BLACK : Square.WHITE;
+            if (move == GameRecord.PASS) {
+                if (validMoves != 0) {
+                    throw new IllegalStateException("The game at offset " + gameOffset + " passes at ply " + ply
+                            + " although there are valid moves");
+                }
+            } else {
+                if (move > 63 || (validMoves & (1L << move)) == 0) {
+                    throw new IllegalStateException("The game at offset " + gameOffset + " has the invalid move "
+                            + move + " at ply " + ply);
+                }
+                long flips = MoveGenerator.flips(player, opponent, move);
+                player |= flips | (1L << move);
+                opponent ^= flips;
+                key ^= Zobrist.discKey(colour, move) ^ Zobrist.flipsKey(flips);
+            }
+            long swap = player;
+            player = opponent;
+            opponent = swap;
+            key ^= Zobrist.sideKey();
+        }
+        keys[size] = key;
+        values[size++] = PositionIndex.pack(gameOffset, moveCount, PositionIndex.END);
+        return size;
+    }
+
+    /**
+     * This method sorts a run by the hash keys and writes it to a temporary file next to the index.
+     * @param indexPath the path of the index file.
+     * @param keys the hash keys of the run.
+     * @param values the packed values of the run.
+     * @param size the number of entries in the run.
+     * @return the path of the temporary file.
+     * @throws IOException if the file cannot be written.
+     */
+    private static Path writeRun(Path indexPath, long[] keys, long[] values, int size) throws IOException {
+        sort(keys, values, size);
+        Path directory = indexPath.toAbsolutePath().getParent();
+        Path run = Files.createTempFile(directory, indexPath.getFileName() + ".", ".run");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(keys[i]);
+                out.writeLong(values[i]);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * This method sorts the entries of a run by the unsigned value of the hash keys, with a radix sort of four
+     * passes of 16 bits. Entries with the same key keep their order.
+     * @param keys the hash keys.
+     * @param values the packed values, which are moved with their keys.
+     * @param size the number of entries.
+     */
+    static void sort(long[] keys, long[] values, int size) {
+        long[] keyBuffer = new long[size];
+        long[] valueBuffer = new long[size];
+        int[] counts = new int[1 << 16];
+        long[] fromKeys = keys;
+        long[] fromValues = values;
+        long[] toKeys = keyBuffer;
+        long[] toValues = valueBuffer;
+        for (int shift = 0; shift < 64; shift += 16) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(int) (fromKeys[i] >>> shift) & 0xffff]++;
+            }
+            int total = 0;
+            for (int digit = 0; digit < counts.length; digit++) {
+                int count = counts[digit];
+                counts[digit] = total;
+                total += count;
+            }
+            for (int i = 0; i < size; i++) {
+                int position = counts[(int) (fromKeys[i] >>> shift) & 0xffff]++;
+                toKeys[position] = fromKeys[i];
+                toValues[position] = fromValues[i];
+            }
+            long[] swap = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swap;
+            swap = fromValues;
+            fromValues = toValues;
+            toValues = swap;
+        }
+    }
+
+    /**
+     * This method merges the entries of the old index and the sorted runs into a new index file, which replaces
+     * the old one when it is complete.
+     * @param indexPath the path of the index file.
+     * @param oldEntries the number of entries in the old index, 0 if there is no old index.
+     * @param runs the temporary files of the sorted runs.
+     * @param entryCount the number of entries of the new index.
+     * @param archiveEnd the offset in the archive right after the last indexed game.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private static void merge(Path indexPath, long oldEntries, List<Path> runs, long entryCount, long archiveEnd)
+            throws IOException {
+        List<EntryStream> streams = new ArrayList<>();
+        Path merged = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try {
+            if (oldEntries > 0) {
+                InputStream in = Files.newInputStream(indexPath);
+                in.skipNBytes(PositionIndex.HEADER_BYTES);
+                streams.add(new EntryStream(in, oldEntries));
+            }
+            for (Path run : runs) {
+                streams.add(new EntryStream(Files.newInputStream(run), Files.size(run) / PositionIndex.ENTRY_BYTES));
+            }
+
+            PriorityQueue<EntryStream> queue = new PriorityQueue<>(
+                    (first, second) -> Long.compareUnsigned(first.key, second.key));
+            for (EntryStream stream : streams) {
+                if (stream.advance()) {
+                    queue.add(stream);
+                }
+            }
+            long[] slots = new long[PositionIndex.DIRECTORY_SIZE + 1];
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(merged), 1 << 16))) {
+                out.writeInt(PositionIndex.MAGIC);
+                out.writeInt(PositionIndex.VERSION);
+                out.writeLong(entryCount);
+                out.writeLong(archiveEnd);
+                long entry = 0;
+                int nextSlot = 0;
+                while (!queue.isEmpty()) {
+                    EntryStream stream = queue.poll();
+                    int slot = (int) (stream.key >>> (64 - PositionIndex.DIRECTORY_BITS));
+                    while (nextSlot <= slot) {
+                        slots[nextSlot++] = entry;
+                    }
+                    out.writeLong(stream.key);
+                    out.writeLong(stream.value);
+                    entry++;
+                    if (stream.advance()) {
+                        queue.add(stream);
+                    }
+                }
+                if (entry != entryCount) {
+                    throw new IOException("The index has " + entry + " entries instead of " + entryCount);
+                }
+                while (nextSlot <= PositionIndex.DIRECTORY_SIZE) {
+                    slots[nextSlot++] = entry;
+                }
+                for (long slot : slots) {
+                    out.writeLong(slot);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(merged);
+            throw e;
+        } finally {
+            for (EntryStream stream : streams) {
+                stream.in.close();
+            }
+        }
+        Files.move(merged, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * This class reads the entries of a sorted run or of an old index one at a time during the merge.
+     */
+    private static class EntryStream {
+        private final DataInputStream in;
+        private long remaining;
+        private long key;
+        private long value;
+
+        EntryStream(InputStream in, long entries) {
+            this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            this.remaining = entries;
+        }
+
+        /**
+         * This method reads the next entry.
+         * @return true if there was an entry, false if the stream is at its end.
+         * @throws IOException if the entry cannot be read.
+         */
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            key = in.readLong();
+            value = in.readLong();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package controller;
+
+/**
+ * This class represents one line of an analysis: a move of the analysed position with its score and the
+ * principal variation that starts with it, at the depth that the analysis has reached. With several lines
+ * (multi-PV), line 1 is the best move, line 2 the best move after that, and so on.
+ */
+public class AnalysisLine {
+    private final int rank;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] principalVariation;
+
+    /**
+     * This method constructs a new line of an analysis.
+     * @param rank the number of the line, 1 for the best move.
+     * @param score the score of the move for the player who is moving.
+     * @param depth the depth to which the line was searched.
+     * @param nodes the number of positions that the analysis searched so far.
+     * @param timeMillis the time since the start of the analysis in milliseconds.
+     * @param principalVariation the indexes of the expected moves, starting with the move of the line.
+     */
+    public AnalysisLine(int rank, int score, int depth, long nodes, long timeMillis, int[] principalVariation) {
+        this.rank = rank;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation.clone();
+    }
+
+    /**
+     * This method returns the number of the line.
+     * @return 1 for the best move, 2 for the second best move, and so on.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * This method returns the move of the line.
+     * @return the index of the move, or SearchResult.PASS if the player has to pass.
+     */
+    public int getMove() {
+        return principalVariation.length > 0 ? principalVariation[0] : SearchResult.PASS;
+    }
+
+    /**
+     * This method returns the score of the move for the player who is moving.
+     * @return the score, a finished game is scored above SearchEngine.WIN_SCORE or below -SearchEngine.WIN_SCORE.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * This method returns the depth to which the line was searched.
+     * @return the depth in plies.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * This method returns the number of positions that the analysis searched so far.
+     * @return the number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * This method returns the number of positions that the analysis searched per second so far.
+     * @return the nodes per second.
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    /**
+     * This method returns the time since the start of the analysis.
+     * @return the time in milliseconds.
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * This method returns the principal variation of the line.
+     * @return the indexes of the expected moves starting with the move of the line, PASS is used for a pass.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * This method prints the line on one line of text, for example
+     * "depth 8 line 1 score 35 nodes 81234 nps 8123400 time 10 pv 37 43 34".
+     * @return the string representation of the line.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append("depth ").append(depth)
+                .append(" line ").append(rank)
+                .append(" score ").append(score)
+                .append(" nodes ").append(nodes)
+                .append(" nps ").append(getNodesPerSecond())
+                .append(" time ").append(timeMillis)
+                .append(" pv");
+        for (int move : principalVariation) {
+            text.append(' ').append(move);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package controller;
+
+/**
+ * This interface receives the lines of an analysis while the search engine is still searching, so a user
+ * interface can show the analysis live instead of waiting for the final answer.
+ * The listener is called on the thread that runs the analysis, so it should return quickly.
+ */
+@FunctionalInterface
+public interface AnalysisListener {
+    /**
+     * This method is called every time the analysis has searched one of its lines to a new depth.
+     * With several lines, the lines of a depth arrive in order, from the best move down.
+     * @param line the line with its move, score, depth, nodes and principal variation.
+     */
+    void lineUpdated(AnalysisLine line);
+}
@@ -2,6 +2,7 @@ package controller;
 
 import model.Game;
 import model.Move;
+import model.MoveGenerator;
 import model.Player;
 
 import java.util.List;
@@ -11,10 +12,12 @@ import java.util.List;
  * This class includes the logic to determine the best possible move for a player based on the current state of the game.
  * It calculates the player current score based on the current state of the game. It will check to find the highest  move to be flipped count
  * and return the highest number of moves that can be flipped for each player depending on the valid moves left.
+ * With an evaluator it ranks the moves by the score of the position after each move instead.
  */
 public class BestMove {
     private final Game game;
     private final Player player;
+    private final Evaluator evaluator;
 
     /**
      * This method constructs a new best move based on the specified arguments the game and the player.
@@ -22,8 +25,19 @@ public class BestMove {
      * @param player the player for which the best move is being calculated for.
      */
     public BestMove(Game game, Player player) {
+       this(game, player, null);
+    }
+
+    /**
+     * This method constructs a new best move that ranks the moves with an evaluator instead of the flip count.
+     * @param game the current state of the game
+     * @param player the player for which the best move is being calculated for.
+     * @param evaluator the evaluator that scores the position after each move, or null to count the flips.
+     */
+    public BestMove(Game game, Player player, Evaluator evaluator) {
        this.game = game;
        this.player = player;
+       this.evaluator = evaluator;
     }
 
     /**
@@ -45,6 +59,10 @@ public class BestMove {
             return new Move(-1,-1,player.getColor());
         }
 
+        if (evaluator != null) {
+            return getBestEvaluatedMove(validMoves);
+        }
+
         int [] edge = {0,7,56,63};
         for (int edgeNumber : edge) {
             if (validMoves.contains(edgeNumber)){
@@ -63,7 +81,7 @@ public class BestMove {
         for (Integer moveIndex : validMoves) {
             int[] tempArray = game.returnBoard().getRowAndColumnBasedOnIndex(moveIndex);
             Move tempMove = new Move(tempArray[0], tempArray[1], player.getColor());
-            int tempDiscs = game.doMove(tempMove, false);
+            int tempDiscs = game.countFlips(tempMove);
 
             if (tempDiscs >= bestMovesDiscs) {
                 bestMovesDiscs = tempDiscs;
@@ -72,4 +90,29 @@ public class BestMove {
         }
         return currentBestMove;
     }
+
+    /**
+     * This method plays every valid move on the disc masks and scores the position after it with the evaluator.
+     * The score of the position after a move is for the opponent, so the move with the lowest score is the best.
+     * @param validMoves the valid moves of the player.
+     * @return the move that leaves the opponent with the lowest score.
+     */
+    private Move getBestEvaluatedMove(List<Integer> validMoves) {
+        long playerDiscs = game.returnBoard().getDiscMask(player.getColor());
+        long opponentDiscs = game.returnBoard().getDiscMask(player.getColor().getOtherPlayerSquare());
+        int bestMove = validMoves.get(0);
+        int bestScore = Integer.MAX_VALUE;
+        for (int moveIndex : validMoves) {
+            long flips = MoveGenerator.flips(playerDiscs, opponentDiscs, moveIndex);
+            long newPlayer = opponentDiscs ^ flips;
+            long newOpponent = playerDiscs ^ flips ^ (1L << moveIndex);
+            int score = evaluator.evaluate(newPlayer, newOpponent, MoveGenerator.validMoves(newPlayer, newOpponent));
+            if (score < bestScore) {
+                bestScore = score;
+                bestMove = moveIndex;
+            }
+        }
+        int[] rowAndColumn = game.returnBoard().getRowAndColumnBasedOnIndex(bestMove);
+        return new Move(rowAndColumn[0], rowAndColumn[1], player.getColor());
+    }
 }
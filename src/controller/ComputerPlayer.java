@@ -3,6 +3,7 @@ package controller;
 import model.Game;
 import model.Move;
 import model.Player;
+import model.Position;
 import model.Square;
 
 import java.util.List;
@@ -13,21 +14,81 @@ import java.util.Random;
  * This class stores the information about the  computer player namely their name and their square color.
  */
 public class ComputerPlayer extends Player {
+    private final SearchEngine engine;
+    private final OpeningBook book;
+    private final TimeManager clock;
+    private final Ponderer ponderer;
 
     /**
      * This method constructs a new computer player based on the specified arguments the name and the square color.
      * This class extends the player class and inherits the attributes from the player class such as the name and the square color.
+     * This computer player selects random moves.
      * @param name the name of the computer player.
      * @param color the square color of the computer player.
      */
     public ComputerPlayer(String name, Square color) {
+        this(name, color, null);
+    }
+
+    /**
+     * This method constructs a new computer player that uses a search engine to select its moves.
+     * @param name the name of the computer player.
+     * @param color the square color of the computer player.
+     * @param engine the search engine that selects the moves, or null to select random moves.
+     */
+    public ComputerPlayer(String name, Square color, SearchEngine engine) {
+        this(name, color, engine, null);
+    }
+
+    /**
+     * This method constructs a new computer player that plays the moves of an opening book while the game is
+     * in the book, and uses a search engine to select its moves after that.
+     * @param name the name of the computer player.
+     * @param color the square color of the computer player.
+     * @param engine the search engine that selects the moves, or null to select random moves.
+     * @param book the opening book, or null to not use a book.
+     */
+    public ComputerPlayer(String name, Square color, SearchEngine engine, OpeningBook book) {
+        this(name, color, engine, book, null);
+    }
+
+    /**
+     * This method constructs a new computer player that plays with a clock for all of its moves of the game.
+     * Every search stops within the deadlines that the clock sets for the move, instead of at the depth or the
+     * time limit of the search config. When the config of the engine says so, the player ponders.
+     * @param name the name of the computer player.
+     * @param color the square color of the computer player.
+     * @param engine the search engine that selects the moves, or null to select random moves.
+     * @param book the opening book, or null to not use a book.
+     * @param clock the clock of the player for the game, or null to play without a clock.
+     */
+    public ComputerPlayer(String name, Square color, SearchEngine engine, OpeningBook book, TimeManager clock) {
         super(name, color);
+        this.engine = engine;
+        this.book = book;
+        this.clock = clock;
+        this.ponderer = engine != null && engine.getConfig().isPondering() ? new Ponderer(engine) : null;
+    }
+
+    /**
+     * This method returns the clock of this player.
+     * @return the clock, or null if the player plays without a clock.
+     */
+    public TimeManager getClock() {
+        return clock;
     }
 
     /**
      * This method defines the logic for performing moves of a computer player in the game based on the current state of the board in the game.
      * If a computer player cannot make any more valid moves they should pass their turn so that the other player can take their turn.
-     * It gets all the valid moves of the computer player and selects a random move.
+     * Only the random player prints that it passes, so a player with a search engine prints nothing in a headless
+     * tournament.
+     * It gets all the valid moves of the computer player and selects a random move,
+     * or the best move of the search engine if this player has one.
+     * While the position is in the opening book of this player, the move of the book is played without a search.
+     * When the player has a clock, the time of the move is taken off the clock.
+     * A player that ponders searches the position after the expected reply of the opponent until it is asked for
+     * its next move, and plays the result of that search when the opponent played the expected reply.
      * @param game the current game being played.
      * @return the current move of a computer player in the game.
      */
@@ -38,8 +99,21 @@ public class ComputerPlayer extends Player {
         }
         List<Integer> validMoves = game.getAllValidMoves(getColor());
         if(validMoves.isEmpty()){
-            System.out.println("Should pass");
+            stopPondering();
+            if (engine == null) {
+                System.out.println("Should pass");
+            }
             return new Move(-1, -1, getColor());
+        }
+        int bookMove = book != null ? book.bestMove(game.getPosition()) : -1;
+        if (bookMove >= 0) {
+            stopPondering();
+            return new Move(bookMove / 8, bookMove % 8, getColor());
+        } else if (engine != null) {
+            Position position = game.getPosition();
+            SearchResult result = search(game, position);
+            ponder(position, result);
+            return result.toMove(getColor());
         } else {
             Random random = new Random();
             int index = random.nextInt(validMoves.size());
@@ -50,4 +124,93 @@ public class ComputerPlayer extends Player {
             return new Move(getRowsAndColsOfIndex[0],getRowsAndColsOfIndex[1],getColor());
         }
     }
+
+    /**
+     * This method searches the move of this player with its clock, or with the depth and the time limit of the
+     * search config. On a ponder hit, the background search is used instead.
+     * @param game the current game being played.
+     * @param position the position of the game.
+     * @return the result of the search.
+     */
+    private SearchResult search(Game game, Position position) {
+        if (clock != null) {
+            clock.startMove(position.getEmptyCount());
+        }
+        try {
+            SearchResult result = null;
+            if (ponderer != null) {
+                long timeLimit = engine.getConfig().getTimeLimitMillis();
+                long moveNanos = Long.MAX_VALUE;
+                if (clock != null) {
+                    moveNanos = clock.getSoftDeadline() - System.nanoTime();
+                } else if (timeLimit > 0) {
+                    moveNanos = timeLimit * 1_000_000L;
+                }
+                result = ponderer.take(position, moveNanos);
+            }
+            if (result == null) {
+                result = clock != null ? engine.search(game, getColor(), clock) : engine.search(game, getColor());
+            }
+            return result;
+        } finally {
+            if (clock != null) {
+                clock.finishMove();
+            }
+        }
+    }
+
+    /**
+     * This method starts the background search of the position after the reply that this player expects from its
+     * opponent, which is the second move of the principal variation of the search.
+     * @param position the position in which this player moved.
+     * @param result the result of the search of the move.
+     */
+    private void ponder(Position position, SearchResult result) {
+        int[] variation = result.getPrincipalVariation();
+        if (ponderer == null || variation.length < 2) {
+            return;
+        }
+        Position next = variation[0] == SearchResult.PASS ? position.pass() : position.play(variation[0]);
+        next = variation[1] == SearchResult.PASS ? next.pass() : next.play(variation[1]);
+        if (next.getValidMoves() != 0) {
+            ponderer.start(next);
+        }
+    }
+
+    /**
+     * This method stops the background search of this player, for example when the game is over.
+     */
+    public void stopPondering() {
+        if (ponderer != null) {
+            ponderer.stop();
+        }
+    }
+
+    /**
+     * This method stops the background search of this player and the helper threads of its search engine, when
+     * the player will not play any more. The engine must not be used by another player afterwards.
+     */
+    public void shutdown() {
+        stopPondering();
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * This method returns the number of times that the opponent played the reply that this player expected.
+     * @return the number of ponder hits.
+     */
+    public long getPonderHits() {
+        return ponderer != null ? ponderer.getHits() : 0;
+    }
+
+    /**
+     * This method returns the number of times that the opponent played another move than the reply that this
+     * player expected.
+     * @return the number of ponder misses.
+     */
+    public long getPonderMisses() {
+        return ponderer != null ? ponderer.getMisses() : 0;
+    }
 }
@@ -0,0 +1,946 @@
+package controller;
+
+import model.MoveGenerator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class represents the endgame solver of the othello game. Near the end of the game it searches every move
+ * until the game is finished, so it finds the exact final disc difference with perfect play from both players.
+ * To search as few positions as possible it uses moves in the regions with an odd number of empties first
+ * (parity), moves that leave the opponent with the fewest replies first (fastest-first), a shallow search to sort
+ * the moves when many squares are still empty, a cutoff when the stable discs of the opponent already make it
+ * impossible to reach alpha, a transposition table with enhanced transposition cutoffs when many squares are
+ * still empty, null-window searches at the root (MTD(f)), and special routines for the last four squares that
+ * don't generate moves at all. The EndgameBench tool measures how long it takes on a fixed set of positions.
+ */
+public class EndgameSolver {
+    /**
+     * The number of empty squares above which the moves are sorted by the mobility of the opponent.
+     */
+    private static final int FASTEST_FIRST_EMPTIES = 5;
+
+    /**
+     * The number of empty squares from which the moves are sorted by a shallow search instead, which looks
+     * at the best reply of the opponent and scores the positions by their mobility. It searches two plies
+     * deeper for every four more empty squares.
+     */
+    private static final int SHALLOW_ORDERING_EMPTIES = 14;
+
+    /**
+     * The number of empty squares from which the positions are stored in the transposition table.
+     */
+    private static final int HASH_EMPTIES = 7;
+
+    /**
+     * The number of empty squares from which the positions after every move are looked up in the transposition
+     * table before any of them is searched, so a move that is already known to reach beta gives a cutoff at once
+     * (enhanced transposition cutoff).
+     */
+    private static final int ETC_EMPTIES = 12;
+
+    /**
+     * The lowest alpha for which the stability cutoff is tried, by number of empty squares. With a lower alpha
+     * the opponent will almost never have enough stable discs for a cutoff, so the stable discs are not counted.
+     */
+    private static final int[] STABILITY_THRESHOLD = {
+            99, 99, 99, 99, 6, 14, 22, 30, 38, 46, 48, 56, 58, 60, 62, 64,
+            64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64,
+            64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64,
+            64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64, 64};
+
+    /**
+     * The order in which moves that are equally good for the other move orders are tried: corners first, then
+     * the other edge and inner squares, and the squares diagonally next to the corners last.
+     */
+    private static final int[] SQUARE_PRIORITY = {
+            0, 7, 56, 63, 2, 5, 16, 23, 40, 47, 58, 61, 18, 21, 42, 45,
+            3, 4, 24, 31, 32, 39, 59, 60, 19, 20, 26, 29, 34, 37, 43, 44,
+            27, 28, 35, 36, 11, 12, 25, 30, 33, 38, 51, 52, 10, 13, 17, 22,
+            41, 46, 50, 53, 1, 6, 8, 15, 48, 55, 57, 62, 9, 14, 49, 54};
+
+    private static final long CORNERS = 0x8100000000000081L;
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = 0x8080808080808080L;
+    private static final long RANK_1 = 0x00000000000000ffL;
+    private static final long RANK_8 = 0xff00000000000000L;
+    private static final long EDGES = FILE_A | FILE_H | RANK_1 | RANK_8;
+    private static final long[] DIAGONALS = new long[15];
+    private static final long[] ANTI_DIAGONALS = new long[15];
+
+    /**
+     * The place of every square in SQUARE_PRIORITY, which breaks the ties of the move orders.
+     */
+    private static final int[] RANK = new int[64];
+
+    /**
+     * The squares from a square to the edge of the board in the four directions towards the higher indexes
+     * (right, down, down right and down left), four masks per square.
+     */
+    private static final long[] RAYS_UP = new long[64 * 4];
+
+    /**
+     * The squares from a square to the edge of the board in the four directions towards the lower indexes
+     * (left, up, up left and up right), four masks per square.
+     */
+    private static final long[] RAYS_DOWN = new long[64 * 4];
+
+    /**
+     * A score that is higher than every score of the shallow search.
+     */
+    private static final int MAX_SHALLOW = 1 << 20;
+
+    private static final int MAX_MOVES = 32;
+    private static final int TIME_CHECK_INTERVAL = 1023;
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            RANK[SQUARE_PRIORITY[i]] = i;
+        }
+        for (int index = 0; index < 64; index++) {
+            int row = index / 8;
+            int col = index % 8;
+            DIAGONALS[row - col + 7] |= 1L << index;
+            ANTI_DIAGONALS[row + col] |= 1L << index;
+            int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+            for (int d = 0; d < 4; d++) {
+                RAYS_UP[index * 4 + d] = ray(row, col, directions[d][0], directions[d][1]);
+                RAYS_DOWN[index * 4 + d] = ray(row, col, -directions[d][0], -directions[d][1]);
+            }
+        }
+    }
+
+    private final TranspositionTable transpositionTable;
+    private final int[][] moveBuffer = new int[61][MAX_MOVES];
+    private final int[][] scoreBuffer = new int[61][MAX_MOVES];
+    private final int[] lastSquares = new int[4];
+    private final int[] lastKeys = new int[4];
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    private volatile AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * This method constructs a new endgame solver with a transposition table of 16 megabytes.
+     */
+    public EndgameSolver() {
+        this(16);
+    }
+
+    /**
+     * This method constructs a new endgame solver.
+     * @param megabytes the memory of the transposition table of the solver in megabytes.
+     */
+    public EndgameSolver(int megabytes) {
+        this.transpositionTable = new TranspositionTable(megabytes);
+    }
+
+    /**
+     * This method solves a position until the end of the game.
+     * The score of the result is the exact final disc difference for the player who is moving (its discs minus
+     * the discs of the opponent), and the depth is the number of empty squares.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the result with the best move, the final disc difference and the principal variation.
+     */
+    public SearchResult solve(long player, long opponent) {
+        return solve(player, opponent, Long.MAX_VALUE);
+    }
+
+    /**
+     * This method solves a position until the end of the game, unless the deadline comes first or the solver is
+     * stopped. The solver looks at the clock and its cancellation token every 1024 positions, so it stops soon
+     * after.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param deadline the time when the solver must stop, from System.nanoTime.
+     * @return the result with the best move, the final disc difference and the principal variation, or null if
+     * the solver was stopped before the position was solved.
+     */
+    public SearchResult solve(long player, long opponent, long deadline) {
+        return solve(player, opponent, deadline, new AtomicBoolean());
+    }
+
+    /**
+     * This method solves a position until the end of the game, unless the deadline comes first or the token is
+     * cancelled. The token can be cancelled from another thread at any time, also before the solve has started.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param deadline the time when the solver must stop, from System.nanoTime.
+     * @param cancelled the cancellation token of this solve.
+     * @return the result with the best move, the final disc difference and the principal variation, or null if
+     * the solver was stopped before the position was solved.
+     */
+    public synchronized SearchResult solve(long player, long opponent, long deadline, AtomicBoolean cancelled) {
+        long start = System.nanoTime();
+        nodes = 0;
+        this.deadline = deadline;
+        this.cancelled = cancelled;
+        stopped = false;
+        transpositionTable.newSearch();
+
+        long empty = ~(player | opponent);
+        int empties = Long.bitCount(empty);
+        int parity = 0;
+        for (long squares = empty; squares != 0; squares &= squares - 1) {
+            parity ^= quadrant(Long.numberOfTrailingZeros(squares));
+        }
+
+        int bestMove = SearchResult.PASS;
+        int score;
+        long moves = MoveGenerator.validMoves(player, opponent);
+        if (moves == 0) {
+            score = search(player, opponent, -64, 64, empties, parity, false);
+            if (stopped) {
+                return null;
+            }
+        } else {
+            int[] rootMoves = new int[MAX_MOVES];
+            int[] keys = new int[MAX_MOVES];
+            int count = 0;
+            for (; moves != 0; moves &= moves - 1) {
+                int square = Long.numberOfTrailingZeros(moves);
+                count = insert(rootMoves, keys, count, square, RANK[square]);
+            }
+
+            // MTD(f): null-window searches around a guess move the bounds on the score until they meet.
+            int lower = -64;
+            int upper = 64;
+            score = 0;
+            bestMove = rootMoves[0];
+            while (lower < upper) {
+                int beta = score == lower ? score + 1 : score;
+                score = searchRoot(player, opponent, beta, rootMoves, count, empties, parity);
+                if (stopped) {
+                    return null;
+                }
+                if (score >= beta) {
+                    lower = score;
+                    bestMove = rootMoves[0];
+                } else {
+                    upper = score;
+                }
+            }
+            transpositionTable.store(hash(player, opponent), empties, TranspositionTable.EXACT, score, bestMove);
+        }
+        return new SearchResult(bestMove, score, empties, nodes, (System.nanoTime() - start) / 1_000_000L,
+                principalVariation(player, opponent, bestMove));
+    }
+
+    /**
+     * This method searches the moves of the root position with a null window, which only tells if the best move
+     * reaches beta. The move that reaches beta is put first, so it is searched first by the next search and
+     * is the best move when the search fails high.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param beta the disc difference that the search tests.
+     * @param rootMoves the valid moves of the player, in the order in which they are searched.
+     * @param count the number of valid moves.
+     * @param empties the number of empty squares.
+     * @param parity one bit for every quadrant of the board with an odd number of empty squares.
+     * @return the final disc difference for the player if it is below beta, otherwise at least beta.
+     */
+    private int searchRoot(long player, long opponent, int beta, int[] rootMoves, int count, int empties,
+                           int parity) {
+        int bestScore = -65;
+        for (int i = 0; i < count; i++) {
+            int square = rootMoves[i];
+            long flips = flips(player, opponent, square);
+            int score = -search(opponent & ~flips, player | flips | (1L << square), -beta, 1 - beta, empties - 1,
+                    parity ^ quadrant(square), false);
+            if (stopped) {
+                return 0;
+            }
+            bestScore = Math.max(bestScore, score);
+            if (score >= beta) {
+                System.arraycopy(rootMoves, 0, rootMoves, 1, i);
+                rootMoves[0] = square;
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method stops the current solve of this solver by cancelling its token, and the solve then returns null.
+     * A solve that has not started yet is not stopped; to stop that, cancel the token that is given to solve.
+     */
+    public void stop() {
+        cancelled.set(true);
+    }
+
+    /**
+     * This method searches a position with more than four empty squares. The first move is searched with the
+     * full window and the other moves with a null window, which only tells if they are better than alpha.
+     * A move that turns out to be better is searched again with the full window.
+     * When the solver is stopped, the search returns 0 at once and stores nothing.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param alpha the disc difference that the player is already sure to get.
+     * @param beta the disc difference that the opponent is already sure to limit the player to.
+     * @param empties the number of empty squares.
+     * @param parity one bit for every quadrant of the board with an odd number of empty squares.
+     * @param passed true if the opponent passed in the previous move.
+     * @return the final disc difference for the player.
+     */
+    private int search(long player, long opponent, int alpha, int beta, int empties, int parity, boolean passed) {
+        if (empties <= 4) {
+            return searchLastSquares(player, opponent, alpha, beta, empties, parity);
+        }
+        if ((++nodes & TIME_CHECK_INTERVAL) == 0 && (cancelled.get() || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        if (alpha >= STABILITY_THRESHOLD[empties]) {
+            int upperBound = 64 - 2 * Long.bitCount(stableDiscs(opponent, player));
+            if (upperBound <= alpha) {
+                return upperBound;
+            }
+            if (upperBound < beta) {
+                beta = upperBound;
+            }
+        }
+
+        long key = 0L;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (empties >= HASH_EMPTIES) {
+            key = hash(player, opponent);
+            long entry = transpositionTable.probe(key);
+            if (entry != 0) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+                hashMove = TranspositionTable.move(entry);
+            }
+        }
+
+        long moves = MoveGenerator.validMoves(player, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return Long.bitCount(player) - Long.bitCount(opponent);
+            }
+            return -search(opponent, player, -beta, -alpha, empties, parity, true);
+        }
+
+        if (empties >= ETC_EMPTIES) {
+            // The score of the opponent after a move is stored from its side, so its upper bound is a lower
+            // bound for the player.
+            for (long etc = moves; etc != 0; etc &= etc - 1) {
+                int square = Long.numberOfTrailingZeros(etc);
+                long flips = flips(player, opponent, square);
+                long entry = transpositionTable.probe(hash(opponent & ~flips, player | flips | (1L << square)));
+                if (entry != 0 && TranspositionTable.bound(entry) != TranspositionTable.LOWER_BOUND
+                        && -TranspositionTable.score(entry) >= beta) {
+                    return -TranspositionTable.score(entry);
+                }
+            }
+        }
+
+        int count;
+        if (empties > FASTEST_FIRST_EMPTIES) {
+            count = sortFastestFirst(player, opponent, moves, empties, hashMove);
+        } else {
+            count = sortByParity(moves, empties, parity);
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -65;
+        int bestMove = TranspositionTable.NO_MOVE;
+        int[] sortedMoves = moveBuffer[empties];
+        for (int i = 0; i < count; i++) {
+            int square = sortedMoves[i];
+            long flips = flips(player, opponent, square);
+            long newPlayer = opponent & ~flips;
+            long newOpponent = player | flips | (1L << square);
+            int newParity = parity ^ quadrant(square);
+            int score;
+            if (i == 0) {
+                score = -search(newPlayer, newOpponent, -beta, -alpha, empties - 1, newParity, false);
+            } else {
+                score = -search(newPlayer, newOpponent, -alpha - 1, -alpha, empties - 1, newParity, false);
+                if (score > alpha && score < beta) {
+                    score = -search(newPlayer, newOpponent, -beta, -score, empties - 1, newParity, false);
+                }
+            }
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (empties >= HASH_EMPTIES) {
+            int bound = TranspositionTable.EXACT;
+            if (bestScore <= originalAlpha) {
+                bound = TranspositionTable.UPPER_BOUND;
+            } else if (bestScore >= beta) {
+                bound = TranspositionTable.LOWER_BOUND;
+            }
+            transpositionTable.store(key, empties, bound, bestScore, bestMove);
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method puts the moves of a position in the buffer in parity order: first the moves in the quadrants
+     * with an odd number of empty squares, then the others, each in the order of SQUARE_PRIORITY.
+     * @param moves the valid moves of the player.
+     * @param empties the number of empty squares, which selects the buffer for the moves.
+     * @param parity one bit for every quadrant of the board with an odd number of empty squares.
+     * @return the number of moves in the buffer.
+     */
+    private int sortByParity(long moves, int empties, int parity) {
+        int[] sortedMoves = moveBuffer[empties];
+        int[] keys = scoreBuffer[empties];
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            count = insert(sortedMoves, keys, count, square, parityKey(square, parity));
+        }
+        return count;
+    }
+
+    /**
+     * This method calculates the sort key of a square for the parity order.
+     * @param square the index of the square.
+     * @param parity one bit for every quadrant of the board with an odd number of empty squares.
+     * @return the key, lower keys come first.
+     */
+    private static int parityKey(int square, int parity) {
+        return ((parity & quadrant(square)) != 0 ? 0 : 64) + RANK[square];
+    }
+
+    /**
+     * This method inserts a move in a sorted buffer of moves, after the moves with a lower or equal key.
+     * @param sortedMoves the moves, sorted by their keys.
+     * @param keys the keys of the moves.
+     * @param count the number of moves in the buffer.
+     * @param square the move to be inserted.
+     * @param key the key of the move.
+     * @return the new number of moves in the buffer.
+     */
+    private static int insert(int[] sortedMoves, int[] keys, int count, int square, int key) {
+        int i = count;
+        while (i > 0 && keys[i - 1] > key) {
+            keys[i] = keys[i - 1];
+            sortedMoves[i] = sortedMoves[i - 1];
+            i--;
+        }
+        keys[i] = key;
+        sortedMoves[i] = square;
+        return count + 1;
+    }
+
+    /**
+     * This method sorts the moves of a position so the moves after which the opponent has the fewest replies
+     * come first. Replies on a corner count twice, and the empty squares next to the discs of the player count
+     * a little, because the opponent may be able to play there later. A move that is in the transposition table
+     * comes before all the others, and equally good moves are tried in the order of SQUARE_PRIORITY.
+     * With SHALLOW_ORDERING_EMPTIES or more empty squares the moves are sorted by a shallow search instead,
+     * because the better order saves much more than the shallow search costs there.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param moves the valid moves of the player.
+     * @param empties the number of empty squares, which selects the buffer for the moves.
+     * @param hashMove the best move from the transposition table, or NO_MOVE.
+     * @return the number of moves in the buffer.
+     */
+    private int sortFastestFirst(long player, long opponent, long moves, int empties, int hashMove) {
+        int[] sortedMoves = moveBuffer[empties];
+        int[] keys = scoreBuffer[empties];
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            int score;
+            if (square == hashMove) {
+                score = Integer.MIN_VALUE;
+            } else if (empties >= SHALLOW_ORDERING_EMPTIES) {
+                long flips = flips(player, opponent, square);
+                int depth = 2 + (empties - SHALLOW_ORDERING_EMPTIES) / 4;
+                score = shallowSearch(opponent & ~flips, player | flips | (1L << square), depth, -MAX_SHALLOW,
+                        MAX_SHALLOW) * 64 + RANK[square];
+            } else {
+                long flips = flips(player, opponent, square);
+                long newOpponent = opponent & ~flips;
+                long newPlayer = player | flips | (1L << square);
+                long replies = MoveGenerator.validMoves(newOpponent, newPlayer);
+                score = (16 * Long.bitCount(replies) + 16 * Long.bitCount(replies & CORNERS)
+                        + 2 * Long.bitCount(potentialMoves(newPlayer, newOpponent))) * 64 + RANK[square];
+            }
+            count = insert(sortedMoves, keys, count, square, score);
+        }
+        return count;
+    }
+
+    /**
+     * This method searches a position a few plies deep to sort the moves of the solver. The positions at the
+     * end are scored by their mobility, and a finished game is scored by its winner only, but higher than any
+     * mobility.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param depth the number of plies to search.
+     * @param alpha the score that the player is already sure to get.
+     * @param beta the score that the opponent is already sure to limit the player to.
+     * @return the score for the player.
+     */
+    private static int shallowSearch(long player, long opponent, int depth, int alpha, int beta) {
+        long moves = MoveGenerator.validMoves(player, opponent);
+        if (depth == 0) {
+            return mobility(player, opponent, moves);
+        }
+        if (moves == 0) {
+            if (MoveGenerator.validMoves(opponent, player) == 0) {
+                return (MAX_SHALLOW / 2) * Integer.signum(Long.bitCount(player) - Long.bitCount(opponent));
+            }
+            return -shallowSearch(opponent, player, depth - 1, -beta, -alpha);
+        }
+        int bestScore = -MAX_SHALLOW;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = flips(player, opponent, square);
+            int score = -shallowSearch(opponent & ~flips, player | flips | (1L << square), depth - 1, -beta, -alpha);
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method scores a position by the mobility of both players, with the same weights as the fastest-first
+     * order: a move counts 16, a move on a corner counts 16 more and an empty square next to the discs of the
+     * other player counts 2.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param moves the valid moves of the player.
+     * @return the score for the player.
+     */
+    private static int mobility(long player, long opponent, long moves) {
+        long replies = MoveGenerator.validMoves(opponent, player);
+        return 16 * (Long.bitCount(moves) - Long.bitCount(replies))
+                + 16 * (Long.bitCount(moves & CORNERS) - Long.bitCount(replies & CORNERS))
+                + 2 * (Long.bitCount(potentialMoves(opponent, player))
+                - Long.bitCount(potentialMoves(player, opponent)));
+    }
+
+    /**
+     * This method solves the last four or fewer empty squares. The squares are put in parity order: the squares
+     * in a quadrant with an odd number of empties are tried first, and otherwise the order of SQUARE_PRIORITY.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param alpha the disc difference that the player is already sure to get.
+     * @param beta the disc difference that the opponent is already sure to limit the player to.
+     * @param empties the number of empty squares, at most four.
+     * @param parity one bit for every quadrant of the board with an odd number of empty squares.
+     * @return the final disc difference for the player.
+     */
+    private int searchLastSquares(long player, long opponent, int alpha, int beta, int empties, int parity) {
+        int count = 0;
+        for (long empty = ~(player | opponent); empty != 0; empty &= empty - 1) {
+            int square = Long.numberOfTrailingZeros(empty);
+            count = insert(lastSquares, lastKeys, count, square, parityKey(square, parity));
+        }
+        int x1 = lastSquares[0];
+        int x2 = lastSquares[1];
+        int x3 = lastSquares[2];
+        int x4 = lastSquares[3];
+        switch (empties) {
+            case 4:
+                return solveLast4(player, opponent, alpha, beta, x1, x2, x3, x4, false);
+            case 3:
+                return solveLast3(player, opponent, alpha, beta, x1, x2, x3, false);
+            case 2:
+                return solveLast2(player, opponent, alpha, beta, x1, x2, false);
+            case 1:
+                return solveLast1(player, opponent, x1);
+            default:
+                nodes++;
+                return Long.bitCount(player) - Long.bitCount(opponent);
+        }
+    }
+
+    /**
+     * This method solves a position with four empty squares without generating the valid moves.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param alpha the disc difference that the player is already sure to get.
+     * @param beta the disc difference that the opponent is already sure to limit the player to.
+     * @param x1 the first empty square to try.
+     * @param x2 the second empty square to try.
+     * @param x3 the third empty square to try.
+     * @param x4 the last empty square to try.
+     * @param passed true if the opponent passed in the previous move.
+     * @return the final disc difference for the player.
+     */
+    private int solveLast4(long player, long opponent, int alpha, int beta, int x1, int x2, int x3, int x4,
+                           boolean passed) {
+        nodes++;
+        int bestScore = -65;
+        long flips = flips(player, opponent, x1);
+        if (flips != 0) {
+            bestScore = -solveLast3(opponent & ~flips, player | flips | (1L << x1), -beta, -alpha, x2, x3, x4, false);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+        flips = flips(player, opponent, x2);
+        if (flips != 0) {
+            int score = -solveLast3(opponent & ~flips, player | flips | (1L << x2), -beta, -alpha, x1, x3, x4, false);
+            if (score >= beta) {
+                return score;
+            }
+            bestScore = Math.max(bestScore, score);
+            alpha = Math.max(alpha, score);
+        }
+        flips = flips(player, opponent, x3);
+        if (flips != 0) {
+            int score = -solveLast3(opponent & ~flips, player | flips | (1L << x3), -beta, -alpha, x1, x2, x4, false);
+            if (score >= beta) {
+                return score;
+            }
+            bestScore = Math.max(bestScore, score);
+            alpha = Math.max(alpha, score);
+        }
+        flips = flips(player, opponent, x4);
+        if (flips != 0) {
+            int score = -solveLast3(opponent & ~flips, player | flips | (1L << x4), -beta, -alpha, x1, x2, x3, false);
+            bestScore = Math.max(bestScore, score);
+        }
+        if (bestScore == -65) {
+            if (passed) {
+                return Long.bitCount(player) - Long.bitCount(opponent);
+            }
+            return -solveLast4(opponent, player, -beta, -alpha, x1, x2, x3, x4, true);
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method solves a position with three empty squares without generating the valid moves.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param alpha the disc difference that the player is already sure to get.
+     * @param beta the disc difference that the opponent is already sure to limit the player to.
+     * @param x1 the first empty square to try.
+     * @param x2 the second empty square to try.
+     * @param x3 the last empty square to try.
+     * @param passed true if the opponent passed in the previous move.
+     * @return the final disc difference for the player.
+     */
+    private int solveLast3(long player, long opponent, int alpha, int beta, int x1, int x2, int x3, boolean passed) {
+        nodes++;
+        int bestScore = -65;
+        long flips = flips(player, opponent, x1);
+        if (flips != 0) {
+            bestScore = -solveLast2(opponent & ~flips, player | flips | (1L << x1), -beta, -alpha, x2, x3, false);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+        flips = flips(player, opponent, x2);
+        if (flips != 0) {
+            int score = -solveLast2(opponent & ~flips, player | flips | (1L << x2), -beta, -alpha, x1, x3, false);
+            if (score >= beta) {
+                return score;
+            }
+            bestScore = Math.max(bestScore, score);
+            alpha = Math.max(alpha, score);
+        }
+        flips = flips(player, opponent, x3);
+        if (flips != 0) {
+            int score = -solveLast2(opponent & ~flips, player | flips | (1L << x3), -beta, -alpha, x1, x2, false);
+            bestScore = Math.max(bestScore, score);
+        }
+        if (bestScore == -65) {
+            if (passed) {
+                return Long.bitCount(player) - Long.bitCount(opponent);
+            }
+            return -solveLast3(opponent, player, -beta, -alpha, x1, x2, x3, true);
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method solves a position with two empty squares without generating the valid moves.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param alpha the disc difference that the player is already sure to get.
+     * @param beta the disc difference that the opponent is already sure to limit the player to.
+     * @param x1 the first empty square to try.
+     * @param x2 the last empty square to try.
+     * @param passed true if the opponent passed in the previous move.
+     * @return the final disc difference for the player.
+     */
+    private int solveLast2(long player, long opponent, int alpha, int beta, int x1, int x2, boolean passed) {
+        nodes++;
+        int bestScore = -65;
+        long flips = flips(player, opponent, x1);
+        if (flips != 0) {
+            bestScore = -solveLast1(opponent & ~flips, player | flips | (1L << x1), x2);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+        }
+        flips = flips(player, opponent, x2);
+        if (flips != 0) {
+            int score = -solveLast1(opponent & ~flips, player | flips | (1L << x2), x1);
+            bestScore = Math.max(bestScore, score);
+        }
+        if (bestScore == -65) {
+            if (passed) {
+                return Long.bitCount(player) - Long.bitCount(opponent);
+            }
+            return -solveLast2(opponent, player, -beta, -alpha, x1, x2, true);
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method solves a position with one empty square. The player plays it if it can, otherwise the opponent
+     * plays it if it can, otherwise the square stays empty.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param x1 the empty square.
+     * @return the final disc difference for the player.
+     */
+    private int solveLast1(long player, long opponent, int x1) {
+        nodes++;
+        int difference = Long.bitCount(player) - Long.bitCount(opponent);
+        int flipped = countLastFlips(player, x1);
+        if (flipped != 0) {
+            return difference + 2 * flipped + 1;
+        }
+        flipped = countLastFlips(opponent, x1);
+        if (flipped != 0) {
+            return difference - 2 * flipped - 1;
+        }
+        return difference;
+    }
+
+    /**
+     * This method counts the discs that a disc on the last empty square flips. All the other squares are full,
+     * so in every direction the discs between the square and the nearest disc of the player are discs of the
+     * opponent, and they are counted without the fills of the move generator.
+     * @param discs the mask with the discs of the player who places the disc.
+     * @param square the last empty square.
+     * @return the number of discs that are flipped.
+     */
+    static int countLastFlips(long discs, int square) {
+        int d = square * 4;
+        return Long.bitCount(flipsUp(discs, ~discs, RAYS_UP[d]) | flipsUp(discs, ~discs, RAYS_UP[d + 1])
+                | flipsUp(discs, ~discs, RAYS_UP[d + 2]) | flipsUp(discs, ~discs, RAYS_UP[d + 3])
+                | flipsDown(discs, ~discs, RAYS_DOWN[d]) | flipsDown(discs, ~discs, RAYS_DOWN[d + 1])
+                | flipsDown(discs, ~discs, RAYS_DOWN[d + 2]) | flipsDown(discs, ~discs, RAYS_DOWN[d + 3]));
+    }
+
+    /**
+     * This method calculates the discs that a move on an empty square flips, like MoveGenerator.flips but along
+     * the rays of the square and without a branch per direction. The solver calls it for millions of moves whose
+     * directions flip or not at random, so the branches of MoveGenerator.flips would mostly be mispredicted.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param square the empty square where the player places the disc.
+     * @return the mask of the discs that are flipped, or 0 if the move is not valid.
+     */
+    static long flips(long player, long opponent, int square) {
+        int d = square * 4;
+        return flipsUp(player, opponent, RAYS_UP[d]) | flipsUp(player, opponent, RAYS_UP[d + 1])
+                | flipsUp(player, opponent, RAYS_UP[d + 2]) | flipsUp(player, opponent, RAYS_UP[d + 3])
+                | flipsDown(player, opponent, RAYS_DOWN[d]) | flipsDown(player, opponent, RAYS_DOWN[d + 1])
+                | flipsDown(player, opponent, RAYS_DOWN[d + 2]) | flipsDown(player, opponent, RAYS_DOWN[d + 3]);
+    }
+
+    /**
+     * This method calculates the discs that are flipped along a ray towards the higher indexes. The lowest square
+     * of the ray without an opponent disc ends the line; if it has a disc of the player, the squares before it
+     * are flipped, otherwise the mask below it is all ones and its sign bit clears the result.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param ray the squares from the square of the move to the edge of the board.
+     * @return the mask of the discs that are flipped on the ray.
+     */
+    private static long flipsUp(long player, long opponent, long ray) {
+        long end = ray & ~opponent;
+        long below = (end & -end & player) - 1;
+        return ray & below & ~(below >> 63);
+    }
+
+    /**
+     * This method calculates the discs that are flipped along a ray towards the lower indexes. The highest square
+     * of the ray without an opponent disc ends the line, and the squares above it are flipped if it has a disc
+     * of the player.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param ray the squares from the square of the move to the edge of the board.
+     * @return the mask of the discs that are flipped on the ray.
+     */
+    private static long flipsDown(long player, long opponent, long ray) {
+        return ray & -((Long.highestOneBit(ray & ~opponent) & player) << 1);
+    }
+
+    /**
+     * This method makes the mask of the squares from a square to the edge of the board in one direction, without
+     * the square itself.
+     * @param row the row of the square.
+     * @param col the column of the square.
+     * @param rowStep the step of the row in the direction.
+     * @param colStep the step of the column in the direction.
+     * @return the mask of the squares.
+     */
+    private static long ray(int row, int col, int rowStep, int colStep) {
+        long ray = 0L;
+        for (int r = row + rowStep, c = col + colStep; r >= 0 && r < 8 && c >= 0 && c < 8; r += rowStep, c += colStep) {
+            ray |= 1L << (r * 8 + c);
+        }
+        return ray;
+    }
+
+    /**
+     * This method finds the empty squares that are next to a disc of the player in a horizontal or vertical
+     * direction. These are the squares where the opponent may be able to play later.
+     * @param player the mask with the discs of the player.
+     * @param opponent the mask with the discs of the other player.
+     * @return the mask of the empty squares next to the discs of the player.
+     */
+    private static long potentialMoves(long player, long opponent) {
+        long neighbours = ((player << 1) & ~FILE_A) | ((player >>> 1) & ~FILE_H) | (player << 8) | (player >>> 8);
+        return neighbours & ~(player | opponent);
+    }
+
+    /**
+     * This method finds discs that can never be flipped again. A disc is stable when in each of the four lines
+     * through it (horizontal, vertical and the two diagonals) the line is full, or the disc is on the edge of the
+     * board, or the next disc on the line is a stable disc of the same colour.
+     * @param discs the mask with the discs of one player.
+     * @param other the mask with the discs of the other player.
+     * @return the mask of the stable discs of the player.
+     */
+    static long stableDiscs(long discs, long other) {
+        long occupied = discs | other;
+
+        long full = occupied & (occupied >>> 1) & 0x7f7f7f7f7f7f7f7fL;
+        full &= full >>> 2;
+        full &= full >>> 4;
+        long fullHorizontal = (full & FILE_A) * 0xffL;
+
+        long column = occupied & (occupied >>> 8);
+        column &= column >>> 16;
+        column &= column >>> 32;
+        long fullVertical = (column & RANK_1) * FILE_A;
+
+        long fullDiagonal = 0L;
+        long fullAntiDiagonal = 0L;
+        for (int i = 0; i < 15; i++) {
+            if ((occupied & DIAGONALS[i]) == DIAGONALS[i]) {
+                fullDiagonal |= DIAGONALS[i];
+            }
+            if ((occupied & ANTI_DIAGONALS[i]) == ANTI_DIAGONALS[i]) {
+                fullAntiDiagonal |= ANTI_DIAGONALS[i];
+            }
+        }
+
+        long horizontal = fullHorizontal | FILE_A | FILE_H;
+        long vertical = fullVertical | RANK_1 | RANK_8;
+        long diagonal = fullDiagonal | EDGES;
+        long antiDiagonal = fullAntiDiagonal | EDGES;
+        long stable = discs & horizontal & vertical & diagonal & antiDiagonal;
+        long previousStable;
+        do {
+            previousStable = stable;
+            long h = horizontal | ((stable << 1) & ~FILE_A) | ((stable >>> 1) & ~FILE_H);
+            long v = vertical | (stable << 8) | (stable >>> 8);
+            long d = diagonal | ((stable << 9) & ~FILE_A) | ((stable >>> 9) & ~FILE_H);
+            long a = antiDiagonal | ((stable << 7) & ~FILE_H) | ((stable >>> 7) & ~FILE_A);
+            stable = discs & h & v & d & a;
+        } while (stable != previousStable);
+        return stable;
+    }
+
+    /**
+     * This method follows the best moves that are stored in the transposition table from the root.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param bestMove the best move of the root, or PASS.
+     * @return the principal variation starting with the best move.
+     */
+    private int[] principalVariation(long player, long opponent, int bestMove) {
+        int[] line = new int[64];
+        int length = 0;
+        int move = bestMove;
+        while (length < line.length) {
+            long moves = MoveGenerator.validMoves(player, opponent);
+            if (moves == 0) {
+                if (MoveGenerator.validMoves(opponent, player) == 0) {
+                    break;
+                }
+                line[length++] = SearchResult.PASS;
+                long swap = player;
+                player = opponent;
+                opponent = swap;
+                move = TranspositionTable.NO_MOVE;
+                continue;
+            }
+            if (move == TranspositionTable.NO_MOVE || move == SearchResult.PASS) {
+                long entry = transpositionTable.probe(hash(player, opponent));
+                move = entry != 0 ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE;
+            }
+            if (move == TranspositionTable.NO_MOVE || (moves & (1L << move)) == 0) {
+                break;
+            }
+            line[length++] = move;
+            long flips = MoveGenerator.flips(player, opponent, move);
+            long newPlayer = opponent & ~flips;
+            opponent = player | flips | (1L << move);
+            player = newPlayer;
+            move = TranspositionTable.NO_MOVE;
+        }
+        int[] variation = new int[length];
+        System.arraycopy(line, 0, variation, 0, length);
+        return variation;
+    }
+
+    /**
+     * This method returns the bit of the quadrant of the board that a square is in.
+     * @param square the index of the square.
+     * @return 1, 2, 4 or 8 for the top left, top right, bottom left and bottom right quadrant.
+     */
+    private static int quadrant(int square) {
+        return 1 << (((square >> 4) & 2) | ((square >> 2) & 1));
+    }
+
+    /**
+     * This method calculates the hash key of a position for the transposition table of the solver by mixing
+     * the two masks, which is cheaper than a Zobrist key because the solver doesn't keep one while it plays.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the hash key.
+     */
+    private static long hash(long player, long opponent) {
+        long key = player * 0x9e3779b97f4a7c15L + Long.rotateLeft(opponent, 29) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 32)) * 0x94d049bb133111ebL;
+        return key ^ (key >>> 29);
+    }
+}
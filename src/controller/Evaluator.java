@@ -0,0 +1,18 @@
+package controller;
+
+/**
+ * This interface scores positions that are not finished for the search engine. The score is for the player who is
+ * moving and must stay between -SearchEngine.WIN_SCORE and SearchEngine.WIN_SCORE, so a won game always scores
+ * higher. The search threads share the evaluator of their config, so an evaluator must not change its state while
+ * it scores a position.
+ */
+public interface Evaluator {
+    /**
+     * This method scores a position.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param moves the valid moves of the player, which the search has already calculated.
+     * @return the score of the position for the player.
+     */
+    int evaluate(long player, long opponent, long moves);
+}
@@ -3,17 +3,28 @@ package controller;
 import model.Game;
 import model.Move;
 import model.Player;
+import model.Position;
 import model.Square;
 
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class represents the human player in the game.
  * It takes input from the human player and checks to see if they can perform their valid move in the game.
  * This class stores the information about the  human player namely their name and their square color.
+ * With a search engine, the human player can also ask for the best move or for a live analysis of their position.
  */
 public class HumanPlayer extends Player {
+    /**
+     * The number of best moves that the live analysis shows.
+     */
+    private static final int ANALYSIS_LINES = 3;
+
     private final Scanner scanner;
+    private final SearchEngine hintEngine;
+    private Thread analysis;
+    private AtomicBoolean analysisCancelled;
 
     /**
      * This method constructs a new human player based on the specified arguments the name and the square color.
@@ -23,7 +34,18 @@ public class HumanPlayer extends Player {
      * @param color the square color of the computer player.
      */
     public HumanPlayer(String name, Square color) {
+        this(name, color, null);
+    }
+
+    /**
+     * This method constructs a new human player that gets the best move from a search engine when they type best.
+     * @param name the name of the human player.
+     * @param color the square color of the human player.
+     * @param hintEngine the search engine that calculates the best move, or null to use the BestMove class.
+     */
+    public HumanPlayer(String name, Square color, SearchEngine hintEngine) {
         super(name, color);
+        this.hintEngine = hintEngine;
         scanner = new Scanner(System.in);
     }
 
@@ -32,6 +54,8 @@ public class HumanPlayer extends Player {
      * If a human player cannot make any more valid moves they should pass their turn so that the other player can take their turn.
      * The human player must enter valid integer within the range of (0-63) to perform a valid move and to avoid invalid index message.
      * It gets all the valid moves of the human player to select from.
+     * When the player types analyze, the best moves are analysed in the background and the lines of the analysis
+     * are printed while they improve, until the player types the next input.
      * @param game the current game being played.
      * @return the current move of a human player in the game.
      */
@@ -40,12 +64,28 @@ public class HumanPlayer extends Player {
         Move makeMove;
 
         while (true) {
-         System.out.println("Type best if you want to get the best available move");
+         System.out.println("Type best if you want to get the best available move, or analyze for a live analysis");
          String input = scanner.nextLine();
+         stopAnalysis();
+
+          if (input.equals("analyze")) {
+              if (hintEngine != null) {
+                  startAnalysis(game.getPosition());
+              } else {
+                  System.out.println("There is no search engine for the analysis.");
+              }
+              continue;
+          }
 
           if (input.equals("best")) {
-             BestMove bestMove = new BestMove(game, this);
-             System.out.println("Your best move is: " + bestMove.getBestMove().getIndex());
+             if (hintEngine != null) {
+                 SearchResult result = hintEngine.search(game, getColor());
+                 System.out.println("Your best move is: " + result.getBestMove() + " (score " + result.getScore()
+                         + " at depth " + result.getDepth() + ")");
+             } else {
+                 BestMove bestMove = new BestMove(game, this);
+                 System.out.println("Your best move is: " + bestMove.getBestMove().getIndex());
+             }
           }
 
            int enterNum;
@@ -78,4 +118,37 @@ public class HumanPlayer extends Player {
         }
         return makeMove;
     }
+
+    /**
+     * This method starts the live analysis of a position on a background thread, which prints every line of the
+     * analysis when it has been searched to a new depth.
+     * @param position the position of the player.
+     */
+    private void startAnalysis(Position position) {
+        AtomicBoolean token = new AtomicBoolean();
+        analysisCancelled = token;
+        analysis = new Thread(() -> hintEngine.analyze(position, ANALYSIS_LINES,
+                line -> System.out.println("Analysis: " + line), token), "analysis");
+        analysis.setDaemon(true);
+        analysis.start();
+    }
+
+    /**
+     * This method stops the live analysis, if it is running, by cancelling its token, and waits until it has
+     * stopped. The token belongs to this analysis only, so it also stops an analysis that had not started to
+     * search yet.
+     */
+    private void stopAnalysis() {
+        if (analysis == null) {
+            return;
+        }
+        analysisCancelled.set(true);
+        try {
+            analysis.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        analysis = null;
+        analysisCancelled = null;
+    }
 }
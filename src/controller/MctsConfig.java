@@ -0,0 +1,119 @@
+package controller;
+
+/**
+ * This class stores the settings of the Monte Carlo tree search, namely how many random playouts it plays,
+ * how much time it may use, how many threads it uses, how much it explores moves that are not played often yet
+ * and if it keeps its tree from one move to the next. The search stops at whichever limit is reached first.
+ */
+public class MctsConfig {
+    private long playouts = 100_000;
+    private long timeLimitMillis = 0;
+    private int threads = 1;
+    private double exploration = 0.7;
+    private boolean treeReuse = true;
+
+    /**
+     * This method returns the number of random playouts of one search.
+     * @return the number of playouts, 0 means that there is no playout limit.
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * This method sets the number of random playouts of one search, counted over all the threads.
+     * @param playouts the number of playouts, 0 means that there is no playout limit and the time limit is used.
+     * @return this config, so the settings can be chained.
+     */
+    public MctsConfig setPlayouts(long playouts) {
+        if (playouts < 0) {
+            throw new IllegalArgumentException("The playouts cannot be negative");
+        }
+        this.playouts = playouts;
+        return this;
+    }
+
+    /**
+     * This method returns the time that one search may take.
+     * @return the time limit in milliseconds, 0 means that there is no time limit.
+     */
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * This method sets the time that one search may take.
+     * @param timeLimitMillis the time limit in milliseconds, 0 means that there is no time limit.
+     * @return this config, so the settings can be chained.
+     */
+    public MctsConfig setTimeLimitMillis(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("The time limit cannot be negative");
+        }
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    /**
+     * This method returns the number of threads that grow the tree at the same time.
+     * @return the number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * This method sets the number of threads that grow the tree at the same time.
+     * @param threads the number of threads, it must be at least 1.
+     * @return this config, so the settings can be chained.
+     */
+    public MctsConfig setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The search needs at least 1 thread");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * This method returns the exploration constant of the UCT formula.
+     * @return the exploration constant.
+     */
+    public double getExploration() {
+        return exploration;
+    }
+
+    /**
+     * This method sets the exploration constant of the UCT formula. A bigger constant spreads the playouts over
+     * more moves, a smaller one concentrates them on the moves that won the most so far.
+     * @param exploration the exploration constant, it must be positive.
+     * @return this config, so the settings can be chained.
+     */
+    public MctsConfig setExploration(double exploration) {
+        if (!(exploration > 0)) {
+            throw new IllegalArgumentException("The exploration constant must be positive");
+        }
+        this.exploration = exploration;
+        return this;
+    }
+
+    /**
+     * This method tells if the search keeps the part of its tree that is still reachable after the moves
+     * that were played since the last search.
+     * @return true if the tree is reused, false otherwise.
+     */
+    public boolean isTreeReuse() {
+        return treeReuse;
+    }
+
+    /**
+     * This method sets if the search keeps the part of its tree that is still reachable after the moves
+     * that were played since the last search.
+     * @param treeReuse true to reuse the tree, false to start every search with a new tree.
+     * @return this config, so the settings can be chained.
+     */
+    public MctsConfig setTreeReuse(boolean treeReuse) {
+        this.treeReuse = treeReuse;
+        return this;
+    }
+}
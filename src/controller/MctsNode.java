@@ -0,0 +1,144 @@
+package controller;
+
+import model.MoveGenerator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * This class represents a node of the Monte Carlo search tree: a position, the move that led to it, and the
+ * statistics of the playouts that went through it. The reward is counted in half points for the player who played
+ * the move into the node: 2 for a won playout, 1 for a draw and 0 for a lost one.
+ * The threads of a search share the tree. The statistics are changed with atomic additions, and the children are
+ * created by one thread and published through a volatile field.
+ */
+class MctsNode {
+    private static final VarHandle VISITS;
+    private static final VarHandle REWARD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VISITS = lookup.findVarHandle(MctsNode.class, "visits", int.class);
+            REWARD = lookup.findVarHandle(MctsNode.class, "reward", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long player;
+    private final long opponent;
+    private final int move;
+    private volatile MctsNode[] children;
+    private volatile int visits;
+    private volatile long reward;
+
+    /**
+     * This method constructs a new node that is not expanded yet.
+     * @param player the mask with the discs of the player who is moving in the position of the node.
+     * @param opponent the mask with the discs of the other player.
+     * @param move the index of the move that led to the node, or SearchResult.PASS.
+     */
+    MctsNode(long player, long opponent, int move) {
+        this.player = player;
+        this.opponent = opponent;
+        this.move = move;
+    }
+
+    /**
+     * This method returns the discs of the player who is moving in the position of the node.
+     * @return the mask with the discs.
+     */
+    long getPlayer() {
+        return player;
+    }
+
+    /**
+     * This method returns the discs of the other player.
+     * @return the mask with the discs.
+     */
+    long getOpponent() {
+        return opponent;
+    }
+
+    /**
+     * This method returns the move that led to the node.
+     * @return the index of the move, or SearchResult.PASS.
+     */
+    int getMove() {
+        return move;
+    }
+
+    /**
+     * This method returns the children of the node.
+     * @return the children, an empty array if the game is over in the node, or null if it is not expanded yet.
+     */
+    MctsNode[] getChildren() {
+        return children;
+    }
+
+    /**
+     * This method returns the number of playouts that went through the node, including the playouts that
+     * are still running.
+     * @return the number of visits.
+     */
+    int getVisits() {
+        return visits;
+    }
+
+    /**
+     * This method returns the reward of the finished playouts that went through the node.
+     * @return the reward in half points for the player who played the move into the node.
+     */
+    long getReward() {
+        return reward;
+    }
+
+    /**
+     * This method counts a playout that goes through the node. It is counted before its result is known, so
+     * while it runs it looks like a lost playout to the other threads (a virtual loss), which sends them down
+     * other paths of the tree.
+     */
+    void addVisit() {
+        VISITS.getAndAdd(this, 1);
+    }
+
+    /**
+     * This method adds the result of a finished playout.
+     * @param halfPoints 2 for a win, 1 for a draw and 0 for a loss of the player who played the move into the node.
+     */
+    void addReward(int halfPoints) {
+        REWARD.getAndAdd(this, (long) halfPoints);
+    }
+
+    /**
+     * This method creates the children of the node unless another thread already did. A player without valid
+     * moves gets one child for the pass, and a finished game gets no children.
+     * @return the children.
+     */
+    MctsNode[] expand() {
+        MctsNode[] expanded = children;
+        if (expanded != null) {
+            return expanded;
+        }
+        synchronized (this) {
+            if (children == null) {
+                long moves = MoveGenerator.validMoves(player, opponent);
+                if (moves == 0) {
+                    boolean gameOver = MoveGenerator.validMoves(opponent, player) == 0;
+                    children = gameOver ? new MctsNode[0]
+                            : new MctsNode[]{new MctsNode(opponent, player, SearchResult.PASS)};
+                } else {
+                    MctsNode[] created = new MctsNode[Long.bitCount(moves)];
+                    for (int i = 0; moves != 0; moves &= moves - 1, i++) {
+                        int index = Long.numberOfTrailingZeros(moves);
+                        long flips = MoveGenerator.flips(player, opponent, index);
+                        created[i] = new MctsNode(opponent ^ flips, player | flips | (1L << index), index);
+                    }
+                    children = created;
+                }
+            }
+            return children;
+        }
+    }
+}
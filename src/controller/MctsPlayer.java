@@ -0,0 +1,59 @@
+package controller;
+
+import model.Game;
+import model.Move;
+import model.Player;
+import model.Square;
+
+/**
+ * This class represents a computer player that selects its moves with a Monte Carlo tree search.
+ * It needs no evaluation of the positions, only random games, and it keeps its search tree from one move to the next.
+ */
+public class MctsPlayer extends Player {
+    private final MctsSearch search;
+
+    /**
+     * This method constructs a new Monte Carlo player.
+     * @param name the name of the player.
+     * @param color the square color of the player.
+     * @param search the Monte Carlo tree search that selects the moves.
+     */
+    public MctsPlayer(String name, Square color, MctsSearch search) {
+        super(name, color);
+        this.search = search;
+    }
+
+    /**
+     * This method constructs a new Monte Carlo player with its own search.
+     * @param name the name of the player.
+     * @param color the square color of the player.
+     * @param config the settings of the search.
+     */
+    public MctsPlayer(String name, Square color, MctsConfig config) {
+        this(name, color, new MctsSearch(config));
+    }
+
+    /**
+     * This method selects the move of the player. If the player has no valid move it passes, otherwise it plays
+     * the move that the Monte Carlo tree search visited most.
+     * @param game the current game being played.
+     * @return the move of the player, or the move (-1, -1) to pass, or null if it is not the turn of this player.
+     */
+    @Override
+    public Move makeMove(Game game) {
+        if (!game.getTurn().getColor().equals(getColor())) {
+            return null;
+        }
+        if (game.getAllValidMoves(getColor()).isEmpty()) {
+            return new Move(-1, -1, getColor());
+        }
+        return search.search(game, getColor()).toMove(getColor());
+    }
+
+    /**
+     * This method stops the helper threads of the search of this player, when the player will not play any more.
+     */
+    public void shutdown() {
+        search.shutdown();
+    }
+}
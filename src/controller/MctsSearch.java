@@ -0,0 +1,361 @@
+package controller;
+
+import model.Board;
+import model.Game;
+import model.MoveGenerator;
+import model.Position;
+import model.Square;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents the Monte Carlo tree search engine of the othello game. It needs no evaluation: it plays
+ * random games (playouts) on the 64-bit masks of the discs from the positions of a tree, and grows the tree towards
+ * the moves that win the most playouts. Every playout walks down the tree with the UCT formula, which balances the
+ * win rate of a move with how rarely it was tried, creates the children of a leaf once it was visited often enough,
+ * plays a random game from the leaf and adds the result to every node on its path.
+ * With more than one thread, the threads grow the same tree (tree parallelism). A playout counts its visits before
+ * it finishes, so the other threads see it as a loss for a moment (virtual loss) and spread over other moves.
+ * Between two searches the engine keeps the part of the tree that is reachable from the new position.
+ */
+public class MctsSearch {
+    /**
+     * The number of visits of a leaf before its children are created. Creating them later keeps the tree small,
+     * the playouts of the leaf are played from the leaf itself until then.
+     */
+    private static final int EXPANSION_VISITS = 4;
+
+    /**
+     * The most nodes that a playout passes in the tree: 60 moves and the passes between them.
+     */
+    private static final int MAX_PATH = 128;
+
+    private final MctsConfig config;
+    private final ExecutorService helperPool;
+    private final long seed;
+    private MctsNode root;
+    private long searches;
+
+    /**
+     * This method constructs a new Monte Carlo tree search engine with the settings of the config.
+     * @param config the settings of the search.
+     */
+    public MctsSearch(MctsConfig config) {
+        this(config, System.nanoTime());
+    }
+
+    /**
+     * This method constructs a new Monte Carlo tree search engine with random playouts from a seed. With one
+     * thread and a playout limit, the same seed gives the same searches.
+     * @param config the settings of the search.
+     * @param seed the seed of the random playouts.
+     */
+    public MctsSearch(MctsConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+        if (config.getThreads() > 1) {
+            helperPool = Executors.newFixedThreadPool(config.getThreads() - 1, runnable -> {
+                Thread thread = new Thread(runnable, "mcts-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            helperPool = null;
+        }
+    }
+
+    /**
+     * This method searches the best move for a colour in the game.
+     * @param game the current game being played, it is not changed by the search.
+     * @param colour the square color of the player for which the best move is searched.
+     * @return the result of the search.
+     */
+    public SearchResult search(Game game, Square colour) {
+        Board board = game.returnBoard();
+        return search(board.getDiscMask(colour), board.getDiscMask(colour.getOtherPlayerSquare()));
+    }
+
+    /**
+     * This method searches the best move of a position.
+     * @param position the position, the player to move is the one for which the best move is searched.
+     * @return the result of the search.
+     */
+    public SearchResult search(Position position) {
+        return search(position.getPlayerDiscs(), position.getOpponentDiscs());
+    }
+
+    /**
+     * This method searches the best move of a position until the playouts or the time of the config are used up.
+     * The best move is the one with the most visits, and the score is its win rate minus 50% in tenths of a
+     * percent, from -500 for certainly lost to 500 for certainly won. The depth is the length of the principal
+     * variation, which follows the most visited moves, and the nodes are the playouts.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the result of the search.
+     */
+    public synchronized SearchResult search(long player, long opponent) {
+        long start = System.nanoTime();
+        long timeLimit = config.getTimeLimitMillis();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000L : Long.MAX_VALUE;
+        long playoutLimit = config.getPlayouts() > 0 ? config.getPlayouts() : Long.MAX_VALUE;
+        if (playoutLimit == Long.MAX_VALUE && deadline == Long.MAX_VALUE) {
+            throw new IllegalStateException("A Monte Carlo search needs a playout limit or a time limit");
+        }
+
+        MctsNode searchRoot = config.isTreeReuse() ? findReusableRoot(player, opponent) : null;
+        root = searchRoot != null ? searchRoot : new MctsNode(player, opponent, SearchResult.PASS);
+        MctsNode currentRoot = root;
+        currentRoot.expand();
+
+        AtomicLong playouts = new AtomicLong();
+        int threads = config.getThreads();
+        long[] threadPlayouts = new long[threads];
+        long searchSeed = seed + searches++ * 0x9e3779b97f4a7c15L;
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            int thread = i;
+            helpers.add(helperPool.submit(() -> threadPlayouts[thread] = grow(currentRoot,
+                    new SplittableRandom(searchSeed + thread), playouts, playoutLimit, deadline)));
+        }
+        threadPlayouts[0] = grow(currentRoot, new SplittableRandom(searchSeed), playouts, playoutLimit, deadline);
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search thread failed", e.getCause());
+            }
+        }
+
+        long total = 0;
+        for (long count : threadPlayouts) {
+            total += count;
+        }
+        MctsNode best = mostVisited(currentRoot);
+        int score = 0;
+        if (best != null && best.getVisits() > 0) {
+            score = (int) (best.getReward() * 500 / best.getVisits()) - 500;
+        }
+        int[] principalVariation = principalVariation(currentRoot);
+        return new SearchResult(best != null ? best.getMove() : SearchResult.PASS, score, principalVariation.length,
+                total, (System.nanoTime() - start) / 1_000_000L, principalVariation, threadPlayouts);
+    }
+
+    /**
+     * This method is the loop of one thread: it plays playouts through the tree until the limits are reached.
+     * The time is read every 16 playouts.
+     * @param root the root of the tree.
+     * @param random the random number generator of the thread.
+     * @param playouts the number of playouts that the threads started.
+     * @param playoutLimit the number of playouts of the search.
+     * @param deadline the value of System.nanoTime at which the search must stop.
+     * @return the number of playouts of this thread.
+     */
+    private long grow(MctsNode root, SplittableRandom random, AtomicLong playouts, long playoutLimit, long deadline) {
+        MctsNode[] path = new MctsNode[MAX_PATH];
+        double exploration = config.getExploration();
+        long count = 0;
+        while (playouts.getAndIncrement() < playoutLimit) {
+            if ((count & 15) == 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+            playout(root, path, random, exploration);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * This method plays one playout: it selects a path down the tree, expands the leaf if it was visited often
+     * enough, plays a random game from the leaf and adds the result to every node of the path.
+     * @param root the root of the tree.
+     * @param path the array that stores the nodes of the path.
+     * @param random the random number generator of the thread.
+     * @param exploration the exploration constant of the UCT formula.
+     */
+    private static void playout(MctsNode root, MctsNode[] path, SplittableRandom random, double exploration) {
+        MctsNode node = root;
+        node.addVisit();
+        path[0] = node;
+        int length = 1;
+        MctsNode[] children;
+        while ((children = node.getChildren()) != null && children.length > 0) {
+            node = select(node, children, exploration);
+            node.addVisit();
+            path[length++] = node;
+        }
+        if (children == null && node.getVisits() >= EXPANSION_VISITS) {
+            children = node.expand();
+            if (children.length > 0) {
+                node = children[random.nextInt(children.length)];
+                node.addVisit();
+                path[length++] = node;
+            }
+        }
+
+        // the difference is for the player who is moving in the last node, and flips with every node up the path
+        int difference = randomGame(node.getPlayer(), node.getOpponent(), random);
+        for (int i = length - 1; i > 0; i--) {
+            difference = -difference;
+            path[i].addReward(difference > 0 ? 2 : difference == 0 ? 1 : 0);
+        }
+    }
+
+    /**
+     * This method selects the child with the highest UCT value: its win rate plus the exploration constant times
+     * the square root of the logarithm of the visits of the parent divided by the visits of the child.
+     * A child without visits is always selected first.
+     * @param parent the node whose child is selected.
+     * @param children the children of the node.
+     * @param exploration the exploration constant.
+     * @return the selected child.
+     */
+    private static MctsNode select(MctsNode parent, MctsNode[] children, double exploration) {
+        double logVisits = Math.log(Math.max(1, parent.getVisits()));
+        MctsNode best = children[0];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (MctsNode child : children) {
+            int visits = child.getVisits();
+            if (visits == 0) {
+                return child;
+            }
+            double value = child.getReward() / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method plays a random game to the end.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param random the random number generator.
+     * @return the final disc difference for the player who was moving at the start.
+     */
+    static int randomGame(long player, long opponent, SplittableRandom random) {
+        boolean swapped = false;
+        boolean passed = false;
+        while (true) {
+            long moves = MoveGenerator.validMoves(player, opponent);
+            if (moves == 0) {
+                if (passed) {
+                    break;
+                }
+                passed = true;
+            } else {
+                passed = false;
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                    moves &= moves - 1;
+                }
+                int index = Long.numberOfTrailingZeros(moves);
+                long flips = MoveGenerator.flips(player, opponent, index);
+                player |= flips | (1L << index);
+                opponent ^= flips;
+            }
+            long swap = player;
+            player = opponent;
+            opponent = swap;
+            swapped = !swapped;
+        }
+        int difference = Long.bitCount(player) - Long.bitCount(opponent);
+        return swapped ? -difference : difference;
+    }
+
+    /**
+     * This method finds the child with the most visits.
+     * @param node the node.
+     * @return the child with the most visits, or null if the node has no children.
+     */
+    private static MctsNode mostVisited(MctsNode node) {
+        MctsNode[] children = node.getChildren();
+        MctsNode best = null;
+        if (children != null) {
+            for (MctsNode child : children) {
+                if (best == null || child.getVisits() > best.getVisits()) {
+                    best = child;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This method follows the most visited moves from the root as long as they have been visited.
+     * @param root the root of the tree.
+     * @return the indexes of the moves, SearchResult.PASS for a pass.
+     */
+    private static int[] principalVariation(MctsNode root) {
+        List<Integer> moves = new ArrayList<>();
+        MctsNode node = mostVisited(root);
+        while (node != null && node.getVisits() > 0) {
+            moves.add(node.getMove());
+            node = mostVisited(node);
+        }
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * This method looks for the new position in the tree of the last search, among the positions after the
+     * next few moves of its root.
+     * @param player the mask with the discs of the player who is moving in the new position.
+     * @param opponent the mask with the discs of the other player.
+     * @return the node of the position, or null if the tree doesn't have it.
+     */
+    private MctsNode findReusableRoot(long player, long opponent) {
+        List<MctsNode> level = new ArrayList<>();
+        if (root != null) {
+            level.add(root);
+        }
+        for (int depth = 0; depth <= 3 && !level.isEmpty(); depth++) {
+            List<MctsNode> next = new ArrayList<>();
+            for (MctsNode node : level) {
+                if (node.getPlayer() == player && node.getOpponent() == opponent) {
+                    return node;
+                }
+                MctsNode[] children = node.getChildren();
+                if (children != null) {
+                    next.addAll(List.of(children));
+                }
+            }
+            level = next;
+        }
+        return null;
+    }
+
+    /**
+     * This method returns the number of playouts of the current tree, which is more than the playouts of the last
+     * search when the tree was reused.
+     * @return the visits of the root, 0 before the first search.
+     */
+    public int getTreeVisits() {
+        return root != null ? root.getVisits() : 0;
+    }
+
+    /**
+     * This method returns the root of the current tree, which is the position of the last search.
+     * @return the root, or null before the first search.
+     */
+    MctsNode getRoot() {
+        return root;
+    }
+
+    /**
+     * This method stops the helper threads of this engine. It must not search with more than one thread afterwards.
+     */
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package controller;
+
+import model.MoveGenerator;
+import model.Square;
+
+/**
+ * This class orders the moves of the search engine, so the best move is usually searched first and alpha-beta can
+ * cut off the other moves. The move of the transposition table is always searched first and the two killer moves
+ * of the ply (moves that caused a cutoff in a sibling position) next. With enough depth left, the other moves are
+ * scored by their history (how often they caused cutoffs anywhere in the tree), the weight of their square and how
+ * few moves they leave the opponent, and they are searched from the highest score down. Close to the leaves,
+ * where most positions are cut off after one or two moves, scoring every move costs more than it saves, so the other
+ * moves are taken lazily in the order of the square weights instead.
+ * The moves, their flips and their scores are kept in primitive arrays for every ply, which are reused by every
+ * position, so ordering the moves creates no objects. Every search worker has its own orderer.
+ */
+class MoveOrderer {
+    /**
+     * The most moves that a position can have.
+     */
+    private static final int MAX_MOVES = 64;
+
+    /**
+     * The depth from which all the moves are scored and sorted, also by the mobility of the opponent, which needs
+     * the replies of every move.
+     */
+    private static final int SORT_DEPTH = 3;
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int SQUARE_WEIGHT = 64;
+    private static final int MOBILITY_WEIGHT = 1 << 14;
+
+    /**
+     * The squares from the best to the worst square weight of the SquareEvaluator.
+     */
+    private static final int[] SQUARE_ORDER = new int[64];
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            SQUARE_ORDER[i] = i;
+        }
+        for (int i = 1; i < 64; i++) {
+            int square = SQUARE_ORDER[i];
+            int j = i - 1;
+            while (j >= 0
+                    && SquareEvaluator.SQUARE_WEIGHTS[SQUARE_ORDER[j]] < SquareEvaluator.SQUARE_WEIGHTS[square]) {
+                SQUARE_ORDER[j + 1] = SQUARE_ORDER[j];
+                j--;
+            }
+            SQUARE_ORDER[j + 1] = square;
+        }
+    }
+
+    private final int[][] moves;
+    private final long[][] flips;
+    private final int[][] scores;
+    private final int[][] killers;
+    private final int[][] history = new int[2][64];
+    private final boolean[] sorted;
+    private final long[] remaining;
+    private final int[] squareIndex;
+    private final int[] placed;
+
+    /**
+     * This method constructs a new move orderer.
+     * @param maxPly the number of plies that the search can reach.
+     */
+    MoveOrderer(int maxPly) {
+        moves = new int[maxPly][MAX_MOVES];
+        flips = new long[maxPly][MAX_MOVES];
+        scores = new int[maxPly][MAX_MOVES];
+        killers = new int[maxPly][2];
+        sorted = new boolean[maxPly];
+        remaining = new long[maxPly];
+        squareIndex = new int[maxPly];
+        placed = new int[maxPly];
+        clearKillers();
+    }
+
+    /**
+     * This method prepares the orderer for a new search. The killer moves are forgotten, and the history is halved,
+     * so the history of the last search still helps but the new search soon outweighs it.
+     */
+    void newSearch() {
+        clearKillers();
+        for (int[] side : history) {
+            for (int square = 0; square < 64; square++) {
+                side[square] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * This method forgets the killer moves of every ply.
+     */
+    private void clearKillers() {
+        for (int[] ply : killers) {
+            ply[0] = -1;
+            ply[1] = -1;
+        }
+    }
+
+    /**
+     * This method prepares the moves of a position, which are then taken in order with next. With enough depth
+     * left, every move is scored here; otherwise only the move of the transposition table and the killer moves are
+     * placed, and the other moves are found by next when they are needed.
+     * @param ply the distance from the root of the search.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param validMoves the mask of the valid moves of the player.
+     * @param hashMove the move of the transposition table or the previous iteration, or -1 if there is none.
+     * @param depth the number of plies that are left to search.
+     * @param colour the square color of the player who is moving.
+     * @return the number of moves.
+     */
+    int generate(int ply, long player, long opponent, long validMoves, int hashMove, int depth, Square colour) {
+        int killer1 = killers[ply][0];
+        int killer2 = killers[ply][1];
+        if (depth < SORT_DEPTH) {
+            sorted[ply] = false;
+            remaining[ply] = validMoves;
+            squareIndex[ply] = 0;
+            placed[ply] = 0;
+            place(ply, hashMove);
+            place(ply, killer1);
+            place(ply, killer2);
+            return Long.bitCount(validMoves);
+        }
+
+        sorted[ply] = true;
+        int[] plyMoves = moves[ply];
+        long[] plyFlips = flips[ply];
+        int[] plyScores = scores[ply];
+        int[] sideHistory = history[colour == Square.BLACK ? 0 : 1];
+        int count = 0;
+        for (long rest = validMoves; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            long moveFlips = 0;
+            int score;
+            if (square == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (square == killer1) {
+                score = KILLER_SCORE + 1;
+            } else if (square == killer2) {
+                score = KILLER_SCORE;
+            } else {
+                moveFlips = MoveGenerator.flips(player, opponent, square);
+                long replies = MoveGenerator.validMoves(opponent & ~moveFlips, player | moveFlips | (1L << square));
+                score = sideHistory[square] + SquareEvaluator.SQUARE_WEIGHTS[square] * SQUARE_WEIGHT
+                        - Long.bitCount(replies) * MOBILITY_WEIGHT;
+            }
+            plyMoves[count] = square;
+            plyFlips[count] = moveFlips;
+            plyScores[count] = score;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * This method puts a move at the end of the moves that are searched first in a position that is not sorted,
+     * if it is a valid move that is not placed yet.
+     * @param ply the distance from the root of the search.
+     * @param move the index position of the move, or -1.
+     */
+    private void place(int ply, int move) {
+        if (move >= 0 && (remaining[ply] & (1L << move)) != 0) {
+            remaining[ply] &= ~(1L << move);
+            int index = placed[ply]++;
+            moves[ply][index] = move;
+            flips[ply][index] = 0;
+        }
+    }
+
+    /**
+     * This method returns the move that is searched next. For a sorted position it moves the move with the highest
+     * score of the ones that are not searched yet to the index, so the moves are sorted only as far as the search
+     * gets before a cutoff. Otherwise it returns the placed moves first and then finds the next move in the order
+     * of the square weights.
+     * @param ply the distance from the root of the search.
+     * @param index the number of moves of the position that were already searched.
+     * @param count the number of moves.
+     * @return the index position of the move on the board.
+     */
+    int next(int ply, int index, int count) {
+        int[] plyMoves = moves[ply];
+        long[] plyFlips = flips[ply];
+        if (!sorted[ply]) {
+            if (index >= placed[ply]) {
+                long rest = remaining[ply];
+                int i = squareIndex[ply];
+                while ((rest & (1L << SQUARE_ORDER[i])) == 0) {
+                    i++;
+                }
+                int square = SQUARE_ORDER[i];
+                squareIndex[ply] = i + 1;
+                remaining[ply] = rest & ~(1L << square);
+                plyMoves[index] = square;
+                plyFlips[index] = 0;
+            }
+            return plyMoves[index];
+        }
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = plyMoves[best];
+            plyMoves[best] = plyMoves[index];
+            plyMoves[index] = move;
+            long moveFlips = plyFlips[best];
+            plyFlips[best] = plyFlips[index];
+            plyFlips[index] = moveFlips;
+            int score = plyScores[best];
+            plyScores[best] = plyScores[index];
+            plyScores[index] = score;
+        }
+        return plyMoves[index];
+    }
+
+    /**
+     * This method returns the flips of a move that was returned by next. The flips are only calculated by generate
+     * when they are needed for the score, otherwise they are calculated here, so the moves that are cut off
+     * never cost a flip calculation.
+     * @param ply the distance from the root of the search.
+     * @param index the position of the move in the list.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the mask of the discs that the move flips.
+     */
+    long flips(int ply, int index, long player, long opponent) {
+        long moveFlips = flips[ply][index];
+        if (moveFlips == 0) {
+            moveFlips = MoveGenerator.flips(player, opponent, moves[ply][index]);
+            flips[ply][index] = moveFlips;
+        }
+        return moveFlips;
+    }
+
+    /**
+     * This method remembers a move that caused a cutoff: it becomes the first killer move of the ply, and its
+     * history grows with the square of the depth, so cutoffs high in the tree count more. The move of the
+     * transposition table is already searched first, so it is not remembered.
+     * @param ply the distance from the root of the search.
+     * @param move the index position of the move.
+     * @param depth the number of plies that were left to search.
+     * @param colour the square color of the player who played the move.
+     * @param hashMove the move of the transposition table or the previous iteration, or -1 if there is none.
+     */
+    void cutoff(int ply, int move, int depth, Square colour, int hashMove) {
+        if (move == hashMove) {
+            return;
+        }
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] sideHistory = history[colour == Square.BLACK ? 0 : 1];
+        sideHistory[move] += depth * depth;
+        if (sideHistory[move] > HISTORY_LIMIT) {
+            for (int square = 0; square < 64; square++) {
+                sideHistory[square] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package controller;
+
+import archive.GameArchive;
+import archive.GameCursor;
+import archive.GameRecord;
+import model.CanonicalForm;
+import model.MoveGenerator;
+import model.Position;
+import model.Square;
+import model.Symmetry;
+import model.Zobrist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents an opening book: for the positions of the first plies of many games, it knows how often
+ * every move was played and the average final disc difference of those games for the player who played it.
+ * The positions are stored in their canonical form (see Symmetry), so all the positions that only differ by a
+ * symmetry of the board share their moves, and the key doesn't depend on the colour of the player to move.
+ * The moves are stored in an open-addressing hash table on primitive arrays: the position key and the move are the
+ * key of a slot, and a lookup probes a few neighbouring slots without creating any objects.
+ * A book is filled by one thread; once it is filled, any number of threads can look up moves at the same time.
+ */
+public class OpeningBook {
+    /**
+     * The default number of plies of a game that are added to the book.
+     */
+    public static final int DEFAULT_MAX_PLIES = 20;
+
+    /**
+     * The default number of games in which a move must have been played before the book plays it.
+     */
+    public static final int DEFAULT_MIN_VISITS = 2;
+
+    /**
+     * The number of drawn games that are added to the games of every move when the moves are compared, so a move
+     * with a good average from only a few games isn't preferred over a move that did well in many games.
+     */
+    private static final int PRIOR_GAMES = 8;
+
+    private static final int FILE_MAGIC = 0x4f544842;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int ENTRY_BYTES = 21;
+    private static final byte EMPTY = -1;
+
+    private long[] keys;
+    private byte[] moves;
+    private int[] visits;
+    private long[] scores;
+    private int size;
+
+    /**
+     * This method constructs a new empty opening book.
+     */
+    public OpeningBook() {
+        allocate(1024);
+    }
+
+    /**
+     * This method creates the slot arrays of the hash table.
+     * @param capacity the number of slots, a power of 2.
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        moves = new byte[capacity];
+        Arrays.fill(moves, EMPTY);
+        visits = new int[capacity];
+        scores = new long[capacity];
+        size = 0;
+    }
+
+    /**
+     * This method returns the number of different moves in the book.
+     * @return the number of moves of all the positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method adds one game to the book, from the start position up to a number of plies. A move is scored with
+     * the final disc difference of the game for the player who played it.
+     * @param gameMoves the moves of the game, index positions or GameRecord.PASS.
+     * @param blackDifference the black discs minus the white discs at the end of the game.
+     * @param maxPlies the number of plies that are added.
+     * @throws IllegalArgumentException if a move is not valid or the game passes although there are valid moves.
+     */
+    public void addGame(byte[] gameMoves, int blackDifference, int maxPlies) {
+        Position position = Position.START;
+        for (int ply = 0; ply < Math.min(maxPlies, gameMoves.length); ply++) {
+            int move = gameMoves[ply];
+            if (move == GameRecord.PASS) {
+                if (position.getValidMoves() != 0) {
+                    throw new IllegalArgumentException("The game passes at ply " + ply
+                            + " although there are valid moves");
+                }
+                position = position.pass();
+            } else {
+                int difference = position.getSideToMove() == Square.BLACK ? blackDifference : -blackDifference;
+                add(position, move, difference);
+                position = position.play(move);
+            }
+        }
+    }
+
+    /**
+     * This method records that a move was played in a position.
+     * @param position the position.
+     * @param move the index position of the move, which must be valid in the position.
+     * @param difference the final disc difference of the game for the player who played the move.
+     */
+    public void add(Position position, int move, int difference) {
+        if (!position.isValidMove(move)) {
+            throw new IllegalArgumentException("The move " + move + " is not valid in the position " + position);
+        }
+        long player = position.getPlayerDiscs();
+        long opponent = position.getOpponentDiscs();
+        CanonicalForm form = Symmetry.canonical(player, opponent);
+        int symmetries = form.getSymmetries();
+        long key = canonicalKey(form);
+        int canonicalMove = canonicalMove(symmetries, move);
+
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int slot = findSlot(key, canonicalMove);
+        if (moves[slot] == EMPTY) {
+            keys[slot] = key;
+            moves[slot] = (byte) canonicalMove;
+            size++;
+        }
+        visits[slot]++;
+        scores[slot] += difference;
+    }
+
+    /**
+     * This method finds the move of the book for a position: the move with the best average disc difference among
+     * the moves that were played at least DEFAULT_MIN_VISITS times.
+     * @param position the position.
+     * @return the index position of the move, or -1 if the position is not in the book.
+     */
+    public int bestMove(Position position) {
+        return bestMove(position, DEFAULT_MIN_VISITS);
+    }
+
+    /**
+     * This method finds the move of the book for a position: the move with the best average disc difference among
+     * the moves that were played at least minVisits times. The averages are taken as if every move was also drawn
+     * in PRIOR_GAMES more games, and of two moves with the same average, the one that was played more often is
+     * chosen.
+     * @param position the position.
+     * @param minVisits the number of games in which a move must have been played, at least 1.
+     * @return the index position of the move, or -1 if no move of the position was played often enough.
+     */
+    public int bestMove(Position position, int minVisits) {
+        long player = position.getPlayerDiscs();
+        long opponent = position.getOpponentDiscs();
+        CanonicalForm form = Symmetry.canonical(player, opponent);
+        int symmetries = form.getSymmetries();
+        long key = canonicalKey(form);
+
+        int bestMove = -1;
+        long bestScore = 0;
+        int bestVisits = 0;
+        for (long valid = MoveGenerator.validMoves(player, opponent); valid != 0; valid &= valid - 1) {
+            int move = Long.numberOfTrailingZeros(valid);
+            int slot = findSlot(key, canonicalMove(symmetries, move));
+            int count = visits[slot];
+            if (moves[slot] == EMPTY || count < Math.max(1, minVisits)) {
+                continue;
+            }
+            // compares the averages with the drawn games of the prior without dividing
+            long comparison = bestMove < 0 ? 1
+                    : scores[slot] * (bestVisits + PRIOR_GAMES) - bestScore * (count + PRIOR_GAMES);
+            if (comparison > 0 || comparison == 0 && count > bestVisits) {
+                bestMove = move;
+                bestScore = scores[slot];
+                bestVisits = count;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * This method returns how often a move was played in a position.
+     * @param position the position.
+     * @param move the index position of the move.
+     * @return the number of games, 0 if the move is not in the book.
+     */
+    public int getVisits(Position position, int move) {
+        int slot = slotOf(position, move);
+        return slot < 0 ? 0 : visits[slot];
+    }
+
+    /**
+     * This method returns the average final disc difference of the games in which a move was played in a position,
+     * for the player who played it.
+     * @param position the position.
+     * @param move the index position of the move.
+     * @return the average disc difference, 0 if the move is not in the book.
+     */
+    public double getAverageScore(Position position, int move) {
+        int slot = slotOf(position, move);
+        return slot < 0 ? 0 : (double) scores[slot] / visits[slot];
+    }
+
+    /**
+     * This method finds the slot of a move of a position.
+     * @param position the position.
+     * @param move the index position of the move.
+     * @return the slot, or -1 if the move is not in the book.
+     */
+    private int slotOf(Position position, int move) {
+        if (!position.isValidMove(move)) {
+            return -1;
+        }
+        long player = position.getPlayerDiscs();
+        long opponent = position.getOpponentDiscs();
+        CanonicalForm form = Symmetry.canonical(player, opponent);
+        int symmetries = form.getSymmetries();
+        long key = canonicalKey(form);
+        int slot = findSlot(key, canonicalMove(symmetries, move));
+        return moves[slot] == EMPTY ? -1 : slot;
+    }
+
+    /**
+     * This method calculates the key of a canonical form in the book, which is its hash key with the player who
+     * is moving as black.
+     * @param form the canonical form of the position.
+     * @return the key of the position.
+     */
+    private static long canonicalKey(CanonicalForm form) {
+        return Zobrist.hash(form.getPlayerDiscs(), form.getOpponentDiscs(), Square.BLACK);
+    }
+
+    /**
+     * This method maps a move to the canonical position. The moves that are the same up to the symmetries of
+     * a symmetric position all get the smallest of their squares, so they share one slot.
+     * @param symmetries the symmetries that turn the position into its canonical form.
+     * @param move the index position of the move.
+     * @return the index position of the move in the canonical position.
+     */
+    private static int canonicalMove(int symmetries, int move) {
+        int canonicalMove = 64;
+        for (int rest = symmetries; rest != 0; rest &= rest - 1) {
+            canonicalMove = Math.min(canonicalMove, Symmetry.applyToSquare(move, Integer.numberOfTrailingZeros(rest)));
+        }
+        return canonicalMove;
+    }
+
+    /**
+     * This method finds the slot of a key and a move with linear probing.
+     * @param key the hash key of the canonical position.
+     * @param move the canonical move.
+     * @return the slot that holds the key and the move, or the empty slot where they would be stored.
+     */
+    private int findSlot(long key, int move) {
+        int mask = keys.length - 1;
+        long hash = (key ^ (move + 1) * 0x9e3779b97f4a7c15L) * 0xbf58476d1ce4e5b9L;
+        int slot = (int) (hash >>> 32) & mask;
+        while (moves[slot] != EMPTY && (keys[slot] != key || moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * This method doubles the number of slots of the hash table and adds the moves again.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldMoves = moves;
+        int[] oldVisits = visits;
+        long[] oldScores = scores;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldMoves[i] != EMPTY) {
+                put(oldKeys[i], oldMoves[i], oldVisits[i], oldScores[i]);
+            }
+        }
+    }
+
+    /**
+     * This method stores a move with its statistics in a new slot.
+     * @param key the hash key of the canonical position.
+     * @param move the canonical move.
+     * @param count the number of games.
+     * @param score the sum of the final disc differences.
+     */
+    private void put(long key, int move, int count, long score) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int slot = findSlot(key, move);
+        if (moves[slot] == EMPTY) {
+            size++;
+        }
+        keys[slot] = key;
+        moves[slot] = (byte) move;
+        visits[slot] = count;
+        scores[slot] = score;
+    }
+
+    /**
+     * This method builds a book from the games of a game archive.
+     * @param archive the game archive, for example of a tournament.
+     * @param maxPlies the number of plies of every game that are added.
+     * @return the opening book.
+     */
+    public static OpeningBook fromArchive(GameArchive archive, int maxPlies) {
+        OpeningBook book = new OpeningBook();
+        GameCursor cursor = archive.cursor();
+        while (cursor.next()) {
+            byte[] gameMoves = new byte[Math.min(maxPlies, cursor.getMoveCount())];
+            for (int ply = 0; ply < gameMoves.length; ply++) {
+                gameMoves[ply] = (byte) cursor.getMove(ply);
+            }
+            book.addGame(gameMoves, cursor.getBlackDiscs() - cursor.getWhiteDiscs(), maxPlies);
+        }
+        return book;
+    }
+
+    /**
+     * This method builds a book from a move-list file. Every line is one game in the usual notation, a column
+     * letter and a row number for every move, for example "f5d6c3d3c4", optionally followed by a space and the
+     * final disc difference of black, for example "f5d6c3d3c4 +12". Without a difference, a finished game is scored
+     * with its final position and an unfinished game, such as a line of an opening, counts as a draw. Spaces
+     * between the moves, "pa" for a pass, empty lines and lines that start with # are allowed.
+     * @param path the path of the move-list file.
+     * @param maxPlies the number of plies of every game that are added.
+     * @return the opening book.
+     * @throws IOException if the file cannot be read.
+     */
+    public static OpeningBook fromMoveList(Path path, int maxPlies) throws IOException {
+        OpeningBook book = new OpeningBook();
+        List<String> lines = Files.readAllLines(path);
+        for (int number = 0; number < lines.size(); number++) {
+            String line = lines.get(number).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                addMoveListLine(book, line, maxPlies);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(path + " line " + (number + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return book;
+    }
+
+    /**
+     * This method adds one line of a move-list file to a book.
+     * @param book the book.
+     * @param line the moves of the game and optionally the final disc difference of black.
+     * @param maxPlies the number of plies that are added.
+     */
+    private static void addMoveListLine(OpeningBook book, String line, int maxPlies) {
+        String movesText = line;
+        Integer difference = null;
+        int space = line.lastIndexOf(' ');
+        if (space > 0 && line.substring(space + 1).matches("[+-]?\\d+")) {
+            movesText = line.substring(0, space);
+            difference = Integer.parseInt(line.substring(space + 1).replace("+", ""));
+        }
+        movesText = movesText.replace(" ", "").toLowerCase();
+        if (movesText.length() % 2 != 0) {
+            throw new IllegalArgumentException("'" + line + "' is not a list of moves");
+        }
+
+        byte[] gameMoves = new byte[movesText.length() / 2];
+        Position position = Position.START;
+        for (int ply = 0; ply < gameMoves.length; ply++) {
+            String move = movesText.substring(2 * ply, 2 * ply + 2);
+            if (move.equals("pa")) {
+                if (position.getValidMoves() != 0) {
+                    throw new IllegalArgumentException("'pa' at ply " + ply + " although there are valid moves");
+                }
+                gameMoves[ply] = GameRecord.PASS;
+                position = position.pass();
+                continue;
+            }
+            int column = move.charAt(0) - 'a';
+            int row = move.charAt(1) - '1';
+            if (column < 0 || column > 7 || row < 0 || row > 7) {
+                throw new IllegalArgumentException("'" + move + "' is not a square");
+            }
+            gameMoves[ply] = (byte) (row * 8 + column);
+            position = position.play(row * 8 + column);
+        }
+        if (difference == null) {
+            difference = position.isGameOver() ? Long.bitCount(position.getDiscs(Square.BLACK))
+                    - Long.bitCount(position.getDiscs(Square.WHITE)) : 0;
+        }
+        book.addGame(gameMoves, difference, maxPlies);
+    }
+
+    /**
+     * This method loads a book from a book file that was written by save. The file is memory-mapped and read
+     * in one pass.
+     * @param path the path of the book file.
+     * @return the opening book.
+     * @throws IOException if the file cannot be read or is not a book file.
+     */
+    public static OpeningBook load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < FILE_HEADER_BYTES || buffer.getInt() != FILE_MAGIC) {
+                throw new IOException(path + " is not an opening book");
+            }
+            int entries = buffer.getInt();
+            if (entries < 0 || channel.size() != FILE_HEADER_BYTES + (long) entries * ENTRY_BYTES) {
+                throw new IOException(path + " is not a complete opening book");
+            }
+            OpeningBook book = new OpeningBook();
+            book.allocate(Integer.highestOneBit(Math.max(512, entries)) * 4);
+            for (int i = 0; i < entries; i++) {
+                long key = buffer.getLong();
+                int move = buffer.get();
+                int count = buffer.getInt();
+                long score = buffer.getLong();
+                book.put(key, move, count, score);
+            }
+            return book;
+        }
+    }
+
+    /**
+     * This method writes the book to a book file that can be loaded with load.
+     * @param path the path of the book file, it is replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_HEADER_BYTES + size * ENTRY_BYTES);
+        buffer.putInt(FILE_MAGIC).putInt(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (moves[slot] != EMPTY) {
+                buffer.putLong(keys[slot]).put(moves[slot]).putInt(visits[slot]).putLong(scores[slot]);
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
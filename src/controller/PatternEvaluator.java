@@ -0,0 +1,431 @@
+package controller;
+
+import model.MoveGenerator;
+import model.Symmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class scores a position with board patterns. A pattern is a fixed group of squares, like an edge or the 3x3
+ * squares of a corner. Every square of a pattern is empty, has a disc of the player or has a disc of the opponent,
+ * so the contents of a pattern are read as a base-3 number that is the index of its weight in a table. The score
+ * is the sum of the weights of all the patterns on the board plus a weight for the mobility.
+ * The patterns are edges with the two X-squares, 3x3 corners, 2x5 corners, the second, third and fourth lines and
+ * the diagonals of 4 to 8 squares. A pattern is read on every symmetry of the board where it appears, and all these
+ * copies share the same weights, so the table of a pattern is learned from all the corners or edges at once.
+ * The game is split into stages by the number of discs, and every stage has its own weights, because a pattern
+ * that is good in the opening can be bad in the endgame.
+ * The weights of one stage are stored one pattern after the other, and the mobility weight is the last one.
+ * Scoring a position reads the patterns with shifts and table lookups and costs 46 weight loads without
+ * creating any objects.
+ * Trained weights are stored in a weight file: a header with a magic number, the number of stages and the stage
+ * size, followed by all the weights as 16-bit numbers.
+ */
+public class PatternEvaluator implements Evaluator {
+    /**
+     * The number of game stages that have their own weights.
+     */
+    public static final int STAGES = 15;
+
+    /**
+     * The number of pattern copies that are read from a position.
+     */
+    public static final int PATTERN_COUNT = 46;
+
+    private static final int EDGE = 0;
+    private static final int CORNER_3X3 = EDGE + 59049;
+    private static final int CORNER_2X5 = CORNER_3X3 + 19683;
+    private static final int LINE_2 = CORNER_2X5 + 59049;
+    private static final int LINE_3 = LINE_2 + 6561;
+    private static final int LINE_4 = LINE_3 + 6561;
+    private static final int DIAGONAL_8 = LINE_4 + 6561;
+    private static final int DIAGONAL_7 = DIAGONAL_8 + 6561;
+    private static final int DIAGONAL_6 = DIAGONAL_7 + 2187;
+    private static final int DIAGONAL_5 = DIAGONAL_6 + 729;
+    private static final int DIAGONAL_4 = DIAGONAL_5 + 243;
+
+    /**
+     * The index of the mobility weight in the weights of a stage.
+     */
+    public static final int MOBILITY = DIAGONAL_4 + 81;
+
+    /**
+     * The number of weights of one stage.
+     */
+    public static final int STAGE_SIZE = MOBILITY + 1;
+
+    private static final int FILE_MAGIC = 0x4f575431;
+    private static final int FILE_HEADER_BYTES = 12;
+
+    /**
+     * The squares of every pattern on the board without a symmetry, from the lowest to the highest base-3 digit.
+     * They are only used to make the default weights; the evaluation reads the patterns with shifts.
+     */
+    private static final int[][] PATTERN_SQUARES = {
+            {14, 9, 0, 1, 2, 3, 4, 5, 6, 7},
+            {0, 1, 2, 8, 9, 10, 16, 17, 18},
+            {0, 1, 2, 3, 4, 8, 9, 10, 11, 12},
+            {8, 9, 10, 11, 12, 13, 14, 15},
+            {16, 17, 18, 19, 20, 21, 22, 23},
+            {24, 25, 26, 27, 28, 29, 30, 31},
+            {0, 9, 18, 27, 36, 45, 54, 63},
+            {1, 10, 19, 28, 37, 46, 55},
+            {2, 11, 20, 29, 38, 47},
+            {3, 12, 21, 30, 39},
+            {4, 13, 22, 31}};
+    private static final int[] PATTERN_OFFSETS = {EDGE, CORNER_3X3, CORNER_2X5, LINE_2, LINE_3, LINE_4,
+            DIAGONAL_8, DIAGONAL_7, DIAGONAL_6, DIAGONAL_5, DIAGONAL_4};
+    private static final int[][] PATTERN_SYMMETRIES = {
+            {0, 2, 4, 6}, {0, 1, 2, 3}, {0, 1, 2, 3, 4, 5, 6, 7}, {0, 2, 4, 6}, {0, 2, 4, 6}, {0, 2, 4, 6},
+            {0, 1}, {0, 1, 2, 3}, {0, 1, 2, 3}, {0, 1, 2, 3}, {0, 1, 2, 3}};
+
+    /**
+     * The masks of the diagonals that start on the first row, DIAGONALS[k] starts in column k.
+     */
+    private static final long[] DIAGONALS = {
+            0x8040201008040201L, 0x0080402010080402L, 0x0000804020100804L, 0x0000008040201008L,
+            0x0000000080402010L};
+
+    /**
+     * The masks of the anti-diagonals that start on the first row, ANTI_DIAGONALS[k] starts in column 7 - k.
+     */
+    private static final long[] ANTI_DIAGONALS = new long[5];
+
+    /**
+     * TERNARY[bits] is the base-3 number with the same digits as the binary number bits.
+     */
+    private static final int[] TERNARY = new int[256];
+
+    /**
+     * MIRRORED_TERNARY[bits] is the base-3 number with the digits of the binary number bits in the reverse order.
+     */
+    private static final int[] MIRRORED_TERNARY = new int[256];
+
+    static {
+        for (int bits = 0; bits < 256; bits++) {
+            int value = 0;
+            int mirroredValue = 0;
+            for (int bit = 7; bit >= 0; bit--) {
+                value = value * 3 + ((bits >>> bit) & 1);
+                mirroredValue = mirroredValue * 3 + ((bits >>> (7 - bit)) & 1);
+            }
+            TERNARY[bits] = value;
+            MIRRORED_TERNARY[bits] = mirroredValue;
+        }
+        for (int column = 0; column < ANTI_DIAGONALS.length; column++) {
+            for (int row = 0; row <= 7 - column; row++) {
+                ANTI_DIAGONALS[column] |= 1L << (row * 8 + 7 - column - row);
+            }
+        }
+    }
+
+    private final short[] weights;
+
+    /**
+     * This method constructs a pattern evaluator with the default weights, which give every pattern the square
+     * weights of the SquareEvaluator, shared out over all the patterns that contain the square. It plays like the
+     * SquareEvaluator until trained weights are loaded.
+     */
+    public PatternEvaluator() {
+        this(DefaultWeights.WEIGHTS);
+    }
+
+    /**
+     * This method constructs a pattern evaluator with the given weights. The array is used as it is and must not be
+     * changed while the evaluator is in use.
+     * @param weights the weights of all the stages, STAGES * STAGE_SIZE values, stage after stage.
+     */
+    public PatternEvaluator(short[] weights) {
+        if (weights.length != STAGES * STAGE_SIZE) {
+            throw new IllegalArgumentException("The pattern weights must have " + STAGES * STAGE_SIZE + " values");
+        }
+        this.weights = weights;
+    }
+
+    /**
+     * This method loads the weights of a weight file. The file is memory-mapped and copied into the weight table
+     * in one bulk read, so loading the weights at startup costs no read calls for every block of the file.
+     * @param path the path of the weight file.
+     * @return the pattern evaluator with the weights of the file.
+     * @throws IOException if the file cannot be read or is not a weight file of this evaluator.
+     */
+    public static PatternEvaluator load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long expectedSize = FILE_HEADER_BYTES + 2L * STAGES * STAGE_SIZE;
+            if (channel.size() != expectedSize) {
+                throw new IOException(path + " has " + channel.size() + " bytes, a weight file has " + expectedSize);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize);
+            if (buffer.getInt() != FILE_MAGIC || buffer.getInt() != STAGES || buffer.getInt() != STAGE_SIZE) {
+                throw new IOException(path + " is not a weight file of this pattern evaluator");
+            }
+            short[] weights = new short[STAGES * STAGE_SIZE];
+            buffer.asShortBuffer().get(weights);
+            return new PatternEvaluator(weights);
+        }
+    }
+
+    /**
+     * This method writes weights to a weight file that can be loaded with load.
+     * @param path the path of the weight file, it is replaced if it exists.
+     * @param weights the weights of all the stages, STAGES * STAGE_SIZE values, stage after stage.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(Path path, short[] weights) throws IOException {
+        if (weights.length != STAGES * STAGE_SIZE) {
+            throw new IllegalArgumentException("The pattern weights must have " + STAGES * STAGE_SIZE + " values");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_HEADER_BYTES + 2 * weights.length);
+        buffer.putInt(FILE_MAGIC).putInt(STAGES).putInt(STAGE_SIZE);
+        buffer.asShortBuffer().put(weights);
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * This method scores a position with the weights of its stage.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param moves the valid moves of the player.
+     * @return the score of the position for the player.
+     */
+    @Override
+    public int evaluate(long player, long opponent, long moves) {
+        int base = stage(player, opponent) * STAGE_SIZE;
+        int score = scan(weights, player, opponent, base, null)
+                + weights[base + MOBILITY] * mobility(player, opponent, moves);
+        return Math.max(-SearchEngine.WIN_SCORE + 1, Math.min(SearchEngine.WIN_SCORE - 1, score));
+    }
+
+    /**
+     * This method calculates the stage of a position from the number of discs on the board.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the stage, from 0 to STAGES - 1.
+     */
+    public static int stage(long player, long opponent) {
+        return Math.min(STAGES - 1, (Long.bitCount(player | opponent) - 4) / 4);
+    }
+
+    /**
+     * This method calculates the mobility of a position, the feature that is multiplied by the mobility weight.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param moves the valid moves of the player.
+     * @return the number of moves of the player minus the number of moves of the opponent.
+     */
+    public static int mobility(long player, long opponent, long moves) {
+        return Long.bitCount(moves) - Long.bitCount(MoveGenerator.validMoves(opponent, player));
+    }
+
+    /**
+     * This method finds the weight index of every pattern copy in a position, which is what the trainer needs
+     * to fit the weights.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param indices the array that gets the PATTERN_COUNT indices within the weights of a stage.
+     */
+    public static void patternIndices(long player, long opponent, int[] indices) {
+        scan(null, player, opponent, 0, indices);
+    }
+
+    /**
+     * This method reads all the patterns of a position. It either adds up their weights or stores their indices.
+     * Only one symmetry of the board is calculated, the transpose. The mirrored rows come from reversing the bytes,
+     * and the mirrored columns are read from the high bits of the rows with the MIRRORED_TERNARY table, so the
+     * eight symmetries cost one transpose and two byte reversals.
+     * @param weights the weights, or null if the indices are stored.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param base the index of the first weight of the stage.
+     * @param indices the array that gets the indices, or null if the weights are added up.
+     * @return the sum of the weights, or 0 if the indices are stored.
+     */
+    private static int scan(short[] weights, long player, long opponent, int base, int[] indices) {
+        long transposedPlayer = Symmetry.transpose(player);
+        long transposedOpponent = Symmetry.transpose(opponent);
+        int score = 0;
+        int count = 0;
+        for (int frame = 0; frame < 4; frame++) {
+            long p = frame < 2 ? player : transposedPlayer;
+            long o = frame < 2 ? opponent : transposedOpponent;
+            if ((frame & 1) != 0) {
+                p = Symmetry.mirrorRows(p);
+                o = Symmetry.mirrorRows(o);
+            }
+            score += feature(weights, base, indices, count++,
+                    CORNER_2X5 + ternary(p, o, 0, 31) + 243 * ternary(p, o, 8, 31));
+            score += feature(weights, base, indices, count++,
+                    CORNER_2X5 + mirroredTernary(p, o, 0, 0xf8) + 243 * mirroredTernary(p, o, 8, 0xf8));
+            score += feature(weights, base, indices, count++,
+                    EDGE + 9 * ternary(p, o, 0, 255) + 3 * square(p, o, 9) + square(p, o, 14));
+            score += feature(weights, base, indices, count++, LINE_2 + ternary(p, o, 8, 255));
+            score += feature(weights, base, indices, count++, LINE_3 + ternary(p, o, 16, 255));
+            score += feature(weights, base, indices, count++, LINE_4 + ternary(p, o, 24, 255));
+            if (frame < 2) {
+                score += feature(weights, base, indices, count++, CORNER_3X3 + ternary(p, o, 0, 7)
+                        + 27 * ternary(p, o, 8, 7) + 729 * ternary(p, o, 16, 7));
+                score += feature(weights, base, indices, count++, CORNER_3X3 + mirroredTernary(p, o, 0, 0xe0)
+                        + 27 * mirroredTernary(p, o, 8, 0xe0) + 729 * mirroredTernary(p, o, 16, 0xe0));
+                score += feature(weights, base, indices, count++, DIAGONAL_7 + diagonal(p, o, 1));
+                score += feature(weights, base, indices, count++, DIAGONAL_6 + diagonal(p, o, 2));
+                score += feature(weights, base, indices, count++, DIAGONAL_5 + diagonal(p, o, 3));
+                score += feature(weights, base, indices, count++, DIAGONAL_4 + diagonal(p, o, 4));
+                score += feature(weights, base, indices, count++, DIAGONAL_7 + antiDiagonal(p, o, 1));
+                score += feature(weights, base, indices, count++, DIAGONAL_6 + antiDiagonal(p, o, 2));
+                score += feature(weights, base, indices, count++, DIAGONAL_5 + antiDiagonal(p, o, 3));
+                score += feature(weights, base, indices, count++, DIAGONAL_4 + antiDiagonal(p, o, 4));
+                if (frame == 0) {
+                    score += feature(weights, base, indices, count++, DIAGONAL_8 + diagonal(p, o, 0));
+                    score += feature(weights, base, indices, count++, DIAGONAL_8 + antiDiagonal(p, o, 0));
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * This method either returns the weight of a pattern or stores its index.
+     * @param weights the weights, or null if the index is stored.
+     * @param base the index of the first weight of the stage.
+     * @param indices the array that gets the index, or null if the weight is returned.
+     * @param count the position of the pattern in the indices array.
+     * @param index the index of the pattern within the weights of a stage.
+     * @return the weight, or 0 if the index is stored.
+     */
+    private static int feature(short[] weights, int base, int[] indices, int count, int index) {
+        if (indices != null) {
+            indices[count] = index;
+            return 0;
+        }
+        return weights[base + index];
+    }
+
+    /**
+     * This method reads a part of a row as a base-3 number: 0 for empty, 1 for the player and 2 for the opponent.
+     * @param player the mask with the discs of the player.
+     * @param opponent the mask with the discs of the opponent.
+     * @param shift the index of the first square of the part.
+     * @param mask the bits of the part, 255 for the whole row.
+     * @return the base-3 number.
+     */
+    private static int ternary(long player, long opponent, int shift, int mask) {
+        return TERNARY[(int) (player >>> shift) & mask] + 2 * TERNARY[(int) (opponent >>> shift) & mask];
+    }
+
+    /**
+     * This method reads a part of a row of the board with mirrored columns as a base-3 number. The part starts
+     * at the last column and is read from right to left.
+     * @param player the mask with the discs of the player.
+     * @param opponent the mask with the discs of the opponent.
+     * @param shift the index of the first square of the row.
+     * @param highMask the high bits of the row that make up the part, for example 0xf8 for the last five columns.
+     * @return the base-3 number.
+     */
+    private static int mirroredTernary(long player, long opponent, int shift, int highMask) {
+        return MIRRORED_TERNARY[(int) (player >>> shift) & highMask]
+                + 2 * MIRRORED_TERNARY[(int) (opponent >>> shift) & highMask];
+    }
+
+    /**
+     * This method reads a diagonal as a base-3 number. Multiplying the diagonal by 0x0101010101010101 moves all its
+     * squares into the last row without carries, because they are all in different columns.
+     * @param player the mask with the discs of the player.
+     * @param opponent the mask with the discs of the opponent.
+     * @param column the column where the diagonal starts on the first row.
+     * @return the base-3 number.
+     */
+    private static int diagonal(long player, long opponent, int column) {
+        long diagonal = DIAGONALS[column];
+        return TERNARY[(int) (((player & diagonal) * 0x0101010101010101L) >>> (56 + column))]
+                + 2 * TERNARY[(int) (((opponent & diagonal) * 0x0101010101010101L) >>> (56 + column))];
+    }
+
+    /**
+     * This method reads a diagonal of the board with mirrored columns as a base-3 number. On the real board it is
+     * the anti-diagonal that starts on the first row in column 7 - column. It is gathered into the last row like a
+     * diagonal and then read from right to left.
+     * @param player the mask with the discs of the player.
+     * @param opponent the mask with the discs of the opponent.
+     * @param column the column where the diagonal starts on the first row of the mirrored board.
+     * @return the base-3 number.
+     */
+    private static int antiDiagonal(long player, long opponent, int column) {
+        long diagonal = ANTI_DIAGONALS[column];
+        return MIRRORED_TERNARY[(int) (((player & diagonal) * 0x0101010101010101L) >>> 56) << column & 0xff]
+                + 2 * MIRRORED_TERNARY[(int) (((opponent & diagonal) * 0x0101010101010101L) >>> 56) << column & 0xff];
+    }
+
+    /**
+     * This method reads one square as a base-3 digit.
+     * @param player the mask with the discs of the player.
+     * @param opponent the mask with the discs of the opponent.
+     * @param index the index position of the square.
+     * @return 0 for empty, 1 for the player and 2 for the opponent.
+     */
+    private static int square(long player, long opponent, int index) {
+        return (int) (player >>> index) & 1 | ((int) (opponent >>> index) & 1) << 1;
+    }
+
+    /**
+     * This class holds the default weights, which are only made when they are used for the first time.
+     */
+    private static class DefaultWeights {
+        static final short[] WEIGHTS = squareWeights();
+
+        /**
+         * This method makes weights from the square weights of the SquareEvaluator. The weight of every square
+         * is divided by the number of pattern copies that contain it, so the sum of all the patterns is the
+         * square weight score again. All the stages get the same weights.
+         * @return the weights of all the stages.
+         */
+        private static short[] squareWeights() {
+            int[] copies = new int[64];
+            for (int pattern = 0; pattern < PATTERN_SQUARES.length; pattern++) {
+                for (int symmetry : PATTERN_SYMMETRIES[pattern]) {
+                    for (int square : PATTERN_SQUARES[pattern]) {
+                        copies[Symmetry.undoOnSquare(square, symmetry)]++;
+                    }
+                }
+            }
+
+            short[] stageWeights = new short[STAGE_SIZE];
+            for (int pattern = 0; pattern < PATTERN_SQUARES.length; pattern++) {
+                int[] squares = PATTERN_SQUARES[pattern];
+                int configurations = (int) Math.pow(3, squares.length);
+                for (int index = 0; index < configurations; index++) {
+                    double weight = 0;
+                    int digits = index;
+                    for (int square : squares) {
+                        int digit = digits % 3;
+                        digits /= 3;
+                        double value = (double) SquareEvaluator.SQUARE_WEIGHTS[square] / copies[square];
+                        if (digit == 1) {
+                            weight += value;
+                        } else if (digit == 2) {
+                            weight -= value;
+                        }
+                    }
+                    stageWeights[PATTERN_OFFSETS[pattern] + index] = (short) Math.round(weight);
+                }
+            }
+            stageWeights[MOBILITY] = SquareEvaluator.MOBILITY_WEIGHT;
+
+            short[] weights = new short[STAGES * STAGE_SIZE];
+            for (int stage = 0; stage < STAGES; stage++) {
+                System.arraycopy(stageWeights, 0, weights, stage * STAGE_SIZE, STAGE_SIZE);
+            }
+            return weights;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package controller;
+
+import model.Player;
+import model.Square;
+
+/**
+ * This interface creates the players of a tournament. Every worker thread of the tournament creates its own
+ * players, so players that keep a state, like the search engine of a computer player, are never shared
+ * between threads. When a worker has played its games, the tournament shuts down the search threads of its
+ * players, so their engines cannot be used outside the tournament afterwards.
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+    /**
+     * This method creates a new player.
+     * @param name the name of the player.
+     * @param color the square color of the player.
+     * @return the new player.
+     */
+    Player create(String name, Square color);
+}
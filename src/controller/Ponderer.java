@@ -0,0 +1,142 @@
+package controller;
+
+import model.Position;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class lets a computer player think on the time of its opponent. After the player has moved, the reply that
+ * it expects from the opponent is the second move of the principal variation of its search. A background thread
+ * searches the position after that reply with the engine of the player, while the opponent thinks.
+ * When the opponent plays the expected reply (a ponder hit), the result of the background search is the move of the
+ * player. The time of the move counts from the start of the background search, so when the opponent thought at
+ * least that long, or the search has finished, the player moves at once. When the opponent plays
+ * another move, the background search is stopped and the player searches as usual. The background search shares
+ * the transposition table of the engine, so even then its results are not lost.
+ * Every background search gets its own cancellation token, so it is stopped even when it is cancelled before it
+ * has started to search.
+ */
+class Ponderer {
+    private final SearchEngine engine;
+    private Position position;
+    private long startTime;
+    private FutureTask<SearchResult> search;
+    private AtomicBoolean cancelled;
+    private long hits;
+    private long misses;
+
+    /**
+     * This method constructs a new ponderer.
+     * @param engine the search engine of the player, which searches in the background.
+     */
+    Ponderer(SearchEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * This method starts the background search of the position after the expected reply of the opponent.
+     * A background search that is still running is stopped first.
+     * @param position the position after the expected reply, with the player to move.
+     */
+    void start(Position position) {
+        stop();
+        this.position = position;
+        startTime = System.nanoTime();
+        AtomicBoolean token = new AtomicBoolean();
+        cancelled = token;
+        search = new FutureTask<>(() -> engine.ponder(position.getPlayerDiscs(), position.getOpponentDiscs(),
+                position.getSideToMove(), token));
+        Thread thread = new Thread(search, "ponder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * This method returns the result of the background search when the opponent played the expected reply.
+     * If the search has not finished, it may go on until it has had the time of the move since it started, and
+     * then it is stopped. When the opponent played another move, the search is stopped and null is returned.
+     * @param actual the position after the move of the opponent, with the player to move.
+     * @param moveNanos the time of the move in nanoseconds, or Long.MAX_VALUE to wait until the search has
+     * finished.
+     * @return the result of the background search, or null if there was no background search of this position.
+     */
+    SearchResult take(Position actual, long moveNanos) {
+        if (search == null) {
+            return null;
+        }
+        FutureTask<SearchResult> pondering = search;
+        AtomicBoolean token = cancelled;
+        search = null;
+        cancelled = null;
+        if (!actual.equals(position)) {
+            misses++;
+            stop(pondering, token);
+            return null;
+        }
+        hits++;
+        try {
+            if (moveNanos == Long.MAX_VALUE) {
+                return pondering.get();
+            }
+            long left = startTime + moveNanos - System.nanoTime();
+            return pondering.get(Math.max(0, left), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return stop(pondering, token);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop(pondering, token);
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The background search failed", e.getCause());
+        }
+    }
+
+    /**
+     * This method stops the background search, if there is one, and forgets it.
+     */
+    void stop() {
+        if (search != null) {
+            stop(search, cancelled);
+            search = null;
+            cancelled = null;
+        }
+    }
+
+    /**
+     * This method stops a background search by cancelling its token and waits until it has returned.
+     * @param pondering the background search.
+     * @param token the cancellation token of the background search.
+     * @return the result of the last finished iteration of the search.
+     */
+    private SearchResult stop(FutureTask<SearchResult> pondering, AtomicBoolean token) {
+        token.set(true);
+        try {
+            return pondering.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The background search failed", e.getCause());
+        }
+    }
+
+    /**
+     * This method returns the number of times that the opponent played the expected reply.
+     * @return the number of ponder hits.
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * This method returns the number of times that the opponent played another move than the expected reply.
+     * @return the number of ponder misses.
+     */
+    long getMisses() {
+        return misses;
+    }
+}
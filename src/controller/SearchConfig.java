@@ -0,0 +1,264 @@
+package controller;
+
+/**
+ * This class stores the settings of the search engine, namely how deep it searches, how much time it may use,
+ * how much memory its transposition table has, how many threads it uses, from how many empty squares the endgame
+ * is solved exactly and which evaluator scores the positions. The search stops at whichever limit is reached first.
+ * The config also switches the parts of the search that save work on their own, so each of them can be measured
+ * in a tournament against the same engine without it: principal variation search, aspiration windows and
+ * Multi-ProbCut. Finally it tells if a computer player with the engine thinks on the time of its opponent.
+ */
+public class SearchConfig {
+    private int maxDepth = 8;
+    private long timeLimitMillis = 0;
+    private int transpositionTableMegabytes = 64;
+    private int threads = 1;
+    private int endgameEmpties = 18;
+    private Evaluator evaluator = new SquareEvaluator();
+    private boolean principalVariationSearch = true;
+    private int aspirationWindow = 50;
+    private boolean probCut = false;
+    private int probCutMargin = 60;
+    private boolean pondering = false;
+
+    /**
+     * This method returns the deepest iteration that the search will do.
+     * @return the maximum depth in plies.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * This method sets the deepest iteration that the search will do.
+     * @param maxDepth the maximum depth in plies, it must be at least 1.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("The depth must be at least 1");
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * This method returns the time that one search may take.
+     * @return the time limit in milliseconds, 0 means that there is no time limit.
+     */
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * This method sets the time that one search may take. When the time is over, the move of the
+     * last finished iteration is returned.
+     * @param timeLimitMillis the time limit in milliseconds, 0 means that there is no time limit.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setTimeLimitMillis(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("The time limit cannot be negative");
+        }
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    /**
+     * This method returns the memory of the transposition table that the engine creates.
+     * @return the memory in megabytes.
+     */
+    public int getTranspositionTableMegabytes() {
+        return transpositionTableMegabytes;
+    }
+
+    /**
+     * This method sets the memory of the transposition table that the engine creates, for example 64 for 64 MB
+     * or 4096 for 4 GB. The number of entries is rounded down to a power of two.
+     * @param transpositionTableMegabytes the memory in megabytes, it must be at least 1.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setTranspositionTableMegabytes(int transpositionTableMegabytes) {
+        if (transpositionTableMegabytes < 1) {
+            throw new IllegalArgumentException("The transposition table needs at least 1 megabyte");
+        }
+        this.transpositionTableMegabytes = transpositionTableMegabytes;
+        return this;
+    }
+
+    /**
+     * This method returns the number of threads that search at the same time.
+     * @return the number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * This method sets the number of threads that search at the same time. The best speed is usually
+     * reached with one thread for each physical core.
+     * @param threads the number of threads, it must be at least 1.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The search needs at least 1 thread");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * This method returns the number of empty squares from which the engine solves the game exactly.
+     * @return the number of empty squares, 0 means that the endgame solver is not used.
+     */
+    public int getEndgameEmpties() {
+        return endgameEmpties;
+    }
+
+    /**
+     * This method sets the number of empty squares from which the engine solves the game exactly with the
+     * endgame solver instead of searching to a depth. With a time limit the solver stops when the time is over
+     * and the normal search is used instead, but without one it runs until the game is solved. On one core
+     * EndgameBench solves 16 empty squares in about 0.06 seconds on average and 0.3 seconds at most, 18 in about
+     * 0.4 seconds and up to 1.2, and 20 in about 1.5 seconds and up to 4, because every two more squares take
+     * three or four times as long. So the default is 18, and 20 or more is only worth it with a time limit.
+     * @param endgameEmpties the number of empty squares, 0 turns the endgame solver off.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setEndgameEmpties(int endgameEmpties) {
+        if (endgameEmpties < 0 || endgameEmpties > 60) {
+            throw new IllegalArgumentException("The endgame empties must be between 0 and 60");
+        }
+        this.endgameEmpties = endgameEmpties;
+        return this;
+    }
+
+    /**
+     * This method returns the evaluator that scores the positions at the end of the search.
+     * @return the evaluator.
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * This method sets the evaluator that scores the positions at the end of the search. The search threads
+     * of every engine that uses this config share the evaluator.
+     * @param evaluator the evaluator, for example a SquareEvaluator or a PatternEvaluator.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setEvaluator(Evaluator evaluator) {
+        if (evaluator == null) {
+            throw new IllegalArgumentException("The evaluator cannot be null");
+        }
+        this.evaluator = evaluator;
+        return this;
+    }
+
+    /**
+     * This method tells if the engine uses principal variation search.
+     * @return true if principal variation search is used, false for plain alpha-beta.
+     */
+    public boolean isPrincipalVariationSearch() {
+        return principalVariationSearch;
+    }
+
+    /**
+     * This method switches principal variation search on or off. With principal variation search, only the first
+     * move of a position is searched with the full window. The other moves are searched with a null window, which
+     * only proves that they are not better, and they are searched again with the full window when they are.
+     * @param principalVariationSearch true to use principal variation search, false for plain alpha-beta.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setPrincipalVariationSearch(boolean principalVariationSearch) {
+        this.principalVariationSearch = principalVariationSearch;
+        return this;
+    }
+
+    /**
+     * This method returns the half width of the aspiration window at the root.
+     * @return the half width of the window, 0 means that aspiration windows are not used.
+     */
+    public int getAspirationWindow() {
+        return aspirationWindow;
+    }
+
+    /**
+     * This method sets the half width of the aspiration window at the root. Every iteration after the first one
+     * is searched with a window around the score of the previous iteration. When the score falls outside the
+     * window, the window is made twice as wide on that side and the iteration is searched again.
+     * @param aspirationWindow the half width of the window in score points, 0 turns aspiration windows off.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setAspirationWindow(int aspirationWindow) {
+        if (aspirationWindow < 0) {
+            throw new IllegalArgumentException("The aspiration window cannot be negative");
+        }
+        this.aspirationWindow = aspirationWindow;
+        return this;
+    }
+
+    /**
+     * This method tells if the engine prunes positions with Multi-ProbCut.
+     * @return true if Multi-ProbCut is used, false otherwise.
+     */
+    public boolean isProbCut() {
+        return probCut;
+    }
+
+    /**
+     * This method switches Multi-ProbCut on or off. Multi-ProbCut predicts the result of a deep search with a
+     * shallow search of the same position, and it cuts the position off when the shallow score is far enough above
+     * beta or below alpha. This makes the search much faster, but it can miss moves, so it is off by default.
+     * @param probCut true to use Multi-ProbCut, false otherwise.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setProbCut(boolean probCut) {
+        this.probCut = probCut;
+        return this;
+    }
+
+    /**
+     * This method returns how far the shallow score must be beyond the window before Multi-ProbCut cuts off.
+     * @return the margin in score points.
+     */
+    public int getProbCutMargin() {
+        return probCutMargin;
+    }
+
+    /**
+     * This method sets how far the shallow score must be beyond the window before Multi-ProbCut cuts off. A smaller
+     * margin cuts more positions off and makes more mistakes. The check at a quarter of the depth uses one and a
+     * half times the margin, because a shallower search predicts the deep score less well.
+     * @param probCutMargin the margin in score points, it must be at least 1.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setProbCutMargin(int probCutMargin) {
+        if (probCutMargin < 1) {
+            throw new IllegalArgumentException("The ProbCut margin must be at least 1");
+        }
+        this.probCutMargin = probCutMargin;
+        return this;
+    }
+
+    /**
+     * This method tells if a computer player that uses the engine ponders.
+     * @return true if the player searches on the time of its opponent, false otherwise.
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * This method switches pondering on or off. A computer player that ponders searches the position after the
+     * reply that it expects from its opponent while the opponent thinks, and plays the result at once when the
+     * opponent plays that reply. Pondering uses a thread of its own, so it is off by default.
+     * @param pondering true to ponder, false otherwise.
+     * @return this config, so the settings can be chained.
+     */
+    public SearchConfig setPondering(boolean pondering) {
+        this.pondering = pondering;
+        return this;
+    }
+}
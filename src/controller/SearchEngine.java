@@ -0,0 +1,399 @@
+package controller;
+
+import model.Board;
+import model.Game;
+import model.MoveGenerator;
+import model.Position;
+import model.Square;
+import model.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class represents the search engine of the othello game. It looks ahead many moves with a negamax
+ * alpha-beta search and iterative deepening: it searches one ply deep, then two plies, and so on until the depth
+ * or the time of the search config is used up. The search works on the 64-bit masks of the discs, so it never
+ * changes the game that is being played. Every position keeps its Zobrist hash key up to date while the moves are
+ * played, and the results are stored in a transposition table that can be shared with other engines.
+ * The engine can search with several threads that share the transposition table.
+ * A search can also be given a soft and a hard deadline, for example by the TimeManager of a game with a clock,
+ * and it can be stopped at any time. Every search has its own cancellation token, which the search threads poll
+ * every 1024 positions. The token of a ponder or an analysis can be given by the caller, so it can be cancelled
+ * even before the search has started; stop cancels the token of the current search.
+ */
+public final class SearchEngine {
+    /**
+     * The score of a won game before the disc difference is added. Positions that are not finished
+     * are always scored between -WIN_SCORE and WIN_SCORE.
+     */
+    public static final int WIN_SCORE = 10000;
+
+    /**
+     * The depth of the last iteration of a search with deadlines, which is deep enough to reach the end of the game.
+     */
+    private static final int MAX_DEPTH = 60;
+
+    private final SearchConfig config;
+    private final TranspositionTable transpositionTable;
+    private final SearchWorker[] workers;
+    private final ExecutorService helperPool;
+    private final EndgameSolver endgameSolver;
+    private volatile AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * This method constructs a new search engine with the settings of the config.
+     * @param config the depth and time settings of the search.
+     */
+    public SearchEngine(SearchConfig config) {
+        this(config, new TranspositionTable(config.getTranspositionTableMegabytes()));
+    }
+
+    /**
+     * This method constructs a new search engine that uses the given transposition table, which can be
+     * shared with other engines.
+     * @param config the depth and time settings of the search.
+     * @param transpositionTable the transposition table of the search.
+     */
+    public SearchEngine(SearchConfig config, TranspositionTable transpositionTable) {
+        this.config = config;
+        this.transpositionTable = transpositionTable;
+        this.workers = new SearchWorker[config.getThreads()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new SearchWorker(this, transpositionTable, config);
+        }
+        this.endgameSolver = config.getEndgameEmpties() > 0 ? new EndgameSolver() : null;
+        if (workers.length > 1) {
+            helperPool = Executors.newFixedThreadPool(workers.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            helperPool = null;
+        }
+    }
+
+    /**
+     * This method returns the settings of this engine.
+     * @return the search config.
+     */
+    public SearchConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * This method returns the transposition table of this engine.
+     * @return the transposition table.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * This method searches the best move for the player whose turn it is in the game.
+     * @param game the current game being played, it is not changed by the search.
+     * @return the result of the search.
+     */
+    public SearchResult search(Game game) {
+        return search(game, game.getTurn().getColor());
+    }
+
+    /**
+     * This method searches the best move for a colour in the game.
+     * @param game the current game being played, it is not changed by the search.
+     * @param colour the square color of the player for which the best move is searched.
+     * @return the result of the search.
+     */
+    public SearchResult search(Game game, Square colour) {
+        Board board = game.returnBoard();
+        return search(board.getDiscMask(colour), board.getDiscMask(colour.getOtherPlayerSquare()), colour);
+    }
+
+    /**
+     * This method searches the best move of a position.
+     * @param position the position, the player to move is the one for which the best move is searched.
+     * @return the result of the search.
+     */
+    public SearchResult search(Position position) {
+        return search(position.getPlayerDiscs(), position.getOpponentDiscs(), position.getSideToMove());
+    }
+
+    /**
+     * This method searches the best move for a colour in the game within the deadlines of the current move of a
+     * clock. The move must already be started on the clock.
+     * @param game the current game being played, it is not changed by the search.
+     * @param colour the square color of the player for which the best move is searched.
+     * @param clock the clock of the player.
+     * @return the result of the search.
+     */
+    public SearchResult search(Game game, Square colour, TimeManager clock) {
+        Board board = game.returnBoard();
+        return search(board.getDiscMask(colour), board.getDiscMask(colour.getOtherPlayerSquare()), colour,
+                clock.getSoftDeadline(), clock.getHardDeadline());
+    }
+
+    /**
+     * This method searches the best move of a position where the black player is moving.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the result of the search.
+     */
+    public SearchResult search(long player, long opponent) {
+        return search(player, opponent, Square.BLACK);
+    }
+
+    /**
+     * This method searches the best move of a position. It deepens the search one ply at a time and returns
+     * the result of the last iteration that finished before the time ran out. The first iteration always finishes.
+     * When there are no more empty squares than the endgame setting of the config, the position is solved exactly
+     * by the endgame solver instead.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param colour the square color of the player who is moving, which is used for the hash keys.
+     * @return the result of the search.
+     */
+    public SearchResult search(long player, long opponent, Square colour) {
+        long start = System.nanoTime();
+        long timeLimit = config.getTimeLimitMillis();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000L : Long.MAX_VALUE;
+        return search(player, opponent, colour, start, deadline, deadline, true, 1, null, new AtomicBoolean());
+    }
+
+    /**
+     * This method analyses a position. It searches like search, with the depth and the time limit of the config,
+     * and it can be stopped with stop. Every time a line of the analysis has been searched to a new depth, the
+     * line is passed to the listener, so the analysis can be shown while it improves.
+     * @param position the position, the player to move is the one for which the moves are analysed.
+     * @param lines the number of best moves that are analysed (multi-PV), it must be at least 1.
+     * @param listener the listener that gets the lines of the analysis.
+     * @return the result of the best line.
+     */
+    public SearchResult analyze(Position position, int lines, AnalysisListener listener) {
+        return analyze(position, lines, listener, new AtomicBoolean());
+    }
+
+    /**
+     * This method analyses a position like analyze, until the depth or the time limit of the config is reached
+     * or until the token is cancelled. The token can be cancelled from another thread at any time, also before
+     * the analysis has started, and the analysis then returns the result of its last finished iteration.
+     * @param position the position, the player to move is the one for which the moves are analysed.
+     * @param lines the number of best moves that are analysed (multi-PV), it must be at least 1.
+     * @param listener the listener that gets the lines of the analysis.
+     * @param cancelled the cancellation token of this analysis only, it is set when the analysis returns.
+     * @return the result of the best line.
+     */
+    public SearchResult analyze(Position position, int lines, AnalysisListener listener, AtomicBoolean cancelled) {
+        if (lines < 1) {
+            throw new IllegalArgumentException("The analysis needs at least 1 line");
+        }
+        long start = System.nanoTime();
+        long timeLimit = config.getTimeLimitMillis();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000L : Long.MAX_VALUE;
+        return search(position.getPlayerDiscs(), position.getOpponentDiscs(), position.getSideToMove(), start,
+                deadline, deadline, true, lines, listener, cancelled);
+    }
+
+    /**
+     * This method searches the best move of a position on the time of the opponent. It searches like search,
+     * but without the time limit of the config: it goes on until the depth of the config is reached or until it
+     * is stopped with stop, and then it returns the result of its last finished iteration.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param colour the square color of the player who is moving, which is used for the hash keys.
+     * @return the result of the search.
+     */
+    public SearchResult ponder(long player, long opponent, Square colour) {
+        return ponder(player, opponent, colour, new AtomicBoolean());
+    }
+
+    /**
+     * This method searches the best move of a position on the time of the opponent like ponder, until the depth
+     * of the config is reached or until the token is cancelled. The token can be cancelled from another thread at
+     * any time, also before the search has started.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param colour the square color of the player who is moving, which is used for the hash keys.
+     * @param cancelled the cancellation token of this search only, it is set when the search returns.
+     * @return the result of the search.
+     */
+    public SearchResult ponder(long player, long opponent, Square colour, AtomicBoolean cancelled) {
+        return search(player, opponent, colour, System.nanoTime(), Long.MAX_VALUE, Long.MAX_VALUE, true, 1, null,
+                cancelled);
+    }
+
+    /**
+     * This method searches the best move of a position within two deadlines instead of the depth and the time
+     * limit of the config. No new iteration is started after the soft deadline, or when the last iteration took so long that the
+     * next one would not finish before the hard deadline. At the hard deadline the search stops even in its first
+     * iteration; if no iteration finished, the move with the best square weight is returned with depth 0.
+     * The endgame solver gets until the soft deadline, and when it cannot solve the position in time, the
+     * position is searched until the hard deadline.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param colour the square color of the player who is moving, which is used for the hash keys.
+     * @param softDeadline the time after which no new iteration is started, from System.nanoTime.
+     * @param hardDeadline the time at which the search is stopped, from System.nanoTime.
+     * @return the result of the search.
+     */
+    public SearchResult search(long player, long opponent, Square colour, long softDeadline, long hardDeadline) {
+        return search(player, opponent, colour, System.nanoTime(), softDeadline, hardDeadline, false, 1, null,
+                new AtomicBoolean());
+    }
+
+    /**
+     * This method searches the best move of a position with iterative deepening.
+     * With more than one thread, the helper threads search the same position at the same time (Lazy SMP).
+     * Half of them start one ply deeper, so the threads are at different depths and fill the shared transposition
+     * table with results that the main thread can use. The result is the one of the main thread, with the
+     * nodes of every thread.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param colour the square color of the player who is moving, which is used for the hash keys.
+     * @param start the time when the search started, from System.nanoTime.
+     * @param softDeadline the time after which no new iteration is started, from System.nanoTime.
+     * @param hardDeadline the time at which the search is stopped, from System.nanoTime.
+     * @param finishFirstIteration true if the first iteration and the endgame solver must finish even after
+     * the hard deadline.
+     * @param lines the number of lines that are searched at every depth, 1 for a normal search. With more than one
+     * line the endgame solver is not used, because it only finds the best move.
+     * @param listener the listener that gets every finished line, or null.
+     * @param cancelled the cancellation token of this search, which is set when the main thread has finished so
+     * the helper threads stop too.
+     * @return the result of the search.
+     */
+    private synchronized SearchResult search(long player, long opponent, Square colour, long start,
+                                             long softDeadline, long hardDeadline, boolean finishFirstIteration,
+                                             int lines, AnalysisListener listener, AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+        if (endgameSolver != null && lines == 1
+                && Long.bitCount(~(player | opponent)) <= config.getEndgameEmpties()) {
+            SearchResult exact = endgameSolver.solve(player, opponent,
+                    finishFirstIteration ? Long.MAX_VALUE : softDeadline, cancelled);
+            if (exact != null) {
+                int score = exactScore(exact.getScore());
+                if (listener != null) {
+                    listener.lineUpdated(new AnalysisLine(1, score, exact.getDepth(), exact.getNodes(),
+                            exact.getTimeMillis(), exact.getPrincipalVariation()));
+                }
+                return new SearchResult(exact.getBestMove(), score, exact.getDepth(),
+                        exact.getNodes(), exact.getTimeMillis(), exact.getPrincipalVariation());
+            }
+        }
+        int maxDepth = finishFirstIteration ? config.getMaxDepth() : MAX_DEPTH;
+        transpositionTable.newSearch();
+        long key = colour == Square.BLACK ? Zobrist.hash(player, opponent, Square.BLACK)
+                : Zobrist.hash(opponent, player, Square.WHITE);
+
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            SearchWorker helper = workers[i];
+            int firstDepth = 1 + (i & 1);
+            helpers.add(helperPool.submit(() -> helper.iterate(player, opponent, colour, key, firstDepth, maxDepth,
+                    start, Long.MAX_VALUE, Long.MAX_VALUE, false, 1, null)));
+        }
+        SearchResult result = workers[0].iterate(player, opponent, colour, key, 1, maxDepth, start,
+                softDeadline, hardDeadline, finishFirstIteration, lines, listener);
+        cancelled.set(true);
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search thread failed", e.getCause());
+            }
+        }
+
+        long[] threadNodes = new long[workers.length];
+        long nodes = 0;
+        for (int i = 0; i < workers.length; i++) {
+            threadNodes[i] = workers[i].getNodes();
+            nodes += threadNodes[i];
+        }
+        if (result == null) {
+            int move = fallbackMove(player, opponent);
+            return new SearchResult(move, 0, 0, nodes, (System.nanoTime() - start) / 1_000_000L,
+                    move == SearchResult.PASS ? new int[0] : new int[]{move}, threadNodes);
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes,
+                (System.nanoTime() - start) / 1_000_000L, result.getPrincipalVariation(), threadNodes);
+    }
+
+    /**
+     * This method converts the final disc difference of a game into a score of the engine. A win is worth
+     * WIN_SCORE plus the disc difference, so the engine prefers any win over any position that is not finished.
+     * @param difference the discs of the player minus the discs of the opponent at the end of the game.
+     * @return the score of the finished game for the player.
+     */
+    static int exactScore(int difference) {
+        if (difference > 0) {
+            return WIN_SCORE + difference;
+        } else if (difference < 0) {
+            return -WIN_SCORE + difference;
+        }
+        return 0;
+    }
+
+    /**
+     * This method chooses a move without a search, for when the hard deadline comes before the first iteration
+     * finishes: the valid move on the square with the best weight.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the index position of the move, or PASS if the player has no valid move.
+     */
+    public static int fallbackMove(long player, long opponent) {
+        int bestMove = SearchResult.PASS;
+        for (long moves = MoveGenerator.validMoves(player, opponent); moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            if (bestMove == SearchResult.PASS
+                    || SquareEvaluator.SQUARE_WEIGHTS[square] > SquareEvaluator.SQUARE_WEIGHTS[bestMove]) {
+                bestMove = square;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * This method stops the current search of this engine by cancelling its token. The search returns the result
+     * of its last finished iteration soon after, as if its time was over. A search that has not started yet is
+     * not stopped, so a caller that starts a search on another thread gives it a token and cancels that instead.
+     */
+    public void stop() {
+        cancelled.set(true);
+    }
+
+    /**
+     * This method counts the positions that all the workers have searched so far in the current search.
+     * @return the number of nodes.
+     */
+    long getNodes() {
+        long nodes = 0;
+        for (SearchWorker worker : workers) {
+            nodes += worker.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * This method tells if the token of the current search has been cancelled.
+     * @return true if the workers must stop, false otherwise.
+     */
+    boolean isStopRequested() {
+        return cancelled.get();
+    }
+
+    /**
+     * This method stops the helper threads of this engine. The engine can still search with one thread afterwards.
+     */
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package controller;
+
+import model.Move;
+import model.Square;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the result of a search. It stores the best move, the score of the position for the
+ * player who is moving, the depth that was reached, the number of positions searched and the principal variation,
+ * which is the line of moves that both players are expected to play.
+ */
+public class SearchResult {
+    /**
+     * The index that is used for a pass in the best move and in the principal variation.
+     */
+    public static final int PASS = -1;
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] principalVariation;
+    private final long[] threadNodes;
+
+    /**
+     * This method constructs a new search result.
+     * @param bestMove the index of the best move, or PASS.
+     * @param score the score of the position for the player who is moving.
+     * @param depth the depth of the last finished iteration.
+     * @param nodes the number of positions that were searched.
+     * @param timeMillis the time that the search took in milliseconds.
+     * @param principalVariation the indexes of the expected moves, starting with the best move.
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] principalVariation) {
+        this(bestMove, score, depth, nodes, timeMillis, principalVariation, new long[]{nodes});
+    }
+
+    /**
+     * This method constructs a new search result of a search with several threads.
+     * @param bestMove the index of the best move, or PASS.
+     * @param score the score of the position for the player who is moving.
+     * @param depth the depth of the last finished iteration.
+     * @param nodes the number of positions that were searched by all the threads.
+     * @param timeMillis the time that the search took in milliseconds.
+     * @param principalVariation the indexes of the expected moves, starting with the best move.
+     * @param threadNodes the number of positions that were searched by each thread.
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] principalVariation,
+                        long[] threadNodes) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation.clone();
+        this.threadNodes = threadNodes.clone();
+    }
+
+    /**
+     * This method returns the index of the best move.
+     * @return the index of the best move, or PASS if the player has to pass.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * This method returns the score of the position for the player who is moving. Positive scores are good for
+     * that player. A finished game is scored above SearchEngine.WIN_SCORE or below -SearchEngine.WIN_SCORE.
+     * @return the score of the position.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * This method returns the depth of the last finished iteration.
+     * @return the depth in plies.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * This method returns the number of positions that were searched.
+     * @return the number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * This method returns the number of positions searched per second by all the threads.
+     * @return the nodes per second.
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    /**
+     * This method returns the number of threads of the search.
+     * @return the number of threads.
+     */
+    public int getThreads() {
+        return threadNodes.length;
+    }
+
+    /**
+     * This method returns the number of positions that one thread searched.
+     * @param thread the number of the thread, 0 is the main thread.
+     * @return the number of nodes of the thread.
+     */
+    public long getThreadNodes(int thread) {
+        return threadNodes[thread];
+    }
+
+    /**
+     * This method returns the number of positions searched per second by one thread.
+     * @param thread the number of the thread, 0 is the main thread.
+     * @return the nodes per second of the thread.
+     */
+    public long getThreadNodesPerSecond(int thread) {
+        return threadNodes[thread] * 1000 / Math.max(1, timeMillis);
+    }
+
+    /**
+     * This method returns the time that the search took.
+     * @return the time in milliseconds.
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * This method returns the principal variation of the search.
+     * @return the indexes of the expected moves starting with the best move, PASS is used for a pass.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * This method converts the best move into a move of the game.
+     * @param colour the square color of the player who is moving.
+     * @return the best move, or the move (-1, -1) if the player has to pass.
+     */
+    public Move toMove(Square colour) {
+        if (bestMove == PASS) {
+            return new Move(-1, -1, colour);
+        }
+        return new Move(bestMove / 8, bestMove % 8, colour);
+    }
+
+    /**
+     * This method prints the string representation of this search result.
+     * @return the best move, the score, the depth, the nodes and the principal variation.
+     */
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "bestMove=" + bestMove +
+                ", score=" + score +
+                ", depth=" + depth +
+                ", nodes=" + nodes +
+                ", timeMillis=" + timeMillis +
+                ", threadNodes=" + Arrays.toString(threadNodes) +
+                ", principalVariation=" + Arrays.toString(principalVariation) +
+                '}';
+    }
+}
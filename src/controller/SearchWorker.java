@@ -0,0 +1,396 @@
+package controller;
+
+import model.MoveGenerator;
+import model.Square;
+import model.Zobrist;
+
+/**
+ * This class represents one search thread of the search engine. It has its own principal variation and node count,
+ * and it shares the transposition table with the other workers of the engine, so the workers can use each other's
+ * results. A worker deepens the search one ply at a time until it reaches its last depth or it is stopped.
+ * The worker has its own move orderer, whose killer moves and history are only learned from its own search.
+ * Principal variation search, aspiration windows and Multi-ProbCut are used as the search config says.
+ * For an analysis, the worker can search several lines at every depth (multi-PV): every line is searched with the
+ * moves of the lines before it left out at the root, and every finished line is passed to a listener.
+ */
+class SearchWorker {
+    static final int INFINITY = 30000;
+    private static final int MAX_PLY = 128;
+    private static final int TIME_CHECK_INTERVAL = 1023;
+
+    /**
+     * The least and the most times longer that the next iteration is expected to take than the last one.
+     */
+    private static final long MIN_GROWTH = 2;
+    private static final long MAX_GROWTH = 8;
+
+    /**
+     * The least depth at which Multi-ProbCut tries to cut a position off with a search of half the depth.
+     */
+    private static final int PROBCUT_DEPTH = 4;
+
+    /**
+     * The least depth at which Multi-ProbCut first tries a search of a quarter of the depth.
+     */
+    private static final int PROBCUT_QUARTER_DEPTH = 8;
+
+    /**
+     * The result of probCut when the position is not cut off, which no search can return.
+     */
+    private static final int NO_CUT = INFINITY + 1;
+
+    private final SearchEngine engine;
+    private final TranspositionTable transpositionTable;
+    private final Evaluator evaluator;
+    private final boolean principalVariationSearch;
+    private final int aspirationWindow;
+    private final boolean probCut;
+    private final int probCutMargin;
+    private final MoveOrderer moveOrderer = new MoveOrderer(MAX_PLY);
+    private final int[][] principalVariation = new int[MAX_PLY][MAX_PLY];
+    private final int[] principalVariationLength = new int[MAX_PLY];
+    private final int[] previousVariation = new int[MAX_PLY];
+    private int previousVariationLength;
+    private long excludedRootMoves;
+    private Square rootColour;
+    private long nodes;
+    private long deadline;
+    private boolean canStop;
+    private boolean stopped;
+
+    /**
+     * This method constructs a new search worker.
+     * @param engine the engine that the worker belongs to, which can ask the worker to stop.
+     * @param transpositionTable the transposition table that is shared by the workers of the engine.
+     * @param config the settings of the search, with the evaluator that scores the positions at the end of it.
+     */
+    SearchWorker(SearchEngine engine, TranspositionTable transpositionTable, SearchConfig config) {
+        this.engine = engine;
+        this.transpositionTable = transpositionTable;
+        this.evaluator = config.getEvaluator();
+        this.principalVariationSearch = config.isPrincipalVariationSearch();
+        this.aspirationWindow = config.getAspirationWindow();
+        this.probCut = config.isProbCut();
+        this.probCutMargin = config.getProbCutMargin();
+    }
+
+    /**
+     * This method returns the number of positions that this worker searched in its last search.
+     * @return the number of nodes.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * This method searches a position with iterative deepening and returns the result of the last iteration
+     * that finished. The worker stops at the deadline or as soon as the engine asks it to, but it can be made to
+     * finish its first iteration anyway. No new iteration is started after the soft deadline, or when the next
+     * iteration is not expected to finish before the deadline: it is expected to take as many times longer than
+     * the last one as the last one took longer than the one before.
+     * The result is the one of the best line, which is updated as soon as the best line of a depth has finished.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param colour the square color of the player who is moving.
+     * @param key the Zobrist hash key of the position.
+     * @param firstDepth the depth of the first iteration.
+     * @param maxDepth the depth of the last iteration.
+     * @param start the time when the search started, from System.nanoTime.
+     * @param softDeadline the time after which no new iteration is started, from System.nanoTime.
+     * @param deadline the time when the search must stop, from System.nanoTime.
+     * @param finishFirstIteration true if the first iteration must finish even after the deadline.
+     * @param lines the number of lines that are searched at every depth, 1 for a normal search.
+     * @param listener the listener that gets every finished line, or null.
+     * @return the result of the last finished iteration, or null if no iteration finished.
+     */
+    SearchResult iterate(long player, long opponent, Square colour, long key, int firstDepth, int maxDepth,
+                         long start, long softDeadline, long deadline, boolean finishFirstIteration,
+                         int lines, AnalysisListener listener) {
+        this.deadline = deadline;
+        nodes = 0;
+        canStop = !finishFirstIteration;
+        stopped = false;
+        previousVariationLength = 0;
+        rootColour = colour;
+        moveOrderer.newSearch();
+
+        int empties = Long.bitCount(~(player | opponent));
+        int lineCount = Math.max(1, Math.min(lines, Long.bitCount(MoveGenerator.validMoves(player, opponent))));
+        int[] lineScores = new int[lineCount];
+        int[][] lineVariations = new int[lineCount][];
+        SearchResult result = null;
+        long lastIterationTime = 0;
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            long iterationStart = System.nanoTime();
+            excludedRootMoves = 0;
+            for (int line = 0; line < lineCount; line++) {
+                int[] previousLine = lineVariations[line];
+                previousVariationLength = previousLine != null ? previousLine.length : 0;
+                if (previousLine != null) {
+                    System.arraycopy(previousLine, 0, previousVariation, 0, previousVariationLength);
+                }
+                int score;
+                if (aspirationWindow > 0 && previousLine != null
+                        && Math.abs(lineScores[line]) < SearchEngine.WIN_SCORE) {
+                    score = aspirationSearch(player, opponent, key, depth, lineScores[line]);
+                } else {
+                    score = negamax(player, opponent, key, depth, -INFINITY, INFINITY, 0);
+                }
+                if (stopped) {
+                    break;
+                }
+                int[] variation = new int[principalVariationLength[0]];
+                System.arraycopy(principalVariation[0], 0, variation, 0, variation.length);
+                int move = variation.length > 0 ? variation[0] : SearchResult.PASS;
+                lineScores[line] = score;
+                lineVariations[line] = variation;
+                long time = (System.nanoTime() - start) / 1_000_000L;
+                if (line == 0) {
+                    result = new SearchResult(move, score, depth, nodes, time, variation);
+                    canStop = true;
+                }
+                if (listener != null) {
+                    listener.lineUpdated(new AnalysisLine(line + 1, score, depth, engine.getNodes(), time, variation));
+                }
+                if (move != SearchResult.PASS) {
+                    excludedRootMoves |= 1L << move;
+                }
+            }
+            excludedRootMoves = 0;
+            if (stopped) {
+                break;
+            }
+
+            if (depth >= empties) {
+                break;
+            }
+            long now = System.nanoTime();
+            long iterationTime = now - iterationStart;
+            long growth = lastIterationTime > 0
+                    ? Math.max(MIN_GROWTH, Math.min(MAX_GROWTH, iterationTime / Math.max(1, lastIterationTime)))
+                    : MIN_GROWTH;
+            lastIterationTime = iterationTime;
+            if (softDeadline != Long.MAX_VALUE && now - softDeadline >= 0) {
+                break;
+            }
+            if (deadline != Long.MAX_VALUE && deadline - now < iterationTime * growth) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method searches the root of an iteration with an aspiration window around the score of the previous
+     * iteration. The score is usually close, so the narrow window cuts off more positions. When the score falls
+     * outside the window, the window is made twice as wide on that side and the position is searched again.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param key the Zobrist hash key of the position.
+     * @param depth the depth of the iteration.
+     * @param previousScore the score of the previous iteration.
+     * @return the score of the position.
+     */
+    private int aspirationSearch(long player, long opponent, long key, int depth, int previousScore) {
+        int lowerWindow = aspirationWindow;
+        int upperWindow = aspirationWindow;
+        while (true) {
+            int alpha = Math.max(-INFINITY, previousScore - lowerWindow);
+            int beta = Math.min(INFINITY, previousScore + upperWindow);
+            int score = negamax(player, opponent, key, depth, alpha, beta, 0);
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha && alpha > -INFINITY) {
+                lowerWindow *= 2;
+            } else if (score >= beta && beta < INFINITY) {
+                upperWindow *= 2;
+            } else {
+                return score;
+            }
+        }
+    }
+
+    /**
+     * This method searches a position with negamax alpha-beta. The score is always for the player who is moving,
+     * so the score of a child position is negated. A player without moves passes without using up depth.
+     * Positions with depth left are looked up in the transposition table before they are searched. With principal
+     * variation search, every move after the first is searched with a null window first, and only searched again
+     * with the full window if it turns out to be better than alpha.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param key the Zobrist hash key of the position.
+     * @param depth the number of plies that are left to search.
+     * @param alpha the score that the player is already sure to get.
+     * @param beta the score that the opponent is already sure to limit the player to.
+     * @param ply the distance from the root of the search.
+     * @return the score of the position.
+     */
+    private int negamax(long player, long opponent, long key, int depth, int alpha, int beta, int ply) {
+        principalVariationLength[ply] = ply;
+        if ((++nodes & TIME_CHECK_INTERVAL) == 0 && canStop
+                && (engine.isStopRequested() || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        long moves = MoveGenerator.validMoves(player, opponent);
+        if (moves == 0) {
+            if (MoveGenerator.validMoves(opponent, player) == 0) {
+                return finalScore(player, opponent);
+            }
+            if (ply >= MAX_PLY - 1) {
+                return evaluator.evaluate(player, opponent, moves);
+            }
+            int score = -negamax(opponent, player, key ^ Zobrist.sideKey(), depth, -beta, -alpha, ply + 1);
+            updatePrincipalVariation(ply, SearchResult.PASS);
+            return score;
+        }
+        if (depth == 0 || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(player, opponent, moves);
+        }
+
+        int firstMove = -1;
+        long entry = transpositionTable.probe(key);
+        if (entry != 0) {
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+            int move = TranspositionTable.move(entry);
+            if (move != TranspositionTable.NO_MOVE && (moves & (1L << move)) != 0) {
+                firstMove = move;
+            }
+        }
+        if (firstMove < 0 && ply < previousVariationLength && previousVariation[ply] >= 0 && (moves & (1L << previousVariation[ply])) != 0) {
+            firstMove = previousVariation[ply];
+        }
+
+        if (probCut && ply > 0 && depth >= PROBCUT_DEPTH) {
+            int cut = probCut(player, opponent, key, depth, alpha, beta, ply);
+            if (cut != NO_CUT) {
+                return cut;
+            }
+        }
+
+        if (ply == 0) {
+            moves &= ~excludedRootMoves;
+        }
+        Square colour = (ply & 1) == 0 ? rootColour : rootColour.getOtherPlayerSquare();
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        int count = moveOrderer.generate(ply, player, opponent, moves, firstMove, depth, colour);
+        for (int i = 0; i < count; i++) {
+            int square = moveOrderer.next(ply, i, count);
+            long flips = moveOrderer.flips(ply, i, player, opponent);
+            long childKey = key ^ Zobrist.sideKey() ^ Zobrist.discKey(colour, square) ^ Zobrist.flipsKey(flips);
+            long childPlayer = opponent & ~flips;
+            long childOpponent = player | flips | (1L << square);
+            int score;
+            if (i == 0 || !principalVariationSearch) {
+                score = -negamax(childPlayer, childOpponent, childKey, depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -negamax(childPlayer, childOpponent, childKey, depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -negamax(childPlayer, childOpponent, childKey, depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, square);
+                    if (alpha >= beta) {
+                        moveOrderer.cutoff(ply, square, depth, colour, firstMove);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = TranspositionTable.EXACT;
+        if (bestScore <= originalAlpha) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        }
+        if (ply > 0 || excludedRootMoves == 0) {
+            transpositionTable.store(key, depth, bound, bestScore, bestMove);
+        }
+        return bestScore;
+    }
+
+    /**
+     * This method tries to cut a position off with Multi-ProbCut. A shallow search with a null window checks if the
+     * score is at least the margin above beta, or at least the margin below alpha, in which case the deep search
+     * would almost surely fail high or low as well. Deep positions are checked with a quarter of the depth first,
+     * with a wider margin, and then with half of the depth.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param key the Zobrist hash key of the position.
+     * @param depth the number of plies that are left to search.
+     * @param alpha the score that the player is already sure to get.
+     * @param beta the score that the opponent is already sure to limit the player to.
+     * @param ply the distance from the root of the search.
+     * @return beta or alpha if the position is cut off, NO_CUT otherwise.
+     */
+    private int probCut(long player, long opponent, long key, int depth, int alpha, int beta, int ply) {
+        int firstStage = depth >= PROBCUT_QUARTER_DEPTH ? 0 : 1;
+        for (int stage = firstStage; stage < 2; stage++) {
+            int shallowDepth = stage == 0 ? depth / 4 : depth / 2;
+            int margin = stage == 0 ? probCutMargin * 3 / 2 : probCutMargin;
+            int bound = beta + margin;
+            if (bound < SearchEngine.WIN_SCORE
+                    && negamax(player, opponent, key, shallowDepth, bound - 1, bound, ply) >= bound && !stopped) {
+                principalVariationLength[ply] = ply;
+                return beta;
+            }
+            bound = alpha - margin;
+            if (bound > -SearchEngine.WIN_SCORE
+                    && negamax(player, opponent, key, shallowDepth, bound, bound + 1, ply) <= bound && !stopped) {
+                principalVariationLength[ply] = ply;
+                return alpha;
+            }
+            if (stopped) {
+                return 0;
+            }
+        }
+        principalVariationLength[ply] = ply;
+        return NO_CUT;
+    }
+
+    /**
+     * This method puts a move in front of the principal variation of the child position.
+     * @param ply the ply of the position where the move is played.
+     * @param move the index of the move, or PASS.
+     */
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] line = principalVariation[ply];
+        line[ply] = move;
+        int childLength = principalVariationLength[ply + 1];
+        System.arraycopy(principalVariation[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+        principalVariationLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    /**
+     * This method scores a finished game with the disc difference of the two players.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the score of the finished game for the player.
+     */
+    private static int finalScore(long player, long opponent) {
+        return SearchEngine.exactScore(Long.bitCount(player) - Long.bitCount(opponent));
+    }
+}
@@ -0,0 +1,48 @@
+package controller;
+
+import model.MoveGenerator;
+
+/**
+ * This class scores a position by the square weights of the discs and by how many more moves the player has than
+ * the opponent. It is the simple evaluator that the search engine uses when no other evaluator is set.
+ */
+public class SquareEvaluator implements Evaluator {
+    /**
+     * The value of a disc on each square. Corners are the best squares, and the squares next to the corners
+     * are bad because they let the opponent take the corner.
+     */
+    static final int[] SQUARE_WEIGHTS = {
+            100, -20, 10,  5,  5, 10, -20, 100,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+             10,  -2, -1, -1, -1, -1,  -2,  10,
+              5,  -2, -1, -1, -1, -1,  -2,   5,
+              5,  -2, -1, -1, -1, -1,  -2,   5,
+             10,  -2, -1, -1, -1, -1,  -2,  10,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            100, -20, 10,  5,  5, 10, -20, 100};
+
+    /**
+     * The score of every move that the player has more than the opponent.
+     */
+    static final int MOBILITY_WEIGHT = 8;
+
+    /**
+     * This method scores a position by the square weights and the mobility.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param moves the valid moves of the player.
+     * @return the score of the position for the player.
+     */
+    @Override
+    public int evaluate(long player, long opponent, long moves) {
+        int score = 0;
+        for (long discs = player; discs != 0; discs &= discs - 1) {
+            score += SQUARE_WEIGHTS[Long.numberOfTrailingZeros(discs)];
+        }
+        for (long discs = opponent; discs != 0; discs &= discs - 1) {
+            score -= SQUARE_WEIGHTS[Long.numberOfTrailingZeros(discs)];
+        }
+        int mobility = Long.bitCount(moves) - Long.bitCount(MoveGenerator.validMoves(opponent, player));
+        return score + MOBILITY_WEIGHT * mobility;
+    }
+}
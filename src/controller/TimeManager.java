@@ -0,0 +1,127 @@
+package controller;
+
+import java.util.function.LongSupplier;
+
+/**
+ * This class represents the clock of a computer player in a game with a time limit for all of its moves.
+ * Before every move it splits the time that is left on the clock across the moves that the player still has to
+ * play, which are about half of the empty squares. That share is the soft deadline of the move: the search doesn't
+ * start a new iteration after it. The hard deadline is a few times the share, but never later than the time on the
+ * clock minus a reserve: the search is stopped there even in the middle of an iteration.
+ * The reserve covers the work around the search. On a busy machine the search thread can also be scheduled
+ * too late to notice its hard deadline in time, so the clock remembers how far the moves went past their hard
+ * deadlines, and keeps that lag free for every move that is left.
+ * The clock of a move starts when startMove is called, so time that the move spends waiting for a free search
+ * thread is counted as well.
+ */
+public class TimeManager {
+    /**
+     * The hard deadline is at most this many times the share of the move.
+     */
+    private static final int HARD_FACTOR = 3;
+
+    /**
+     * The smallest reserve that is kept on the clock, in milliseconds.
+     */
+    private static final long MIN_RESERVE_MILLIS = 25;
+
+    /**
+     * The reserve is at least the time left on the clock divided by this.
+     */
+    private static final int RESERVE_DIVISOR = 20;
+
+    /**
+     * The lag is forgotten by this fraction after every move that doesn't go past its hard deadline by more.
+     */
+    private static final int LAG_DECAY = 8;
+
+    private final long clockNanos;
+    private final LongSupplier timeSource;
+    private long remainingNanos;
+    private long moveStart;
+    private long softDeadline;
+    private long hardDeadline;
+    private long lag;
+
+    /**
+     * This method constructs a new clock.
+     * @param clockMillis the time for all the moves of the player in milliseconds, it must be at least 1.
+     */
+    public TimeManager(long clockMillis) {
+        this(clockMillis, System::nanoTime);
+    }
+
+    /**
+     * This method constructs a new clock that reads the time from a source other than System.nanoTime, so a
+     * test can play a game on it without waiting.
+     * @param clockMillis the time for all the moves of the player in milliseconds, it must be at least 1.
+     * @param timeSource the source of the time in nanoseconds.
+     */
+    TimeManager(long clockMillis, LongSupplier timeSource) {
+        if (clockMillis < 1) {
+            throw new IllegalArgumentException("The clock needs at least 1 millisecond");
+        }
+        this.clockNanos = clockMillis * 1_000_000L;
+        this.remainingNanos = clockNanos;
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * This method puts the full time back on the clock for a new game.
+     */
+    public void reset() {
+        remainingNanos = clockNanos;
+        lag = 0;
+    }
+
+    /**
+     * This method starts the clock for a move and sets its deadlines.
+     * @param empties the number of empty squares of the position.
+     */
+    public void startMove(int empties) {
+        moveStart = timeSource.getAsLong();
+        int movesLeft = Math.max(1, (empties + 1) / 2);
+        long reserve = Math.max(MIN_RESERVE_MILLIS * 1_000_000L, remainingNanos / RESERVE_DIVISOR);
+        long available = Math.max(0, remainingNanos - reserve - lag * movesLeft);
+        long share = available / movesLeft;
+        softDeadline = moveStart + share;
+        hardDeadline = moveStart + Math.min(available, share * HARD_FACTOR);
+    }
+
+    /**
+     * This method stops the clock of the move and takes the time of the move off the clock.
+     * @return the time of the move in milliseconds.
+     */
+    public long finishMove() {
+        long end = timeSource.getAsLong();
+        long overrun = end - hardDeadline;
+        lag = overrun > lag ? overrun : lag - lag / LAG_DECAY;
+        long time = end - moveStart;
+        remainingNanos -= time;
+        return time / 1_000_000L;
+    }
+
+    /**
+     * This method returns the time after which the search of the current move doesn't start a new iteration.
+     * @return the soft deadline, from System.nanoTime.
+     */
+    public long getSoftDeadline() {
+        return softDeadline;
+    }
+
+    /**
+     * This method returns the time at which the search of the current move is stopped.
+     * @return the hard deadline, from System.nanoTime.
+     */
+    public long getHardDeadline() {
+        return hardDeadline;
+    }
+
+    /**
+     * This method returns the time that is left on the clock, without the current move.
+     * @return the time in milliseconds, which is negative if the clock has run out.
+     */
+    public long getRemainingMillis() {
+        return remainingNanos / 1_000_000L;
+    }
+}
@@ -0,0 +1,230 @@
+package controller;
+
+import archive.GameRecord;
+import archive.GameRecordWriter;
+import model.BitBoard;
+import model.Game;
+import model.Move;
+import model.Player;
+import model.Square;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class plays a tournament between two players without any output. The games are played on a pool of
+ * worker threads, and every worker creates its own players with the player factories.
+ * The games are played in pairs: both games of a pair start with the same random opening, and the players swap
+ * colours in the second game, so neither player gets the better side of an opening. The openings only depend on
+ * the seed and the number of the pair, so a tournament with the same settings plays the same openings.
+ * The games can be recorded in a game archive.
+ * A computer player that uses up its clock loses the game on time, and the tournament goes on with the next game.
+ */
+public class Tournament {
+    private final PlayerFactory firstPlayer;
+    private final PlayerFactory secondPlayer;
+    private final int threads;
+    private final int openingPlies;
+    private final long seed;
+    private GameRecordWriter recordWriter;
+
+    /**
+     * This method constructs a new tournament between two players.
+     * @param firstPlayer the factory of the first player, the results are seen from this player.
+     * @param secondPlayer the factory of the second player.
+     * @param threads the number of worker threads, at least 1.
+     * @param openingPlies the number of random plies that are played before the players take over.
+     * @param seed the seed of the random openings.
+     */
+    public Tournament(PlayerFactory firstPlayer, PlayerFactory secondPlayer, int threads, int openingPlies, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A tournament needs at least 1 thread");
+        }
+        if (openingPlies < 0) {
+            throw new IllegalArgumentException("The opening plies cannot be negative");
+        }
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+        this.threads = threads;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * This method records every game of the tournament in a game archive, in the order in which the games finish.
+     * @param recordWriter the writer of the archive, or null to not record the games.
+     * @return this tournament.
+     */
+    public Tournament recordGames(GameRecordWriter recordWriter) {
+        this.recordWriter = recordWriter;
+        return this;
+    }
+
+    /**
+     * This method plays the games of the tournament and waits until all of them are finished.
+     * @param games the number of games to be played.
+     * @return the statistics of the games, seen from the first player.
+     * @throws InterruptedException if the thread is interrupted while it waits for the games.
+     */
+    public TournamentResult play(long games) throws InterruptedException {
+        AtomicLong nextGame = new AtomicLong();
+        List<Callable<TournamentResult>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(() -> playGames(nextGame, games));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            TournamentResult result = new TournamentResult();
+            for (Future<TournamentResult> worker : pool.invokeAll(workers)) {
+                result.merge(worker.get());
+            }
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A tournament game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * This method is the loop of a worker thread. It takes the next game number until all the games are played.
+     * The players of the worker are only used by it, so it shuts down their search threads when it is done.
+     * @param nextGame the number of the next game that is not taken by a worker yet.
+     * @param games the number of games to be played.
+     * @return the statistics of the games of this worker.
+     */
+    private TournamentResult playGames(AtomicLong nextGame, long games) {
+        Player firstBlack = firstPlayer.create("First", Square.BLACK);
+        Player firstWhite = firstPlayer.create("First", Square.WHITE);
+        Player secondBlack = secondPlayer.create("Second", Square.BLACK);
+        Player secondWhite = secondPlayer.create("Second", Square.WHITE);
+        TournamentResult result = new TournamentResult();
+        try {
+            long game;
+            while ((game = nextGame.getAndIncrement()) < games) {
+                Random opening = new Random(seed ^ ((game / 2) * 0x9e3779b97f4a7c15L));
+                if (game % 2 == 0) {
+                    playGame(firstBlack, secondWhite, opening, true, result);
+                } else {
+                    playGame(secondBlack, firstWhite, opening, false, result);
+                }
+            }
+        } finally {
+            retire(firstBlack);
+            retire(firstWhite);
+            retire(secondBlack);
+            retire(secondWhite);
+        }
+        return result;
+    }
+
+    /**
+     * This method plays one game and adds it to the result. The moves are played without the checks and the output
+     * of doMove, and a player that has no valid move passes without being asked. Computer players with a clock
+     * start the game with a full clock, and a player that uses up its clock loses the game on time: the game ends
+     * there, it is added to the result as a time forfeit and it is not recorded. A game that is played to the end
+     * is recorded if the tournament has a record writer. However the game ends, both players stop pondering, so
+     * no background search takes time from the next game or from the other workers.
+     * @param black the player with the black discs.
+     * @param white the player with the white discs.
+     * @param opening the random number generator of the opening moves.
+     * @param firstPlaysBlack true if the first player of the tournament has the black discs.
+     * @param result the statistics of the worker, seen from the first player.
+     */
+    private void playGame(Player black, Player white, Random opening, boolean firstPlaysBlack,
+                          TournamentResult result) {
+        resetClock(black);
+        resetClock(white);
+        Game game = new Game(black, white, new BitBoard());
+        ByteArrayOutputStream moves = new ByteArrayOutputStream(64);
+        int ply = 0;
+        try {
+            while (!game.isGameOver()) {
+                Player player = game.getTurn();
+                Square colour = player.getColor();
+                List<Integer> validMoves = game.getAllValidMoves(colour);
+                if (!validMoves.isEmpty()) {
+                    int index;
+                    if (ply < openingPlies) {
+                        index = validMoves.get(opening.nextInt(validMoves.size()));
+                    } else {
+                        Move move = player.makeMove(game);
+                        if (move == null || !game.isValidMove(move)) {
+                            throw new IllegalStateException(player.getName() + " played the invalid move " + move
+                                    + " on\n" + game.returnBoard());
+                        }
+                        index = move.getIndex();
+                        if (player instanceof ComputerPlayer computer && computer.getClock() != null
+                                && computer.getClock().getRemainingMillis() < 0) {
+                            result.addTimeForfeit(firstPlaysBlack == (colour == Square.BLACK));
+                            return;
+                        }
+                    }
+                    game.makeMove(index, colour);
+                    moves.write(index);
+                } else {
+                    moves.write(GameRecord.PASS);
+                }
+                game.changeTurns();
+                ply++;
+            }
+        } finally {
+            stopPondering(black);
+            stopPondering(white);
+        }
+        int blackDiscs = game.calculatePlayerScore(black);
+        int whiteDiscs = game.calculatePlayerScore(white);
+        if (recordWriter != null) {
+            try {
+                recordWriter.write(new GameRecord(black.getName(), white.getName(), blackDiscs, whiteDiscs,
+                        moves.toByteArray()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("The game cannot be recorded", e);
+            }
+        }
+        result.addGame(firstPlaysBlack ? blackDiscs - whiteDiscs : whiteDiscs - blackDiscs);
+    }
+
+    /**
+     * This method stops the background search of a player, if it is a computer player.
+     * @param player the player.
+     */
+    private static void stopPondering(Player player) {
+        if (player instanceof ComputerPlayer computer) {
+            computer.stopPondering();
+        }
+    }
+
+    /**
+     * This method stops the search threads of a player that will not play any more, if it is a computer player.
+     * @param player the player.
+     */
+    private static void retire(Player player) {
+        if (player instanceof ComputerPlayer computer) {
+            computer.shutdown();
+        } else if (player instanceof MctsPlayer mcts) {
+            mcts.shutdown();
+        }
+    }
+
+    /**
+     * This method puts the full time back on the clock of a player, if it is a computer player with a clock.
+     * @param player the player.
+     */
+    private static void resetClock(Player player) {
+        if (player instanceof ComputerPlayer computer && computer.getClock() != null) {
+            computer.getClock().reset();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package controller;
+
+/**
+ * This class represents the statistics of a tournament between two players, seen from the first player.
+ * It counts the wins, draws and losses and the disc difference of every game, and calculates the Elo difference
+ * between the players with a 95% confidence interval.
+ * A game that a player lost because it used up its clock counts as a win or a loss, and is also counted as a time
+ * forfeit. It has no final disc difference, so the disc statistics only use the games that were played to the end.
+ */
+public class TournamentResult {
+    private static final double Z_95 = 1.959964;
+
+    private long wins;
+    private long draws;
+    private long losses;
+    private long timeForfeitWins;
+    private long timeForfeitLosses;
+    private long discDifferenceSum;
+    private long discDifferenceSquareSum;
+
+    /**
+     * This method adds the result of a finished game.
+     * @param discDifference the discs of the first player minus the discs of the second player at the end of the game.
+     */
+    public void addGame(int discDifference) {
+        if (discDifference > 0) {
+            wins++;
+        } else if (discDifference < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+        discDifferenceSum += discDifference;
+        discDifferenceSquareSum += (long) discDifference * discDifference;
+    }
+
+    /**
+     * This method adds a game that a player lost because it used up its clock.
+     * @param firstPlayerLost true if the first player used up its clock, false if the second player did.
+     */
+    public void addTimeForfeit(boolean firstPlayerLost) {
+        if (firstPlayerLost) {
+            losses++;
+            timeForfeitLosses++;
+        } else {
+            wins++;
+            timeForfeitWins++;
+        }
+    }
+
+    /**
+     * This method adds all the games of another result to this result.
+     * @param other the result to be added.
+     */
+    public void merge(TournamentResult other) {
+        wins += other.wins;
+        draws += other.draws;
+        losses += other.losses;
+        timeForfeitWins += other.timeForfeitWins;
+        timeForfeitLosses += other.timeForfeitLosses;
+        discDifferenceSum += other.discDifferenceSum;
+        discDifferenceSquareSum += other.discDifferenceSquareSum;
+    }
+
+    /**
+     * This method returns the number of games.
+     * @return the number of games.
+     */
+    public long getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * This method returns the number of games that the first player won.
+     * @return the number of wins.
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * This method returns the number of draws.
+     * @return the number of draws.
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * This method returns the number of games that the first player lost.
+     * @return the number of losses.
+     */
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * This method returns the number of games that the first player won because the second player used up its clock.
+     * @return the number of wins on time.
+     */
+    public long getTimeForfeitWins() {
+        return timeForfeitWins;
+    }
+
+    /**
+     * This method returns the number of games that the first player lost because it used up its clock.
+     * @return the number of losses on time.
+     */
+    public long getTimeForfeitLosses() {
+        return timeForfeitLosses;
+    }
+
+    /**
+     * This method calculates the score of the first player, where a win counts 1 and a draw counts one half.
+     * @return the score between 0 and 1, or 0.5 if no game was played.
+     */
+    public double getScore() {
+        long games = getGames();
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * This method calculates the average disc difference of the first player in the games that were played to the end.
+     * @return the average disc difference, or 0 if no game was played to the end.
+     */
+    public double getAverageDiscDifference() {
+        long games = getFinishedGames();
+        return games == 0 ? 0 : (double) discDifferenceSum / games;
+    }
+
+    /**
+     * This method calculates the standard deviation of the disc difference of the games that were played to the end.
+     * @return the standard deviation, or 0 if no game was played to the end.
+     */
+    public double getDiscDifferenceStandardDeviation() {
+        long games = getFinishedGames();
+        if (games == 0) {
+            return 0;
+        }
+        double average = getAverageDiscDifference();
+        return Math.sqrt(Math.max(0, (double) discDifferenceSquareSum / games - average * average));
+    }
+
+    /**
+     * This method returns the number of games that were played to the end, without the time forfeits.
+     * @return the number of finished games.
+     */
+    private long getFinishedGames() {
+        return getGames() - timeForfeitWins - timeForfeitLosses;
+    }
+
+    /**
+     * This method calculates the Elo difference between the first and the second player from the score.
+     * @return the Elo difference, infinite if one player won every game.
+     */
+    public double getEloDifference() {
+        return elo(getScore());
+    }
+
+    /**
+     * This method calculates the lower end of the 95% confidence interval of the Elo difference.
+     * @return the lower end of the interval, which is finite even if one player won every game.
+     */
+    public double getEloLowerBound() {
+        return elo(scoreBound(-Z_95));
+    }
+
+    /**
+     * This method calculates the upper end of the 95% confidence interval of the Elo difference.
+     * @return the upper end of the interval, which is finite even if one player won every game.
+     */
+    public double getEloUpperBound() {
+        return elo(scoreBound(Z_95));
+    }
+
+    /**
+     * This method calculates an end of the confidence interval of the score with the Wilson score interval, which
+     * uses the spread at the end of the interval instead of the spread at the score, so it does not shrink to
+     * nothing when every game has the same result. The spread of a game is the variance of the results of the
+     * games, which is the binomial variance when there are no draws. One win and one loss are added to the games
+     * as a prior, so the score is never 0 or 1 and the interval stays inside (0, 1), also after a sweep.
+     * @param z the number of standard errors, negative for the lower end and positive for the upper end.
+     * @return the end of the interval of the score, between 0 and 1 but never 0 or 1.
+     */
+    private double scoreBound(double z) {
+        double games = getGames() + 2;
+        double score = (wins + 1 + 0.5 * draws) / games;
+        double variance = ((wins + 1) * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + (losses + 1) * score * score) / games;
+        double zSquare = z * z;
+        double center = score + zSquare / (2 * games);
+        double halfWidth = z * Math.sqrt(variance / games + zSquare / (4 * games * games));
+        return (center + halfWidth) / (1 + zSquare / games);
+    }
+
+    /**
+     * This method converts a score to an Elo difference.
+     * @param score the score between 0 and 1.
+     * @return the Elo difference.
+     */
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        } else if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * This method prints the statistics of the tournament.
+     * @return the games, the wins, draws and losses, the disc difference and the Elo difference with its interval,
+     * and the time forfeits if there were any.
+     */
+    @Override
+    public String toString() {
+        String text = String.format("games %d: +%d =%d -%d, score %.1f%%, discs %+.2f (sd %.2f), Elo %+.1f [%+.1f, %+.1f]",
+                getGames(), wins, draws, losses, 100 * getScore(), getAverageDiscDifference(),
+                getDiscDifferenceStandardDeviation(), getEloDifference(), getEloLowerBound(), getEloUpperBound());
+        if (timeForfeitWins + timeForfeitLosses > 0) {
+            text += String.format(", time forfeits +%d -%d", timeForfeitWins, timeForfeitLosses);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,171 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the transposition table of the search engine. It remembers the result of positions that
+ * were already searched, so a position that is reached again through a different order of moves doesn't have to
+ * be searched again.
+ * The table is made of two long arrays with a power of two number of entries. Every entry has the hash key of
+ * the position and one long with the depth, the bound type, the score, the best move and the search generation.
+ * The entries are grouped in buckets of two: the first entry keeps the deepest result and the second entry
+ * always takes the newest result.
+ * Several search threads can use the same table without locks. The key is stored XOR-ed with the data, so an entry
+ * that was written by two threads at the same time doesn't match its key anymore and is read as a miss.
+ */
+public class TranspositionTable {
+    /**
+     * The bound type of a score that is at least the real score of the position (the search failed high).
+     */
+    public static final int LOWER_BOUND = 1;
+
+    /**
+     * The bound type of a score that is at most the real score of the position (the search failed low).
+     */
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * The bound type of an exact score.
+     */
+    public static final int EXACT = 3;
+
+    /**
+     * The move that is stored when a position has no best move.
+     */
+    public static final int NO_MOVE = 255;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final long MAX_ENTRIES = 1L << 30;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int indexMask;
+    private volatile int generation;
+
+    /**
+     * This method constructs a new transposition table that uses about the given amount of memory.
+     * The number of entries is rounded down to a power of two.
+     * @param megabytes the memory of the table in megabytes, at least 1.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("The transposition table needs at least 1 megabyte");
+        }
+        long entries = Math.min(Long.highestOneBit(megabytes * 1024L * 1024L / ENTRY_BYTES), MAX_ENTRIES);
+        this.keys = new long[(int) entries];
+        this.data = new long[(int) entries];
+        this.indexMask = (int) entries - 1;
+    }
+
+    /**
+     * This method returns the number of entries in the table.
+     * @return the number of entries.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * This method starts a new search. Entries of older searches are replaced before the entries of this search.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xff;
+    }
+
+    /**
+     * This method empties the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    /**
+     * This method looks up a position in the table.
+     * @param key the hash key of the position.
+     * @return the data of the entry that can be read with the score, depth, bound and move methods,
+     * or 0 if the position is not in the table.
+     */
+    public long probe(long key) {
+        int index = (int) key & indexMask & ~1;
+        for (int slot = index; slot <= index + 1; slot++) {
+            long entry = data[slot];
+            if ((keys[slot] ^ entry) == key && entry != 0) {
+                return entry;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * This method stores the result of a search in the table.
+     * @param key the hash key of the position.
+     * @param depth the depth of the search.
+     * @param bound the bound type of the score: LOWER_BOUND, UPPER_BOUND or EXACT.
+     * @param score the score of the position.
+     * @param move the index of the best move, or NO_MOVE.
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = (int) key & indexMask & ~1;
+        int currentGeneration = generation;
+        long entry = (score & 0xffffL)
+                | ((long) (depth & 0xff) << 16)
+                | ((long) bound << 24)
+                | ((long) (move & 0xff) << 32)
+                | ((long) currentGeneration << 40);
+
+        long deepEntry = data[index];
+        int slot = index + 1;
+        if ((keys[index] ^ deepEntry) == key || deepEntry == 0 || depth >= depth(deepEntry)
+                || generation(deepEntry) != currentGeneration) {
+            slot = index;
+        }
+        data[slot] = entry;
+        keys[slot] = key ^ entry;
+    }
+
+    /**
+     * This method reads the score of an entry.
+     * @param entry the data that was returned by probe.
+     * @return the score.
+     */
+    public static int score(long entry) {
+        return (short) entry;
+    }
+
+    /**
+     * This method reads the depth of an entry.
+     * @param entry the data that was returned by probe.
+     * @return the depth.
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & 0xff;
+    }
+
+    /**
+     * This method reads the bound type of an entry.
+     * @param entry the data that was returned by probe.
+     * @return LOWER_BOUND, UPPER_BOUND or EXACT.
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> 24) & 0x3;
+    }
+
+    /**
+     * This method reads the best move of an entry.
+     * @param entry the data that was returned by probe.
+     * @return the index of the best move, or NO_MOVE.
+     */
+    public static int move(long entry) {
+        return (int) (entry >>> 32) & 0xff;
+    }
+
+    /**
+     * This method reads the search generation of an entry.
+     * @param entry the data that was returned by probe.
+     * @return the generation.
+     */
+    private static int generation(long entry) {
+        return (int) (entry >>> 40) & 0xff;
+    }
+}
@@ -0,0 +1,139 @@
+package model;
+
+/**
+ * This class represents the Board of the Othello game stored as two 64-bit masks, one for the black discs
+ * and one for the white discs. Bit number (row * 8 + column) is set when a disc of that colour is on that square.
+ * It has the same public methods as the Board class, so the Game can use either of them.
+ */
+public final class BitBoard extends Board {
+    private static final long FULL_BOARD = -1L;
+
+    private long blackDiscs;
+    private long whiteDiscs;
+
+    /**
+     * This is the constructor of the BitBoard class. It initializes the starting positions of
+     * Othello game on an 8 by 8 board.
+     */
+    public BitBoard() {
+        super(8, 8, null);
+        placeStartingDiscs();
+    }
+
+    /**
+     * This constructor creates a board with the given discs instead of the starting position.
+     * @param blackDiscs the mask with the black discs.
+     * @param whiteDiscs the mask with the white discs, it cannot share a square with the black discs.
+     */
+    public BitBoard(long blackDiscs, long whiteDiscs) {
+        super(8, 8, null);
+        if ((blackDiscs & whiteDiscs) != 0) {
+            throw new IllegalArgumentException("A square cannot have a black and a white disc");
+        }
+        this.blackDiscs = blackDiscs;
+        this.whiteDiscs = whiteDiscs;
+        updateHashKey(Zobrist.hash(blackDiscs, whiteDiscs, Square.BLACK));
+    }
+
+    /**
+     * This sets the disc color on the board by row and column by setting the bit of that square in the mask
+     * of the colour. Nothing happens if the square is not empty.
+     * @param row the row on which the square will be placed.
+     * @param col the column on which the square will be placed.
+     * @param colour the colour of the square that we would like to place.
+     */
+    @Override
+    public void setSquareOnBoard(int row, int col, Square colour) {
+        long bit = 1L << getIndexPosition(row, col);
+        if (((blackDiscs | whiteDiscs) & bit) != 0) {
+            return;
+        }
+        if (colour == Square.BLACK) {
+            blackDiscs |= bit;
+        } else if (colour == Square.WHITE) {
+            whiteDiscs |= bit;
+        }
+        updateHashKey(Zobrist.discKey(colour, getIndexPosition(row, col)));
+    }
+
+    /**
+     * This method removes a square by clearing its bit in both masks.
+     * @param row the row on which the square will be removed.
+     * @param col the column on which the square will be removed.
+     */
+    @Override
+    public void removeSquareFromBoard(int row, int col) {
+        updateHashKey(Zobrist.discKey(getContent(row, col), getIndexPosition(row, col)));
+        long bit = 1L << getIndexPosition(row, col);
+        blackDiscs &= ~bit;
+        whiteDiscs &= ~bit;
+    }
+
+    /**
+     * This returns the contents of the board based on the rows and the columns.
+     * @param row the row on which we would like to get the content of.
+     * @param col the column on which we would like to get the content of.
+     * @return the board content of this row and column.
+     */
+    @Override
+    public Square getContent(int row, int col) {
+        long bit = 1L << getIndexPosition(row, col);
+        if ((blackDiscs & bit) != 0) {
+            return Square.BLACK;
+        } else if ((whiteDiscs & bit) != 0) {
+            return Square.WHITE;
+        }
+        return Square.EMPTY;
+    }
+
+    /**
+     * This method checks to see if the board is full by comparing the occupied squares with a full mask.
+     * @return true if board is completely filled else false if the board is not full.
+     */
+    @Override
+    public boolean isBoardFull() {
+        return (blackDiscs | whiteDiscs) == FULL_BOARD;
+    }
+
+    /**
+     * This method calculates the score for the player disc color by counting the bits of its mask.
+     * @param colour takes the input of the colour of the disc
+     * @return returns the score of the disc color.
+     */
+    @Override
+    public int calculateTheScore(Square colour) {
+        if (colour == Square.BLACK) {
+            return Long.bitCount(blackDiscs);
+        } else if (colour == Square.WHITE) {
+            return Long.bitCount(whiteDiscs);
+        }
+        return Long.bitCount(~(blackDiscs | whiteDiscs));
+    }
+
+    /**
+     * This method flips the discs in the mask by XOR-ing it into both masks. Every flipped square
+     * has a disc of exactly one colour, so it leaves one mask and joins the other.
+     * @param discsToFlip the mask of the squares to be flipped, they must all have a disc.
+     */
+    @Override
+    public void flipDiscs(long discsToFlip) {
+        blackDiscs ^= discsToFlip;
+        whiteDiscs ^= discsToFlip;
+        updateHashKey(Zobrist.flipsKey(discsToFlip));
+    }
+
+    /**
+     * This method returns the mask of the disc color without looking at the squares one by one.
+     * @param colour the colour of the discs.
+     * @return the mask of the squares with the discs of this colour.
+     */
+    @Override
+    public long getDiscMask(Square colour) {
+        if (colour == Square.BLACK) {
+            return blackDiscs;
+        } else if (colour == Square.WHITE) {
+            return whiteDiscs;
+        }
+        return ~(blackDiscs | whiteDiscs);
+    }
+}
@@ -7,6 +7,7 @@ public class Board  {
     private final int rows;
     private final int cols;
     private final Square[][] board;
+    private long hashKey;
 
     private static final String SPACE = "     ";
     private static final String ROW_LINE = "---+---+---+---+---+---+---+---+";
@@ -35,14 +36,32 @@ public class Board  {
      * @param cols the columns of the Board.
      */
     public Board (final int rows, final int cols) {
-        this.rows = rows;
-        this.cols = cols;
-        this.board = new Square[rows][cols];
+        this(rows, cols, new Square[rows][cols]);
         for(int i = 0; i<rows; i++) {
             for (int j = 0; j < cols; j++) {
                 this.board[i][j] = Square.EMPTY;
             }
         }
+        placeStartingDiscs();
+    }
+
+    /**
+     * This constructor is used by the other board engines. They keep the discs in their own storage,
+     * so they can pass null instead of the square array.
+     * @param rows the rows of the Board.
+     * @param cols the columns of the Board.
+     * @param board the square array that stores the discs, or null if the subclass stores them itself.
+     */
+    protected Board(final int rows, final int cols, final Square[][] board) {
+        this.rows = rows;
+        this.cols = cols;
+        this.board = board;
+    }
+
+    /**
+     * This method places the two black and two white discs in the center of the board.
+     */
+    protected final void placeStartingDiscs() {
         setSquareOnBoard(3,3,Square.WHITE);
         setSquareOnBoard(3,4,Square.BLACK);
         setSquareOnBoard(4,3, Square.BLACK);
@@ -59,6 +78,7 @@ public class Board  {
     public void setSquareOnBoard(int row, int col, Square colour){
         if (getContent(row, col).equals(Square.EMPTY)) {
             board[row][col] = colour;
+            hashKey ^= Zobrist.discKey(colour, getIndexPosition(row, col));
         }
     }
 
@@ -68,6 +88,7 @@ public class Board  {
      * @param col the column on which the square will be removed.
      */
     public void removeSquareFromBoard(int row, int col) {
+        hashKey ^= Zobrist.discKey(board[row][col], getIndexPosition(row, col));
         board[row][col] = Square.EMPTY;
     }
 
@@ -162,6 +183,58 @@ public class Board  {
         return score;
     }
 
+    /**
+     * This method returns the Zobrist hash key of the discs on the board. It is updated every time
+     * a disc is placed, removed or flipped, so it doesn't have to be calculated again.
+     * @return the hash key of the discs.
+     */
+    public long getHashKey() {
+        return hashKey;
+    }
+
+    /**
+     * This method changes the hash key, it is used by the board engines that keep their own storage
+     * when they place, remove or flip a disc.
+     * @param keys the XOR of the Zobrist keys that have changed.
+     */
+    protected final void updateHashKey(long keys) {
+        hashKey ^= keys;
+    }
+
+    /**
+     * This method returns the squares of the disc color as a 64-bit mask, where bit number (row * 8 + column)
+     * is set when that square has a disc of this color.
+     * @param colour the colour of the discs.
+     * @return the mask of the squares with the discs of this colour.
+     */
+    public long getDiscMask(Square colour) {
+        long mask = 0L;
+        for(int i = 0; i<rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (this.board[i][j] == colour) {
+                    mask |= 1L << getIndexPosition(i, j);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * This method flips all the discs in the mask to the other colour. Flipping the same mask
+     * again puts the discs back, which is used to undo a move.
+     * @param discsToFlip the mask of the squares to be flipped, they must all have a disc.
+     */
+    public void flipDiscs(long discsToFlip) {
+        while (discsToFlip != 0) {
+            int index = Long.numberOfTrailingZeros(discsToFlip);
+            int row = index / 8;
+            int col = index % 8;
+            board[row][col] = board[row][col].getOtherPlayerSquare();
+            hashKey ^= Zobrist.flipKey(index);
+            discsToFlip &= discsToFlip - 1;
+        }
+    }
+
     /**
      * This method checks the rows and columns are inside the bounds of the board.
      * @param row the row on which the square in bound will be checked.
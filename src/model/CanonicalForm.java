@@ -0,0 +1,58 @@
+package model;
+
+/**
+ * This class represents the canonical form of a position, which Symmetry.canonical finds in one pass over the
+ * eight symmetries of the board: the smallest pair of masks of the position and the symmetries that give it.
+ * A position that is symmetric itself is turned into its canonical form by more than one symmetry.
+ */
+public final class CanonicalForm {
+    private final long player;
+    private final long opponent;
+    private final int symmetries;
+
+    /**
+     * This constructor creates a canonical form.
+     * @param player the mask with the discs of the player to move after the symmetry.
+     * @param opponent the mask with the discs of the other player after the symmetry.
+     * @param symmetries a mask with bit i set if symmetry i turns the position into this form.
+     */
+    CanonicalForm(long player, long opponent, int symmetries) {
+        this.player = player;
+        this.opponent = opponent;
+        this.symmetries = symmetries;
+    }
+
+    /**
+     * This method returns the discs of the player to move in the canonical form.
+     * @return the mask of the discs.
+     */
+    public long getPlayerDiscs() {
+        return player;
+    }
+
+    /**
+     * This method returns the discs of the other player in the canonical form.
+     * @return the mask of the discs.
+     */
+    public long getOpponentDiscs() {
+        return opponent;
+    }
+
+    /**
+     * This method returns the lowest symmetry that turns the position into its canonical form. A move of the
+     * canonical form maps back to the position with Symmetry.undoOnSquare.
+     * @return the number of the symmetry, from 0 to 7.
+     */
+    public int getSymmetry() {
+        return Integer.numberOfTrailingZeros(symmetries);
+    }
+
+    /**
+     * This method returns all the symmetries that turn the position into its canonical form.
+     * @return a mask with bit i set if symmetry i gives the canonical form, bit 0 is set if the position is
+     * already canonical.
+     */
+    public int getSymmetries() {
+        return symmetries;
+    }
+}
@@ -24,7 +24,18 @@ public class Game {
      * @param player2 the second player of the game (white square).
     */
     public Game(Player player1, Player player2) {
-        this.board = new Board(8,8);
+        this(player1, player2, new Board(8,8));
+    }
+
+    /**
+     *This constructor creates a game that is played on the given board. It can be used to pick
+     * the board engine of the game, for example a Board or a BitBoard.
+     * @param player1 the first player of the game (black square).
+     * @param player2 the second player of the game (white square).
+     * @param board the board on which the game will be played.
+     */
+    public Game(Player player1, Player player2, Board board) {
+        this.board = board;
         this.player1 = player1;
         this.player2 = player2;
         this.playersTurn = player1;
@@ -61,10 +72,7 @@ public class Game {
         if(board.isInBounds(move.getRow(),move.getCol())) {
             if(board.getContent(move.getRow(),move.getCol()).equals(Square.EMPTY)) {
                 if (getTurn().getColor().equals(move.getSquare())) {
-                    return !(checkRightHorizontally(move).isEmpty() && checkLeftHorizontally(move).isEmpty()
-                            && checkUpVertically(move).isEmpty() && checkDownVertically(move).isEmpty() &&
-                            checkTopLeftDiagonally(move).isEmpty() && checkTopRightDiagonally(move).isEmpty() &&
-                            checkBottomLeftDiagonally(move).isEmpty() && checkBottomRightDiagonally(move).isEmpty());
+                    return getFlipMask(move.getIndex(), move.getSquare()) != 0;
                 }
             }
         }
@@ -72,23 +80,26 @@ public class Game {
     }
 
     /**
-     * This method generates moves, checks if there are valid for the specific square
+     * This method generates all the valid moves of a color at once with the move generator
      * and then adds them to list.
      * @param color takes the current square of the player of which we want to calculate the valid moves.
      * @return all the valid moves from the list.
      */
     public List<Integer> getAllValidMoves(Square color) {
-        List<Integer> allTheValidMoves = new ArrayList<>();
-        for(int i = 0; i< board.getRows(); i++) {
-            for(int j = 0; j<board.getCols(); j++) {
-                Move move = new Move(i,j,color);
-                if(isValidMove(move)) {
-                  int indexPosition = board.getIndexPosition(i,j);
-                  allTheValidMoves.add(indexPosition);
-                }
-            }
+        return MoveGenerator.toIndexList(getValidMoveMask(color));
+    }
+
+    /**
+     * This method calculates all the valid moves of a color as a 64-bit mask, where bit number (row * 8 + column)
+     * is set when the player can place a disc on that square.
+     * @param color takes the current square of the player of which we want to calculate the valid moves.
+     * @return the mask of the valid moves, or 0 if the color is empty.
+     */
+    public long getValidMoveMask(Square color) {
+        if (color == Square.EMPTY) {
+            return 0L;
         }
-        return allTheValidMoves;
+        return MoveGenerator.validMoves(board.getDiscMask(color), board.getDiscMask(color.getOtherPlayerSquare()));
     }
 
     /**
@@ -121,22 +132,64 @@ public class Game {
         if (!isValidMove(move)) {
             return 0;
         }
-        ArrayList<Integer> movesThatWillFlip = new ArrayList<>();
-
-        movesThatWillFlip.addAll(checkRightHorizontally(move));
-        movesThatWillFlip.addAll(checkLeftHorizontally(move));
-        movesThatWillFlip.addAll(checkUpVertically(move));
-        movesThatWillFlip.addAll(checkDownVertically(move));
-        movesThatWillFlip.addAll(checkTopRightDiagonally(move));
-        movesThatWillFlip.addAll(checkTopLeftDiagonally(move));
-        movesThatWillFlip.addAll(checkBottomRightDiagonally(move));
+        long discsThatWillFlip;
 
         if (flag) {
-            flipPlayerDiscs(movesThatWillFlip);
-            board.setSquareOnBoard(move.getRow(), move.getCol(), move.getSquare());
+            discsThatWillFlip = makeMove(move.getIndex(), move.getSquare());
             System.out.println("Player " + getPlayerBySquare(move.getSquare()).getName() + " played: " + move.getIndex() + ".");
+        } else {
+            discsThatWillFlip = getFlipMask(move.getIndex(), move.getSquare());
+        }
+        return Long.bitCount(discsThatWillFlip);
+    }
+
+    /**
+     * This method counts how many discs a move will flip in all the eight directions.
+     * It doesn't check the turn, doesn't print anything and doesn't change the board.
+     * @param move the move to be counted.
+     * @return the number of discs that the move will flip, 0 if the move is a pass, out of bounds or not valid.
+     */
+    public int countFlips(Move move) {
+        if (!board.isInBounds(move.getRow(), move.getCol()) || move.getSquare() == Square.EMPTY) {
+            return 0;
         }
-        return movesThatWillFlip.size();
+        return Long.bitCount(getFlipMask(move.getIndex(), move.getSquare()));
+    }
+
+    /**
+     * This method calculates all the discs that a move will flip as a 64-bit mask, where bit number
+     * (row * 8 + column) is set for every disc that changes colour. It doesn't change the board.
+     * @param index the index position where the disc is placed.
+     * @param colour the square color of the disc that is placed.
+     * @return the mask of the discs that will flip, or 0 if the move is not valid.
+     */
+    public long getFlipMask(int index, Square colour) {
+        return MoveGenerator.flips(board.getDiscMask(colour), board.getDiscMask(colour.getOtherPlayerSquare()), index);
+    }
+
+    /**
+     * This method places the disc of a move and flips the opponents discs with one mask, without any checks
+     * or output. It does not change the turn. The returned mask can be passed to undoMove to take the move back.
+     * @param index the index position where the disc is placed, it must be a valid move for the colour.
+     * @param colour the square color of the disc that is placed.
+     * @return the mask of the discs that were flipped.
+     */
+    public long makeMove(int index, Square colour) {
+        long flips = getFlipMask(index, colour);
+        board.flipDiscs(flips);
+        board.setSquareOnBoard(index / 8, index % 8, colour);
+        return flips;
+    }
+
+    /**
+     * This method takes back a move that was played with makeMove. It removes the placed disc
+     * and flips the same discs back to their colour.
+     * @param index the index position where the disc was placed.
+     * @param flips the mask of the discs that were flipped by the move.
+     */
+    public void undoMove(int index, long flips) {
+        board.removeSquareFromBoard(index / 8, index % 8);
+        board.flipDiscs(flips);
     }
 
     /**
@@ -280,6 +333,27 @@ public class Game {
         return playersTurn;
     }
 
+    /**
+     * This method returns the Zobrist hash key of the position, which is the hash key of the discs
+     * on the board together with the turn.
+     * @return the hash key of the position.
+     */
+    public long getHashKey() {
+        long key = board.getHashKey();
+        if (playersTurn.getColor() == Square.WHITE) {
+            key ^= Zobrist.sideKey();
+        }
+        return key;
+    }
+
+    /**
+     * This method takes an immutable snapshot of the discs on the board and the turn.
+     * @return the current position of the game.
+     */
+    public Position getPosition() {
+        return Position.fromGame(this);
+    }
+
     /**
      * This method changes the players turn.
      */
@@ -0,0 +1,141 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class generates the valid moves of the Othello game on 64-bit masks, where bit number (row * 8 + column)
+ * stands for one square of the board. Instead of checking every square on its own, all the squares of one side
+ * are moved together in each of the eight directions with shifts (Kogge-Stone fill), so the whole set of valid
+ * moves is calculated with a few dozen bit operations.
+ */
+public final class MoveGenerator {
+    /**
+     * The squares that are not on the left or right side of the board. Only opponent discs on these squares can
+     * be flipped in a horizontal or diagonal direction, which also stops a fill from going over the side of the
+     * board into the next row.
+     */
+    private static final long INNER_FILES = 0x7e7e7e7e7e7e7e7eL;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * This method calculates all the valid moves of a player.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @return the mask of the empty squares where the player can place a disc.
+     */
+    public static long validMoves(long player, long opponent) {
+        long empty = ~(player | opponent);
+        long inner = opponent & INNER_FILES;
+        long moves = fillUp(player, inner, 1) << 1;
+        moves |= fillDown(player, inner, 1) >>> 1;
+        moves |= fillUp(player, opponent, 8) << 8;
+        moves |= fillDown(player, opponent, 8) >>> 8;
+        moves |= fillUp(player, inner, 9) << 9;
+        moves |= fillDown(player, inner, 9) >>> 9;
+        moves |= fillUp(player, inner, 7) << 7;
+        moves |= fillDown(player, inner, 7) >>> 7;
+        return moves & empty;
+    }
+
+    /**
+     * This method calculates all the opponent discs that are flipped when the player places a disc on a square.
+     * In every direction the opponent discs next to the square are filled, and they are only flipped if
+     * the square after them has a disc of the player.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param index the index position where the player places the disc.
+     * @return the mask of the discs that are flipped, or 0 if the move is not valid.
+     */
+    public static long flips(long player, long opponent, int index) {
+        long move = 1L << index;
+        if (((player | opponent) & move) != 0) {
+            return 0L;
+        }
+        long inner = opponent & INNER_FILES;
+        long flips = 0L;
+        long line = fillUp(move, inner, 1);
+        if (((line << 1) & player) != 0) {
+            flips |= line;
+        }
+        line = fillDown(move, inner, 1);
+        if (((line >>> 1) & player) != 0) {
+            flips |= line;
+        }
+        line = fillUp(move, opponent, 8);
+        if (((line << 8) & player) != 0) {
+            flips |= line;
+        }
+        line = fillDown(move, opponent, 8);
+        if (((line >>> 8) & player) != 0) {
+            flips |= line;
+        }
+        line = fillUp(move, inner, 9);
+        if (((line << 9) & player) != 0) {
+            flips |= line;
+        }
+        line = fillDown(move, inner, 9);
+        if (((line >>> 9) & player) != 0) {
+            flips |= line;
+        }
+        line = fillUp(move, inner, 7);
+        if (((line << 7) & player) != 0) {
+            flips |= line;
+        }
+        line = fillDown(move, inner, 7);
+        if (((line >>> 7) & player) != 0) {
+            flips |= line;
+        }
+        return flips;
+    }
+
+    /**
+     * This method fills from the generator squares through the propagator squares towards the higher indexes.
+     * The fill is done in three steps of one, two and four squares, which is enough for the
+     * six opponent discs that can be between two squares on an 8 by 8 board.
+     * @param generator the squares where the fill starts.
+     * @param propagator the squares that the fill can go through.
+     * @param shift the shift of one square in the direction.
+     * @return the propagator squares that can be reached from the generator squares, without the generator squares.
+     */
+    private static long fillUp(long generator, long propagator, int shift) {
+        long fill = generator | (propagator & (generator << shift));
+        propagator &= propagator << shift;
+        fill |= propagator & (fill << (2 * shift));
+        propagator &= propagator << (2 * shift);
+        fill |= propagator & (fill << (4 * shift));
+        return fill & ~generator;
+    }
+
+    /**
+     * This method fills from the generator squares through the propagator squares towards the lower indexes.
+     * @param generator the squares where the fill starts.
+     * @param propagator the squares that the fill can go through.
+     * @param shift the shift of one square in the direction.
+     * @return the propagator squares that can be reached from the generator squares, without the generator squares.
+     */
+    private static long fillDown(long generator, long propagator, int shift) {
+        long fill = generator | (propagator & (generator >>> shift));
+        propagator &= propagator >>> shift;
+        fill |= propagator & (fill >>> (2 * shift));
+        propagator &= propagator >>> (2 * shift);
+        fill |= propagator & (fill >>> (4 * shift));
+        return fill & ~generator;
+    }
+
+    /**
+     * This method converts a mask of squares into the list of their indexes, from the lowest to the highest.
+     * @param squares the mask of squares.
+     * @return the list of the index positions of the squares.
+     */
+    public static List<Integer> toIndexList(long squares) {
+        List<Integer> indexes = new ArrayList<>(Long.bitCount(squares));
+        while (squares != 0) {
+            indexes.add(Long.numberOfTrailingZeros(squares));
+            squares &= squares - 1;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,280 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents an immutable position of the othello game: the discs of both players as two 64-bit masks
+ * and the colour of the player whose turn it is, which is stored as a boolean, so the data of a position is two
+ * longs and one byte. A position never changes, so it can be stored in maps, queues and caches and shared between
+ * threads without copying. Playing a move creates a new position.
+ * The masks are kept from the side of the player to move, so playing a move only swaps and XORs them.
+ */
+public final class Position {
+    /**
+     * The start position of the game, where black moves first.
+     */
+    public static final Position START = new Position(0x0000000810000000L, 0x0000001008000000L, false);
+
+    private final long player;
+    private final long opponent;
+    private final boolean whiteToMove;
+
+    /**
+     * This constructor creates a position from the discs of the player to move and the other player.
+     * @param player the mask with the discs of the player to move.
+     * @param opponent the mask with the discs of the other player.
+     * @param whiteToMove true if white is to move, false if black is to move.
+     */
+    private Position(long player, long opponent, boolean whiteToMove) {
+        this.player = player;
+        this.opponent = opponent;
+        this.whiteToMove = whiteToMove;
+    }
+
+    /**
+     * This method creates a position from the discs of both colours.
+     * @param blackDiscs the mask with the black discs.
+     * @param whiteDiscs the mask with the white discs, it cannot share a square with the black discs.
+     * @param sideToMove the colour of the player to move, BLACK or WHITE.
+     * @return the position.
+     */
+    public static Position of(long blackDiscs, long whiteDiscs, Square sideToMove) {
+        if ((blackDiscs & whiteDiscs) != 0) {
+            throw new IllegalArgumentException("A square cannot have a black and a white disc");
+        }
+        if (sideToMove == Square.BLACK) {
+            return new Position(blackDiscs, whiteDiscs, false);
+        } else if (sideToMove == Square.WHITE) {
+            return new Position(whiteDiscs, blackDiscs, true);
+        }
+        throw new IllegalArgumentException("The side to move must be black or white");
+    }
+
+    /**
+     * This method creates a position from the discs on a board.
+     * @param board the board with the discs, it is not changed.
+     * @param sideToMove the colour of the player to move, BLACK or WHITE.
+     * @return the position.
+     */
+    public static Position fromBoard(Board board, Square sideToMove) {
+        return of(board.getDiscMask(Square.BLACK), board.getDiscMask(Square.WHITE), sideToMove);
+    }
+
+    /**
+     * This method creates a position from the board and the turn of a game.
+     * @param game the game, it is not changed.
+     * @return the position.
+     */
+    public static Position fromGame(Game game) {
+        return fromBoard(game.returnBoard(), game.getTurn().getColor());
+    }
+
+    /**
+     * This method creates a new board with the discs of this position.
+     * @return the new board.
+     */
+    public BitBoard toBoard() {
+        return new BitBoard(getDiscs(Square.BLACK), getDiscs(Square.WHITE));
+    }
+
+    /**
+     * This method returns the discs of the player to move.
+     * @return the mask with the discs.
+     */
+    public long getPlayerDiscs() {
+        return player;
+    }
+
+    /**
+     * This method returns the discs of the player who is not to move.
+     * @return the mask with the discs.
+     */
+    public long getOpponentDiscs() {
+        return opponent;
+    }
+
+    /**
+     * This method returns the discs of a colour.
+     * @param colour the colour of the discs, or EMPTY for the empty squares.
+     * @return the mask with the discs.
+     */
+    public long getDiscs(Square colour) {
+        if (colour == Square.EMPTY) {
+            return ~(player | opponent);
+        }
+        return (colour == Square.WHITE) == whiteToMove ? player : opponent;
+    }
+
+    /**
+     * This method returns the colour of the player to move.
+     * @return BLACK or WHITE.
+     */
+    public Square getSideToMove() {
+        return whiteToMove ? Square.WHITE : Square.BLACK;
+    }
+
+    /**
+     * This method counts the empty squares.
+     * @return the number of empty squares.
+     */
+    public int getEmptyCount() {
+        return Long.bitCount(~(player | opponent));
+    }
+
+    /**
+     * This method calculates the valid moves of the player to move.
+     * @return the mask of the valid moves.
+     */
+    public long getValidMoves() {
+        return MoveGenerator.validMoves(player, opponent);
+    }
+
+    /**
+     * This method checks if the player to move can place a disc on a square.
+     * @param index the index position of the square.
+     * @return true if the move is valid, false otherwise.
+     */
+    public boolean isValidMove(int index) {
+        return index >= 0 && index < 64 && (getValidMoves() & (1L << index)) != 0;
+    }
+
+    /**
+     * This method plays a move of the player to move.
+     * @param index the index position of the move.
+     * @return the position after the move, where the other player is to move.
+     */
+    public Position play(int index) {
+        if (!isValidMove(index)) {
+            throw new IllegalArgumentException("Move " + index + " is not valid in this position");
+        }
+        long flips = MoveGenerator.flips(player, opponent, index);
+        return new Position(opponent ^ flips, player ^ flips ^ (1L << index), !whiteToMove);
+    }
+
+    /**
+     * This method passes the turn to the other player.
+     * @return the position with the same discs where the other player is to move.
+     */
+    public Position pass() {
+        return new Position(opponent, player, !whiteToMove);
+    }
+
+    /**
+     * This method creates all the positions that can follow this one. If the player to move has no valid move
+     * but the game is not over, the only child is the pass.
+     * @return the positions after every valid move, in the order of the index positions, or an empty list if
+     * the game is over.
+     */
+    public List<Position> children() {
+        List<Position> children = new ArrayList<>();
+        long moves = getValidMoves();
+        if (moves == 0) {
+            if (MoveGenerator.validMoves(opponent, player) != 0) {
+                children.add(pass());
+            }
+            return children;
+        }
+        for (; moves != 0; moves &= moves - 1) {
+            children.add(play(Long.numberOfTrailingZeros(moves)));
+        }
+        return children;
+    }
+
+    /**
+     * This method checks if neither player can move anymore.
+     * @return true if the game is over, false otherwise.
+     */
+    public boolean isGameOver() {
+        return getValidMoves() == 0 && MoveGenerator.validMoves(opponent, player) == 0;
+    }
+
+    /**
+     * This method calculates the disc difference from the side of the player to move.
+     * @return the discs of the player to move minus the discs of the other player.
+     */
+    public int getDiscDifference() {
+        return Long.bitCount(player) - Long.bitCount(opponent);
+    }
+
+    /**
+     * This method calculates the Zobrist hash key of the position, which is the same key as Game.getHashKey
+     * for the same discs and turn.
+     * @return the hash key.
+     */
+    public long getHashKey() {
+        return Zobrist.hash(getDiscs(Square.BLACK), getDiscs(Square.WHITE), getSideToMove());
+    }
+
+    /**
+     * This method applies a symmetry of the board to the position.
+     * @param symmetry the number of the symmetry, from 0 to 7 (see Symmetry).
+     * @return the position after the symmetry, with the same player to move.
+     */
+    public Position applySymmetry(int symmetry) {
+        return new Position(Symmetry.apply(player, symmetry), Symmetry.apply(opponent, symmetry), whiteToMove);
+    }
+
+    /**
+     * This method finds the symmetry that turns this position into its canonical form. A move of the canonical
+     * position maps back to this position with Symmetry.undoOnSquare.
+     * @return the number of the symmetry, from 0 to 7.
+     */
+    public int getCanonicalSymmetry() {
+        return Symmetry.canonicalSymmetry(player, opponent);
+    }
+
+    /**
+     * This method returns the canonical form of the position, which is the same for all the positions that
+     * only differ by a symmetry of the board. It can be used as the key of caches and books.
+     * @return the canonical position.
+     */
+    public Position canonical() {
+        CanonicalForm form = Symmetry.canonical(player, opponent);
+        return new Position(form.getPlayerDiscs(), form.getOpponentDiscs(), whiteToMove);
+    }
+
+    /**
+     * This method checks if another object is a position with the same discs and the same player to move.
+     * @param object the object to be compared.
+     * @return true if the positions are the same, false otherwise.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Position other)) {
+            return false;
+        }
+        return player == other.player && opponent == other.opponent && whiteToMove == other.whiteToMove;
+    }
+
+    /**
+     * This method calculates the hash code from the discs and the player to move.
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+        long hash = player * 0x9e3779b97f4a7c15L + opponent;
+        hash = (hash ^ (hash >>> 29)) * 0xbf58476d1ce4e5b9L + getSideToMove().ordinal();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * This method prints the position as 64 characters, X for black, O for white and - for empty,
+     * followed by the player to move.
+     * @return the string of the position.
+     */
+    @Override
+    public String toString() {
+        long black = getDiscs(Square.BLACK);
+        long white = getDiscs(Square.WHITE);
+        StringBuilder squares = new StringBuilder(66);
+        for (int index = 0; index < 64; index++) {
+            long bit = 1L << index;
+            squares.append((black & bit) != 0 ? 'X' : (white & bit) != 0 ? 'O' : '-');
+        }
+        return squares.append(' ').append(whiteToMove ? 'O' : 'X').toString();
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * This class is a player that is never asked for a move. It is used when the moves are played on the game directly,
+ * for example by the game server, the tools, the benchmarks and the tests, and the players are only needed to create
+ * the game.
+ */
+public class SilentPlayer extends Player {
+    /**
+     * This method constructs a new silent player.
+     * @param name the name of the player.
+     * @param color the square color of the player.
+     */
+    public SilentPlayer(String name, Square color) {
+        super(name, color);
+    }
+
+    /**
+     * This method is never called, because the moves of a silent player are played on the game directly.
+     * @param game the current game being played.
+     * @return null, there is no move.
+     */
+    @Override
+    public Move makeMove(Game game) {
+        return null;
+    }
+}
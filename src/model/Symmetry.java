@@ -0,0 +1,189 @@
+package model;
+
+/**
+ * This class has the eight symmetries of the othello board on the 64-bit masks of the discs. The rules of the
+ * game are the same after a symmetry, so the positions that only differ by a symmetry have the same score and
+ * their moves map onto each other.
+ * A symmetry is a number from 0 to 7 made of three bits that are applied in this order: bit 2 transposes the board
+ * (rows become columns), bit 0 mirrors the columns and bit 1 mirrors the rows. Symmetry 0 leaves the board as it is
+ * and symmetry 3 turns it by 180 degrees, which is the bit reversal of the mask.
+ */
+public final class Symmetry {
+    /**
+     * The number of symmetries of the board.
+     */
+    public static final int COUNT = 8;
+
+    private static final int MIRROR_COLUMNS = 1;
+    private static final int MIRROR_ROWS = 2;
+    private static final int TRANSPOSE = 4;
+
+    private Symmetry() {
+    }
+
+    /**
+     * This method mirrors the rows of the board: the first row becomes the last row.
+     * @param mask the mask to be mirrored.
+     * @return the mirrored mask.
+     */
+    public static long mirrorRows(long mask) {
+        return Long.reverseBytes(mask);
+    }
+
+    /**
+     * This method mirrors the columns of the board: the first column becomes the last column.
+     * @param mask the mask to be mirrored.
+     * @return the mirrored mask.
+     */
+    public static long mirrorColumns(long mask) {
+        mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+        mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+        return ((mask >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((mask & 0x0f0f0f0f0f0f0f0fL) << 4);
+    }
+
+    /**
+     * This method transposes the board along the diagonal from square 0 to square 63, so the square at
+     * (row, column) moves to (column, row).
+     * @param mask the mask to be transposed.
+     * @return the transposed mask.
+     */
+    public static long transpose(long mask) {
+        long swap = 0x0f0f0f0f00000000L & (mask ^ (mask << 28));
+        mask ^= swap ^ (swap >>> 28);
+        swap = 0x3333000033330000L & (mask ^ (mask << 14));
+        mask ^= swap ^ (swap >>> 14);
+        swap = 0x5500550055005500L & (mask ^ (mask << 7));
+        return mask ^ swap ^ (swap >>> 7);
+    }
+
+    /**
+     * This method applies a symmetry to a mask.
+     * @param mask the mask to be changed.
+     * @param symmetry the number of the symmetry, from 0 to 7.
+     * @return the mask after the symmetry.
+     */
+    public static long apply(long mask, int symmetry) {
+        if ((symmetry & TRANSPOSE) != 0) {
+            mask = transpose(mask);
+        }
+        if ((symmetry & (MIRROR_COLUMNS | MIRROR_ROWS)) == (MIRROR_COLUMNS | MIRROR_ROWS)) {
+            return Long.reverse(mask);
+        }
+        if ((symmetry & MIRROR_COLUMNS) != 0) {
+            mask = mirrorColumns(mask);
+        }
+        if ((symmetry & MIRROR_ROWS) != 0) {
+            mask = mirrorRows(mask);
+        }
+        return mask;
+    }
+
+    /**
+     * This method takes back a symmetry from a mask, so undo(apply(mask, symmetry), symmetry) is the mask again.
+     * @param mask the mask after the symmetry.
+     * @param symmetry the number of the symmetry, from 0 to 7.
+     * @return the mask before the symmetry.
+     */
+    public static long undo(long mask, int symmetry) {
+        if ((symmetry & (MIRROR_COLUMNS | MIRROR_ROWS)) == (MIRROR_COLUMNS | MIRROR_ROWS)) {
+            mask = Long.reverse(mask);
+        } else if ((symmetry & MIRROR_ROWS) != 0) {
+            mask = mirrorRows(mask);
+        } else if ((symmetry & MIRROR_COLUMNS) != 0) {
+            mask = mirrorColumns(mask);
+        }
+        if ((symmetry & TRANSPOSE) != 0) {
+            mask = transpose(mask);
+        }
+        return mask;
+    }
+
+    /**
+     * This method calculates where a square goes after a symmetry.
+     * @param index the index position of the square.
+     * @param symmetry the number of the symmetry, from 0 to 7.
+     * @return the index position of the square after the symmetry.
+     */
+    public static int applyToSquare(int index, int symmetry) {
+        int row = index >> 3;
+        int col = index & 7;
+        if ((symmetry & TRANSPOSE) != 0) {
+            int temp = row;
+            row = col;
+            col = temp;
+        }
+        if ((symmetry & MIRROR_COLUMNS) != 0) {
+            col = 7 - col;
+        }
+        if ((symmetry & MIRROR_ROWS) != 0) {
+            row = 7 - row;
+        }
+        return row * 8 + col;
+    }
+
+    /**
+     * This method calculates where a square came from before a symmetry. It maps a move that was found on
+     * the changed board back to the original board.
+     * @param index the index position of the square after the symmetry.
+     * @param symmetry the number of the symmetry, from 0 to 7.
+     * @return the index position of the square before the symmetry.
+     */
+    public static int undoOnSquare(int index, int symmetry) {
+        int row = index >> 3;
+        int col = index & 7;
+        if ((symmetry & MIRROR_COLUMNS) != 0) {
+            col = 7 - col;
+        }
+        if ((symmetry & MIRROR_ROWS) != 0) {
+            row = 7 - row;
+        }
+        if ((symmetry & TRANSPOSE) != 0) {
+            return col * 8 + row;
+        }
+        return row * 8 + col;
+    }
+
+    /**
+     * This method finds the canonical form of a position: the smallest pair of masks among the eight symmetries,
+     * compared as unsigned numbers with the mask of the player first, together with the symmetries that give it.
+     * All the positions that only differ by a symmetry have the same canonical form.
+     * @param player the mask with the discs of the player to move.
+     * @param opponent the mask with the discs of the other player.
+     * @return the canonical form with its masks and symmetries.
+     */
+    public static CanonicalForm canonical(long player, long opponent) {
+        int symmetries = 1;
+        long bestPlayer = player;
+        long bestOpponent = opponent;
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            long newPlayer = apply(player, symmetry);
+            int compare = Long.compareUnsigned(newPlayer, bestPlayer);
+            if (compare < 0) {
+                symmetries = 1 << symmetry;
+                bestPlayer = newPlayer;
+                bestOpponent = apply(opponent, symmetry);
+            } else if (compare == 0) {
+                long newOpponent = apply(opponent, symmetry);
+                compare = Long.compareUnsigned(newOpponent, bestOpponent);
+                if (compare < 0) {
+                    symmetries = 1 << symmetry;
+                    bestOpponent = newOpponent;
+                } else if (compare == 0) {
+                    symmetries |= 1 << symmetry;
+                }
+            }
+        }
+        return new CanonicalForm(bestPlayer, bestOpponent, symmetries);
+    }
+
+    /**
+     * This method finds the symmetry that gives the canonical form of a position. If several symmetries give it,
+     * the lowest number is returned.
+     * @param player the mask with the discs of the player to move.
+     * @param opponent the mask with the discs of the other player.
+     * @return the number of the symmetry of the canonical form.
+     */
+    public static int canonicalSymmetry(long player, long opponent) {
+        return canonical(player, opponent).getSymmetry();
+    }
+}
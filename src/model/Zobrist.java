@@ -0,0 +1,106 @@
+package model;
+
+/**
+ * This class stores the Zobrist keys of the othello game. Every square has a random 64-bit key for a black disc
+ * and for a white disc, and there is one more key for the turn of the white player. The hash key of a position is
+ * the XOR of the keys of all its discs, so placing or flipping a disc only changes the hash key by one or two XORs.
+ * The keys are made from a fixed seed, so the hash key of a position is the same every time the game is run.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x4f7468656c6c6f21L;
+    private static final long[] BLACK_KEYS = new long[64];
+    private static final long[] WHITE_KEYS = new long[64];
+    private static final long[] FLIP_KEYS = new long[64];
+    private static final long WHITE_TO_MOVE_KEY;
+
+    static {
+        long state = SEED;
+        for (int index = 0; index < 64; index++) {
+            state += 0x9e3779b97f4a7c15L;
+            BLACK_KEYS[index] = mix(state);
+            state += 0x9e3779b97f4a7c15L;
+            WHITE_KEYS[index] = mix(state);
+            FLIP_KEYS[index] = BLACK_KEYS[index] ^ WHITE_KEYS[index];
+        }
+        state += 0x9e3779b97f4a7c15L;
+        WHITE_TO_MOVE_KEY = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * This method mixes the bits of a number (the SplitMix64 finalizer) to make the random keys.
+     * @param value the number to be mixed.
+     * @return the mixed number.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * This method returns the key of a disc on a square.
+     * @param colour the colour of the disc.
+     * @param index the index position of the square.
+     * @return the key of the disc, or 0 if the colour is empty.
+     */
+    public static long discKey(Square colour, int index) {
+        if (colour == Square.BLACK) {
+            return BLACK_KEYS[index];
+        } else if (colour == Square.WHITE) {
+            return WHITE_KEYS[index];
+        }
+        return 0L;
+    }
+
+    /**
+     * This method returns the change of the hash key when the disc on a square is flipped, in either direction.
+     * @param index the index position of the square.
+     * @return the key of flipping the disc.
+     */
+    public static long flipKey(int index) {
+        return FLIP_KEYS[index];
+    }
+
+    /**
+     * This method returns the change of the hash key when all the discs of a mask are flipped.
+     * @param flips the mask of the flipped discs.
+     * @return the XOR of the flip keys of the discs.
+     */
+    public static long flipsKey(long flips) {
+        long key = 0L;
+        while (flips != 0) {
+            key ^= FLIP_KEYS[Long.numberOfTrailingZeros(flips)];
+            flips &= flips - 1;
+        }
+        return key;
+    }
+
+    /**
+     * This method returns the key that is added to the hash key when it is the white player's turn.
+     * @return the key of the turn.
+     */
+    public static long sideKey() {
+        return WHITE_TO_MOVE_KEY;
+    }
+
+    /**
+     * This method calculates the hash key of a position from scratch.
+     * @param black the mask with the black discs.
+     * @param white the mask with the white discs.
+     * @param sideToMove the colour of the player whose turn it is.
+     * @return the hash key of the position.
+     */
+    public static long hash(long black, long white, Square sideToMove) {
+        long key = sideToMove == Square.WHITE ? WHITE_TO_MOVE_KEY : 0L;
+        for (long discs = black; discs != 0; discs &= discs - 1) {
+            key ^= BLACK_KEYS[Long.numberOfTrailingZeros(discs)];
+        }
+        for (long discs = white; discs != 0; discs &= discs - 1) {
+            key ^= WHITE_KEYS[Long.numberOfTrailingZeros(discs)];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,98 @@
+package tools;
+
+import archive.GameArchive;
+import archive.GameCursor;
+import archive.GameRecord;
+import archive.PositionIndex;
+import archive.PositionIndexer;
+import model.Position;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * This class builds the position index of a game archive and answers queries on it.
+ * Usage: ArchiveIndex index [archive] [index] to index the games that are not indexed yet, or
+ * ArchiveIndex query [archive] [index] [moves] to show the games that reach the position after the moves and the
+ * moves that were played from it. The moves are index positions separated by commas, with -1 for a pass, and no
+ * moves is the start position.
+ */
+public class ArchiveIndex {
+    /**
+     * The number of games that a query prints.
+     */
+    private static final int GAMES_SHOWN = 5;
+
+    /**
+     * This main method indexes an archive or queries its index.
+     * @param args the command, the archive, the index and the moves of a query.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !(args[0].equals("index") || args[0].equals("query"))) {
+            System.out.println("Usage: ArchiveIndex index <archive> <index>");
+            System.out.println("       ArchiveIndex query <archive> <index> [moves]");
+            return;
+        }
+        Path archivePath = Path.of(args[1]);
+        Path indexPath = Path.of(args[2]);
+        if (args[0].equals("index")) {
+            long start = System.nanoTime();
+            long games = new PositionIndexer().update(archivePath, indexPath);
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            try (PositionIndex index = new PositionIndex(indexPath)) {
+                System.out.printf("%,d games indexed in %,d ms, the index has %,d positions%n", games, millis,
+                        index.getEntryCount());
+            }
+        } else {
+            query(archivePath, indexPath, positionAfter(args.length > 3 ? args[3] : ""));
+        }
+    }
+
+    /**
+     * This method plays moves from the start position.
+     * @param moves the index positions of the moves separated by commas, -1 for a pass.
+     * @return the position after the moves.
+     */
+    private static Position positionAfter(String moves) {
+        Position position = Position.START;
+        for (String move : moves.split(",")) {
+            if (!move.isBlank()) {
+                int index = Integer.parseInt(move.trim());
+                position = index == -1 ? position.pass() : position.play(index);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * This method prints the games that reach a position and the moves that were played from it.
+     * @param archivePath the path of the game archive.
+     * @param indexPath the path of the index file.
+     * @param position the position.
+     * @throws IOException if a file cannot be read.
+     */
+    private static void query(Path archivePath, Path indexPath, Position position) throws IOException {
+        try (GameArchive archive = new GameArchive(archivePath); PositionIndex index = new PositionIndex(indexPath)) {
+            long start = System.nanoTime();
+            long[] games = index.findGames(position);
+            long[] frequencies = index.moveFrequencies(position);
+            double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+            System.out.println(position.toBoard());
+            System.out.printf("%,d games reach this position, found in %.3f ms among %,d positions%n",
+                    games.length, millis, index.getEntryCount());
+            for (int move = 0; move < frequencies.length; move++) {
+                if (frequencies[move] > 0) {
+                    System.out.printf("  %-4s %,d%n", move == GameRecord.PASS ? "pass" : String.valueOf(move),
+                            frequencies[move]);
+                }
+            }
+            for (int i = 0; i < Math.min(GAMES_SHOWN, games.length); i++) {
+                GameCursor cursor = archive.cursorAt(games[i]);
+                System.out.println("  " + cursor.getBlackName() + " " + cursor.getBlackDiscs() + " - "
+                        + cursor.getWhiteDiscs() + " " + cursor.getWhiteName() + " (offset " + games[i] + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package tools;
+
+import archive.GameArchive;
+import controller.OpeningBook;
+import model.Position;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * This class builds an opening book file from the games of a game archive or from a move-list file, and prints
+ * the moves that the book knows for the start position.
+ * Usage: BookBuilder archive [archive] [book] [plies] or BookBuilder moves [move-list file] [book] [plies].
+ */
+public class BookBuilder {
+    /**
+     * This main method builds the book and writes it to the book file.
+     * @param args the kind of input, the input file, the book file and optionally the number of plies.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !(args[0].equals("archive") || args[0].equals("moves"))) {
+            System.out.println("Usage: BookBuilder archive <archive> <book> [plies]");
+            System.out.println("       BookBuilder moves <move-list file> <book> [plies]");
+            return;
+        }
+        int maxPlies = args.length > 3 ? Integer.parseInt(args[3]) : OpeningBook.DEFAULT_MAX_PLIES;
+        long start = System.nanoTime();
+        OpeningBook book;
+        if (args[0].equals("archive")) {
+            try (GameArchive archive = new GameArchive(Path.of(args[1]))) {
+                book = OpeningBook.fromArchive(archive, maxPlies);
+            }
+        } else {
+            book = OpeningBook.fromMoveList(Path.of(args[1]), maxPlies);
+        }
+        book.save(Path.of(args[2]));
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        System.out.printf("%,d book moves of the first %d plies written to %s in %,d ms%n", book.size(), maxPlies,
+                args[2], millis);
+
+        Position position = Position.START;
+        for (long moves = position.getValidMoves(); moves != 0; moves &= moves - 1) {
+            int move = Long.numberOfTrailingZeros(moves);
+            System.out.printf("  %2d  %,8d games  %+.2f discs%n", move, book.getVisits(position, move),
+                    book.getAverageScore(position, move));
+        }
+        System.out.println("book move: " + book.bestMove(position));
+    }
+}
@@ -0,0 +1,83 @@
+package tools;
+
+import controller.EndgameSolver;
+import controller.SearchResult;
+import model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class measures how long the endgame solver needs to solve a fixed set of positions with the same number
+ * of empty squares. The positions are made with random moves from a seed, so every run solves the same positions.
+ * Every position is solved with an empty transposition table, and the time, the nodes and the score of every
+ * position are printed, followed by the average and the slowest time.
+ * Usage: EndgameBench [empties] [positions] [seed].
+ */
+public class EndgameBench {
+    /**
+     * The number of smaller positions that are solved before the measured positions.
+     */
+    private static final int WARM_UP_POSITIONS = 20;
+
+    /**
+     * This main method solves the positions and prints the results.
+     * @param args optionally the number of empty squares, the number of positions and the seed.
+     */
+    public static void main(String[] args) {
+        int empties = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 20240610L;
+        List<Position> positions = positions(empties, count, seed);
+
+        // Smaller positions are solved first, so the JIT has compiled the solver before the times are measured.
+        for (Position position : positions(Math.max(1, empties - 6), WARM_UP_POSITIONS, seed + 1)) {
+            new EndgameSolver().solve(position.getPlayerDiscs(), position.getOpponentDiscs());
+        }
+
+        long totalNodes = 0;
+        long totalNanos = 0;
+        long slowestNanos = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            Position position = positions.get(i);
+            EndgameSolver solver = new EndgameSolver();
+            long start = System.nanoTime();
+            SearchResult result = solver.solve(position.getPlayerDiscs(), position.getOpponentDiscs());
+            long nanos = System.nanoTime() - start;
+            totalNodes += result.getNodes();
+            totalNanos += nanos;
+            slowestNanos = Math.max(slowestNanos, nanos);
+            System.out.printf("position %2d  score %+3d  move %2d  nodes %,13d  %,8d ms%n", i + 1, result.getScore(),
+                    result.getBestMove(), result.getNodes(), nanos / 1_000_000L);
+        }
+        System.out.printf("%d positions with %d empties: average %,d ms, slowest %,d ms, %,d nodes, %,d nodes/s%n",
+                positions.size(), empties, totalNanos / positions.size() / 1_000_000L, slowestNanos / 1_000_000L,
+                totalNodes, totalNanos > 0 ? totalNodes * 1_000_000_000L / totalNanos : 0);
+    }
+
+    /**
+     * This method makes the positions of the benchmark by playing random moves from the start position until
+     * the number of empty squares is reached. Positions where the game is over or the player has to pass are
+     * skipped.
+     * @param empties the number of empty squares of the positions.
+     * @param count the number of positions.
+     * @param seed the seed of the random moves.
+     * @return the positions.
+     */
+    private static List<Position> positions(int empties, int count, long seed) {
+        Random random = new Random(seed);
+        List<Position> positions = new ArrayList<>();
+        while (positions.size() < count) {
+            Position position = Position.START;
+            while (position.getEmptyCount() > empties && !position.isGameOver()) {
+                List<Position> children = position.children();
+                position = children.get(random.nextInt(children.size()));
+            }
+            if (position.getEmptyCount() == empties && position.getValidMoves() != 0) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,188 @@
+package tools;
+
+import model.BitBoard;
+import model.Board;
+import model.Game;
+import model.Move;
+import model.MoveGenerator;
+import model.SilentPlayer;
+import model.Square;
+
+import java.util.List;
+
+/**
+ * This class is the perft (performance test) tool of the othello game. It counts all the leaf positions of the
+ * game tree to a depth, which is a check of the move generation and a benchmark of its speed at the same time.
+ * A pass counts as one ply, and a finished game counts as a leaf even when the depth is not used up, which
+ * is how the published othello perft counts are made.
+ * Every depth is counted twice: once through the Game methods getAllValidMoves, isValidMove, doMove, makeMove
+ * and undoMove, and once on the raw 64-bit masks with the move generator. From the standard start position both
+ * counts are compared with the published counts.
+ * Usage: Perft [depth] [array|bitboard] [position side], where position is 64 characters with X for black,
+ * O for white and - for empty, in the order of the index positions, and side is X or O for the player to move.
+ */
+public class Perft {
+    /**
+     * The published number of leaf positions from the start position, where PERFT_COUNTS[depth] is the count
+     * of that depth.
+     */
+    static final long[] PERFT_COUNTS = {1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L,
+            3005288L, 24571284L, 212258800L, 1939886636L, 18429641748L, 184042084512L};
+
+    /**
+     * This main method runs perft to every depth up to the given one and prints the counts and the speed.
+     * It exits with status 1 if the counts are different from each other or from the published counts.
+     * @param args optionally the depth, the board engine and a custom position.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        boolean bitBoard = args.length > 1 && args[1].equals("bitboard");
+        Board board = bitBoard ? new BitBoard() : new Board(8, 8);
+        Game game = new Game(new SilentPlayer("Black", Square.BLACK), new SilentPlayer("White", Square.WHITE), board);
+        boolean startPosition = args.length < 3;
+        if (!startPosition) {
+            setPosition(game, args[2], args.length > 3 ? args[3] : "X");
+        }
+        System.out.println(board);
+
+        boolean failed = false;
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long gameNodes = perft(game, d, false);
+            long gameTime = System.nanoTime() - start;
+
+            Square colour = game.getTurn().getColor();
+            start = System.nanoTime();
+            long nodes = perft(board.getDiscMask(colour), board.getDiscMask(colour.getOtherPlayerSquare()), d, false);
+            long time = System.nanoTime() - start;
+
+            String check = "";
+            if (gameNodes != nodes) {
+                check = "  MISMATCH: the Game methods counted " + gameNodes;
+                failed = true;
+            } else if (startPosition && d < PERFT_COUNTS.length) {
+                if (nodes == PERFT_COUNTS[d]) {
+                    check = "  ok";
+                } else {
+                    check = "  MISMATCH: the published count is " + PERFT_COUNTS[d];
+                    failed = true;
+                }
+            }
+            System.out.printf("depth %2d  nodes %,15d  game %,8d ms %,13d nodes/s  masks %,8d ms %,13d nodes/s%s%n",
+                    d, nodes, gameTime / 1_000_000L, nodesPerSecond(gameNodes, gameTime),
+                    time / 1_000_000L, nodesPerSecond(nodes, time), check);
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * This method counts the leaf positions through the methods of the game. Every move of getAllValidMoves
+     * must pass isValidMove, and doMove must count the same flips as makeMove. The game is the same as before
+     * when the method returns.
+     * @param game the game with the position, the player whose turn it is moves first.
+     * @param depth the number of plies that are still to be played.
+     * @param passed true if the previous ply was a pass.
+     * @return the number of leaf positions.
+     */
+    static long perft(Game game, int depth, boolean passed) {
+        if (depth == 0) {
+            return 1;
+        }
+        Square colour = game.getTurn().getColor();
+        List<Integer> validMoves = game.getAllValidMoves(colour);
+        if (validMoves.isEmpty()) {
+            if (passed) {
+                return 1;
+            }
+            game.changeTurns();
+            long nodes = perft(game, depth - 1, true);
+            game.changeTurns();
+            return nodes;
+        }
+        long nodes = 0;
+        for (int index : validMoves) {
+            Move move = new Move(index / 8, index % 8, colour);
+            if (!game.isValidMove(move)) {
+                throw new IllegalStateException("isValidMove rejects " + move + " on\n" + game.returnBoard());
+            }
+            int flipCount = game.doMove(move, false);
+            long flips = game.makeMove(index, colour);
+            if (Long.bitCount(flips) != flipCount) {
+                throw new IllegalStateException("doMove counts " + flipCount + " flips for " + move
+                        + " but makeMove flips " + Long.bitCount(flips));
+            }
+            game.changeTurns();
+            nodes += perft(game, depth - 1, false);
+            game.changeTurns();
+            game.undoMove(index, flips);
+        }
+        return nodes;
+    }
+
+    /**
+     * This method counts the leaf positions on the 64-bit masks of the discs with the move generator.
+     * @param player the mask with the discs of the player who is moving.
+     * @param opponent the mask with the discs of the other player.
+     * @param depth the number of plies that are still to be played.
+     * @param passed true if the previous ply was a pass.
+     * @return the number of leaf positions.
+     */
+    static long perft(long player, long opponent, int depth, boolean passed) {
+        if (depth == 0) {
+            return 1;
+        }
+        long moves = MoveGenerator.validMoves(player, opponent);
+        if (moves == 0) {
+            return passed ? 1 : perft(opponent, player, depth - 1, true);
+        }
+        if (depth == 1) {
+            return Long.bitCount(moves);
+        }
+        long nodes = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int index = Long.numberOfTrailingZeros(moves);
+            long flips = MoveGenerator.flips(player, opponent, index);
+            nodes += perft(opponent ^ flips, player ^ flips ^ (1L << index), depth - 1, false);
+        }
+        return nodes;
+    }
+
+    /**
+     * This method puts a custom position on the board of the game.
+     * @param game the game with the board.
+     * @param position 64 characters with X for black, O for white and - for empty.
+     * @param side X if black is to move, O if white is to move.
+     */
+    private static void setPosition(Game game, String position, String side) {
+        if (position.length() != 64) {
+            throw new IllegalArgumentException("The position must have 64 characters");
+        }
+        Board board = game.returnBoard();
+        for (int index = 0; index < 64; index++) {
+            board.removeSquareFromBoard(index / 8, index % 8);
+            char disc = Character.toUpperCase(position.charAt(index));
+            if (disc == 'X') {
+                board.setSquareOnBoard(index / 8, index % 8, Square.BLACK);
+            } else if (disc == 'O') {
+                board.setSquareOnBoard(index / 8, index % 8, Square.WHITE);
+            } else if (disc != '-') {
+                throw new IllegalArgumentException("Unknown square '" + disc + "' in the position");
+            }
+        }
+        if (side.equalsIgnoreCase("O")) {
+            game.changeTurns();
+        }
+    }
+
+    /**
+     * This method calculates the speed of a count.
+     * @param nodes the number of leaf positions.
+     * @param nanos the time of the count in nanoseconds.
+     * @return the number of leaf positions per second.
+     */
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos > 0 ? nodes * 1_000_000_000L / nanos : 0;
+    }
+}
@@ -0,0 +1,74 @@
+package tools;
+
+import controller.SearchConfig;
+import controller.SearchEngine;
+import controller.SearchResult;
+import model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class measures how many positions the search engine needs to reach every depth on a fixed set of
+ * midgame positions, which shows how well the moves are ordered and how much the pruning saves.
+ * The positions are made with random moves from a seed, so every run searches the same positions. Every position
+ * is searched to every depth with an empty transposition table and one thread, and the endgame solver is off.
+ * Usage: SearchBench [depth] [positions] [seed] [features], where features are the search features that are on,
+ * for example "pvs,aspiration" or "none", as for SelfPlay. Without it, the defaults of the search config are used.
+ */
+public class SearchBench {
+    /**
+     * This main method searches the positions and prints the nodes and the time for every depth.
+     * @param args optionally the last depth, the number of positions, the seed and the search features.
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 20240601L;
+        List<Position> positions = positions(count, seed);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            SearchConfig config = new SearchConfig().setMaxDepth(depth).setEndgameEmpties(0)
+                    .setTranspositionTableMegabytes(32);
+            if (args.length > 3) {
+                SelfPlay.setFeatures(config, args[3]);
+            }
+            SearchEngine engine = new SearchEngine(config);
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (Position position : positions) {
+                engine.getTranspositionTable().clear();
+                SearchResult result = engine.search(position);
+                nodes += result.getNodes();
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            System.out.printf("depth %2d  nodes %,15d  %,8d ms  %,12d nodes/s%n", depth, nodes, millis,
+                    millis > 0 ? nodes * 1000L / millis : 0);
+        }
+    }
+
+    /**
+     * This method makes the positions of the benchmark by playing 12 to 30 random moves from the start position.
+     * Positions where the game is over or the player has to pass are skipped.
+     * @param count the number of positions.
+     * @param seed the seed of the random moves.
+     * @return the positions.
+     */
+    private static List<Position> positions(int count, long seed) {
+        Random random = new Random(seed);
+        List<Position> positions = new ArrayList<>();
+        while (positions.size() < count) {
+            Position position = Position.START;
+            int plies = 12 + random.nextInt(19);
+            for (int ply = 0; ply < plies && !position.isGameOver(); ply++) {
+                List<Position> children = position.children();
+                position = children.get(random.nextInt(children.size()));
+            }
+            if (position.getValidMoves() != 0) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+}
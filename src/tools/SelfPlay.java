@@ -0,0 +1,120 @@
+package tools;
+
+import archive.GameRecordWriter;
+import controller.ComputerPlayer;
+import controller.MctsConfig;
+import controller.MctsPlayer;
+import controller.OpeningBook;
+import controller.PatternEvaluator;
+import controller.PlayerFactory;
+import controller.SearchConfig;
+import controller.SearchEngine;
+import controller.TimeManager;
+import controller.Tournament;
+import controller.TournamentResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class runs a headless tournament between two computer players and prints the statistics at the end.
+ * Usage: SelfPlay [games] [first player] [second player] [threads] [opening plies] [seed] [archive].
+ * A player is "random" for random moves, or "search:depth", "search:depth:endgame", "search:depth:endgame:weights"
+ * or "search:depth:endgame:weights:book" for the search engine with a fixed depth, optionally the number of empty
+ * squares from which it solves the endgame, optionally a weight file for the PatternEvaluator (empty for the square
+ * weights), optionally an opening book file (empty for no book) and optionally the search features that are on,
+ * for example "search:8:0:::pvs,probcut", or "clock:millis" or "clock:millis:endgame" for the search engine with
+ * a clock for all of its moves of a game, or "mcts:playouts" or "mcts:playouts:threads" for the Monte Carlo
+ * tree search with a number of playouts per move. When an archive file is given, the games are added to it.
+ */
+public class SelfPlay {
+    /**
+     * This main method plays the tournament.
+     * @param args optionally the settings of the tournament.
+     * @throws InterruptedException if the thread is interrupted while the games are played.
+     * @throws IOException if a weight file cannot be read or the archive cannot be written.
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        String first = args.length > 1 ? args[1] : "search:2";
+        String second = args.length > 2 ? args[2] : "random";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int openingPlies = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 20240520L;
+
+        Tournament tournament = new Tournament(playerFactory(first), playerFactory(second), threads, openingPlies, seed);
+        long start = System.nanoTime();
+        TournamentResult result;
+        if (args.length > 6) {
+            try (GameRecordWriter writer = new GameRecordWriter(Path.of(args[6]))) {
+                result = tournament.recordGames(writer).play(games);
+                System.out.println(writer.getGamesWritten() + " games added to " + args[6]);
+            }
+        } else {
+            result = tournament.play(games);
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        System.out.println(first + " vs " + second + ": " + result);
+        System.out.printf("%d ms, %.1f games/s on %d threads%n", millis, result.getGames() * 1000.0 / millis, threads);
+    }
+
+    /**
+     * This method creates the factory of a player from its description.
+     * @param description "random", "search:depth", "search:depth:endgame", "search:depth:endgame:weights"
+     * "search:depth:endgame:weights:book", "search:depth:endgame:weights:book:features", "clock:millis",
+     * "clock:millis:endgame", "mcts:playouts" or "mcts:playouts:threads".
+     * @return the factory of the player.
+     * @throws IOException if the weight file or the book file cannot be read.
+     */
+    private static PlayerFactory playerFactory(String description) throws IOException {
+        String[] parts = description.split(":");
+        if (parts[0].equals("random")) {
+            return ComputerPlayer::new;
+        } else if (parts[0].equals("search") && parts.length >= 2 && parts.length <= 6) {
+            SearchConfig config = new SearchConfig()
+                    .setMaxDepth(Integer.parseInt(parts[1]))
+                    .setTranspositionTableMegabytes(16)
+                    .setEndgameEmpties(parts.length >= 3 ? Integer.parseInt(parts[2]) : 0);
+            if (parts.length >= 4 && !parts[3].isEmpty()) {
+                config.setEvaluator(PatternEvaluator.load(Path.of(parts[3])));
+            }
+            OpeningBook book = parts.length >= 5 && !parts[4].isEmpty() ? OpeningBook.load(Path.of(parts[4])) : null;
+            if (parts.length == 6) {
+                setFeatures(config, parts[5]);
+            }
+            return (name, color) -> new ComputerPlayer(name, color, new SearchEngine(config), book);
+        } else if (parts[0].equals("clock") && parts.length >= 2 && parts.length <= 3) {
+            long clockMillis = Long.parseLong(parts[1]);
+            SearchConfig config = new SearchConfig()
+                    .setTranspositionTableMegabytes(16)
+                    .setEndgameEmpties(parts.length == 3 ? Integer.parseInt(parts[2]) : 16);
+            return (name, color) -> new ComputerPlayer(name, color, new SearchEngine(config), null,
+                    new TimeManager(clockMillis));
+        } else if (parts[0].equals("mcts") && parts.length >= 2 && parts.length <= 3) {
+            MctsConfig config = new MctsConfig()
+                    .setPlayouts(Long.parseLong(parts[1]))
+                    .setThreads(parts.length == 3 ? Integer.parseInt(parts[2]) : 1);
+            return (name, color) -> new MctsPlayer(name, color, config);
+        }
+        throw new IllegalArgumentException("Unknown player '" + description + "'");
+    }
+
+    /**
+     * This method switches the search features of a config, so that only the listed ones are on.
+     * @param config the config of the search engine.
+     * @param features the features separated by commas, out of "pvs", "aspiration" and "probcut", or "none".
+     */
+    static void setFeatures(SearchConfig config, String features) {
+        List<String> list = List.of(features.split(","));
+        for (String feature : list) {
+            if (!feature.equals("pvs") && !feature.equals("aspiration") && !feature.equals("probcut")
+                    && !feature.equals("none")) {
+                throw new IllegalArgumentException("Unknown search feature '" + feature + "'");
+            }
+        }
+        config.setPrincipalVariationSearch(list.contains("pvs"))
+                .setAspirationWindow(list.contains("aspiration") ? new SearchConfig().getAspirationWindow() : 0)
+                .setProbCut(list.contains("probcut"));
+    }
+}
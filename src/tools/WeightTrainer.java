@@ -0,0 +1,312 @@
+package tools;
+
+import controller.ComputerPlayer;
+import controller.PatternEvaluator;
+import controller.SearchConfig;
+import controller.SearchEngine;
+import model.BitBoard;
+import model.Game;
+import model.Move;
+import model.MoveGenerator;
+import model.Player;
+import model.Square;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * This class trains the weights of the PatternEvaluator offline from self-play games. It has two steps:
+ * "generate" plays games between computer players with the search engine and writes every position with the final
+ * disc difference of the game to a sample file, and "train" fits the pattern weights to the samples and writes a
+ * weight file that PatternEvaluator.load reads.
+ * A sample is the disc mask of the player to move, the disc mask of the other player and the final disc difference
+ * for the player to move, 17 bytes in total.
+ * The fit is a gradient descent on the squared error. Every weight moves by the summed error of the samples that
+ * use it, divided by how often it is used, so rare patterns don't jump around. The stages have separate weights,
+ * so they are trained at the same time on a parallel stream, one stage per core.
+ * Usage: WeightTrainer generate games samples [depth] [seed] and WeightTrainer train samples weights [epochs].
+ */
+public class WeightTrainer {
+    /**
+     * The evaluator score of one disc of final disc difference.
+     */
+    private static final int SCORE_PER_DISC = 100;
+    private static final int MIN_OPENING_PLIES = 4;
+    private static final int MAX_OPENING_PLIES = 16;
+    private static final double LEARNING_RATE = 0.02;
+    private static final int RARE_PATTERN_COUNT = 10;
+    private static final int HOLDOUT_EVERY = 10;
+
+    /**
+     * This main method runs one of the two steps.
+     * @param args the step and its settings.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("generate")) {
+            int depth = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 20240520L;
+            generate(Integer.parseInt(args[1]), Path.of(args[2]), depth, seed);
+        } else if (args.length >= 3 && args[0].equals("train")) {
+            int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+            train(Path.of(args[1]), Path.of(args[2]), epochs);
+        } else {
+            System.out.println("Usage: WeightTrainer generate games samples [depth] [seed]");
+            System.out.println("       WeightTrainer train samples weights [epochs]");
+        }
+    }
+
+    /**
+     * This method plays self-play games on all the cores and writes their positions to a sample file.
+     * Every game starts with a random opening so the games are different, and the computer players search
+     * the rest of the game with the search engine of their thread.
+     * @param games the number of games.
+     * @param samples the path of the sample file.
+     * @param depth the search depth of the computer players.
+     * @param seed the seed of the random openings.
+     * @throws IOException if the sample file cannot be written.
+     */
+    public static void generate(int games, Path samples, int depth, long seed) throws IOException {
+        SearchConfig config = new SearchConfig().setMaxDepth(depth).setTranspositionTableMegabytes(16)
+                .setEndgameEmpties(12);
+        ThreadLocal<SearchEngine> engines = ThreadLocal.withInitial(() -> new SearchEngine(config));
+        long start = System.nanoTime();
+        long[] positions = new long[1];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(samples)))) {
+            IntStream.range(0, games).parallel().forEach(game -> {
+                List<long[]> gameSamples = playGame(engines.get(), new Random(seed + game * 0x9e3779b97f4a7c15L));
+                synchronized (out) {
+                    try {
+                        for (long[] sample : gameSamples) {
+                            out.writeLong(sample[0]);
+                            out.writeLong(sample[1]);
+                            out.writeByte((int) sample[2]);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    positions[0] += gameSamples.size();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        System.out.printf("%d games, %d positions written to %s in %d ms%n", games, positions[0], samples,
+                (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /**
+     * This method plays one self-play game.
+     * @param engine the search engine of both computer players.
+     * @param random the random number generator of the opening.
+     * @return the samples of the positions after the opening: the two disc masks and the final disc difference.
+     */
+    private static List<long[]> playGame(SearchEngine engine, Random random) {
+        Game game = new Game(new ComputerPlayer("Black", Square.BLACK, engine),
+                new ComputerPlayer("White", Square.WHITE, engine), new BitBoard());
+        int openingPlies = MIN_OPENING_PLIES + random.nextInt(MAX_OPENING_PLIES - MIN_OPENING_PLIES + 1);
+        List<long[]> positions = new ArrayList<>();
+        List<Square> sides = new ArrayList<>();
+        for (int ply = 0; !game.isGameOver(); ply++) {
+            Player player = game.getTurn();
+            Square colour = player.getColor();
+            List<Integer> validMoves = game.getAllValidMoves(colour);
+            if (!validMoves.isEmpty()) {
+                int index;
+                if (ply < openingPlies) {
+                    index = validMoves.get(random.nextInt(validMoves.size()));
+                } else {
+                    positions.add(new long[]{game.returnBoard().getDiscMask(colour),
+                            game.returnBoard().getDiscMask(colour.getOtherPlayerSquare()), 0});
+                    sides.add(colour);
+                    Move move = player.makeMove(game);
+                    index = move.getIndex();
+                }
+                game.makeMove(index, colour);
+            }
+            game.changeTurns();
+        }
+        int blackDifference = game.returnBoard().calculateTheScore(Square.BLACK)
+                - game.returnBoard().calculateTheScore(Square.WHITE);
+        for (int i = 0; i < positions.size(); i++) {
+            positions.get(i)[2] = sides.get(i) == Square.BLACK ? blackDifference : -blackDifference;
+        }
+        return positions;
+    }
+
+    /**
+     * This method fits the pattern weights to a sample file and writes the weight file. Every tenth sample is
+     * kept out of the fit to measure the error on positions that the weights have not seen.
+     * @param samples the path of the sample file.
+     * @param weightFile the path of the weight file.
+     * @param epochs the number of passes over the samples.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void train(Path samples, Path weightFile, int epochs) throws IOException {
+        long start = System.nanoTime();
+        SampleSet[] stages = readSamples(samples);
+        short[] weights = new short[PatternEvaluator.STAGES * PatternEvaluator.STAGE_SIZE];
+        double[][] errors = new double[PatternEvaluator.STAGES][];
+        IntStream.range(0, PatternEvaluator.STAGES).parallel().forEach(stage ->
+                errors[stage] = trainStage(stages[stage], epochs, weights, stage * PatternEvaluator.STAGE_SIZE));
+
+        for (int stage = 0; stage < PatternEvaluator.STAGES; stage++) {
+            System.out.printf("stage %2d: %8d samples, error %.2f discs, held out %.2f discs%n", stage,
+                    stages[stage].size, errors[stage][0], errors[stage][1]);
+        }
+        PatternEvaluator.save(weightFile, weights);
+        System.out.printf("weights written to %s in %d ms%n", weightFile, (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /**
+     * This method reads a sample file and sorts the samples by stage.
+     * @param samples the path of the sample file.
+     * @return the samples of every stage.
+     * @throws IOException if the file cannot be read.
+     */
+    private static SampleSet[] readSamples(Path samples) throws IOException {
+        SampleSet[] stages = new SampleSet[PatternEvaluator.STAGES];
+        for (int stage = 0; stage < stages.length; stage++) {
+            stages[stage] = new SampleSet();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(samples)))) {
+            while (true) {
+                long player;
+                try {
+                    player = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                long opponent = in.readLong();
+                int difference = in.readByte();
+                stages[PatternEvaluator.stage(player, opponent)].add(player, opponent, difference);
+            }
+        }
+        return stages;
+    }
+
+    /**
+     * This method fits the weights of one stage.
+     * @param samples the samples of the stage.
+     * @param epochs the number of passes over the samples.
+     * @param weights the weights of all the stages, which get the weights of this stage.
+     * @param base the index of the first weight of the stage.
+     * @return the root mean squared error in discs on the fitted samples and on the held out samples.
+     */
+    private static double[] trainStage(SampleSet samples, int epochs, short[] weights, int base) {
+        int size = PatternEvaluator.STAGE_SIZE;
+        int[] indices = new int[PatternEvaluator.PATTERN_COUNT];
+        int[] mobility = new int[samples.size];
+        int[] counts = new int[size];
+        double mobilitySquares = 0;
+        for (int i = 0; i < samples.size; i++) {
+            long player = samples.players[i];
+            long opponent = samples.opponents[i];
+            mobility[i] = PatternEvaluator.mobility(player, opponent, MoveGenerator.validMoves(player, opponent));
+            if (i % HOLDOUT_EVERY != 0) {
+                PatternEvaluator.patternIndices(player, opponent, indices);
+                for (int index : indices) {
+                    counts[index]++;
+                }
+                mobilitySquares += (double) mobility[i] * mobility[i];
+            }
+        }
+
+        double[] stageWeights = new double[size];
+        double[] gradient = new double[size];
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Arrays.fill(gradient, 0);
+            for (int i = 0; i < samples.size; i++) {
+                if (i % HOLDOUT_EVERY == 0) {
+                    continue;
+                }
+                PatternEvaluator.patternIndices(samples.players[i], samples.opponents[i], indices);
+                double error = samples.differences[i] - predict(stageWeights, indices, mobility[i]);
+                for (int index : indices) {
+                    gradient[index] += error;
+                }
+                gradient[PatternEvaluator.MOBILITY] += error * mobility[i];
+            }
+            for (int index = 0; index < PatternEvaluator.MOBILITY; index++) {
+                if (counts[index] > 0) {
+                    stageWeights[index] += LEARNING_RATE * gradient[index] / Math.max(counts[index], RARE_PATTERN_COUNT);
+                }
+            }
+            if (mobilitySquares > 0) {
+                stageWeights[PatternEvaluator.MOBILITY] += LEARNING_RATE * gradient[PatternEvaluator.MOBILITY]
+                        / mobilitySquares;
+            }
+        }
+
+        double[] squaredErrors = new double[2];
+        int[] sampleCounts = new int[2];
+        for (int i = 0; i < samples.size; i++) {
+            PatternEvaluator.patternIndices(samples.players[i], samples.opponents[i], indices);
+            double error = samples.differences[i] - predict(stageWeights, indices, mobility[i]);
+            int set = i % HOLDOUT_EVERY == 0 ? 1 : 0;
+            squaredErrors[set] += error * error;
+            sampleCounts[set]++;
+        }
+        for (int index = 0; index < size; index++) {
+            long weight = Math.round(stageWeights[index] * SCORE_PER_DISC);
+            weights[base + index] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, weight));
+        }
+        return new double[]{Math.sqrt(squaredErrors[0] / Math.max(1, sampleCounts[0])),
+                Math.sqrt(squaredErrors[1] / Math.max(1, sampleCounts[1]))};
+    }
+
+    /**
+     * This method calculates the predicted final disc difference of a sample.
+     * @param weights the weights of the stage in discs.
+     * @param indices the pattern indices of the sample.
+     * @param mobility the mobility of the sample.
+     * @return the predicted disc difference.
+     */
+    private static double predict(double[] weights, int[] indices, int mobility) {
+        double prediction = weights[PatternEvaluator.MOBILITY] * mobility;
+        for (int index : indices) {
+            prediction += weights[index];
+        }
+        return prediction;
+    }
+
+    /**
+     * This class stores the samples of one stage in growing arrays.
+     */
+    private static class SampleSet {
+        private long[] players = new long[1024];
+        private long[] opponents = new long[1024];
+        private byte[] differences = new byte[1024];
+        private int size;
+
+        /**
+         * This method adds a sample.
+         * @param player the mask with the discs of the player to move.
+         * @param opponent the mask with the discs of the other player.
+         * @param difference the final disc difference for the player to move.
+         */
+        void add(long player, long opponent, int difference) {
+            if (size == players.length) {
+                players = Arrays.copyOf(players, size * 2);
+                opponents = Arrays.copyOf(opponents, size * 2);
+                differences = Arrays.copyOf(differences, size * 2);
+            }
+            players[size] = player;
+            opponents[size] = opponent;
+            differences[size] = (byte) difference;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package view;
+
+import controller.AnalysisListener;
+import controller.SearchConfig;
+import controller.SearchEngine;
+import controller.SearchResult;
+import controller.TimeManager;
+import model.Game;
+import model.Move;
+import model.Position;
+import model.Square;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class represents the server mode of the othello game. Clients connect over TCP on localhost and play
+ * against the computer with a line-based protocol (see GameSession).
+ * Every session runs on its own virtual thread, so a session that waits for the next line of its client only
+ * costs a small stack on the heap and thousands of sessions can be open at the same time.
+ * The computer moves are searched on a bounded pool of platform threads. Every pool thread has its own search
+ * engine, so the number of searches that run at the same time and the memory of the transposition tables
+ * don't grow with the number of sessions.
+ * A game can give the computer a clock. The clock of a move starts before the move waits for a free pool thread,
+ * so the waiting time of a busy server is taken off the clock too, and the search stops before the clock runs out.
+ */
+public class GameServer {
+    private final int port;
+    private final ExecutorService computerPool;
+    private final ThreadLocal<SearchEngine> engines;
+
+    /**
+     * This method constructs a new game server.
+     * @param port the TCP port on localhost, or 0 for any free port.
+     * @param config the search settings of the computer player.
+     * @param computerThreads the number of platform threads that search the computer moves.
+     */
+    public GameServer(int port, SearchConfig config, int computerThreads) {
+        this.port = port;
+        this.computerPool = Executors.newFixedThreadPool(computerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "computer-player");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.engines = ThreadLocal.withInitial(() -> new SearchEngine(config));
+    }
+
+    /**
+     * This method accepts clients until the server socket is closed. Every client gets a new session
+     * on a virtual thread.
+     * @param serverSocket the bound server socket.
+     * @throws IOException if the server socket fails.
+     */
+    public void serve(ServerSocket serverSocket) throws IOException {
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                sessions.submit(new GameSession(socket, this));
+            }
+        }
+    }
+
+    /**
+     * This method opens the server socket on localhost and accepts clients until the server is stopped.
+     * @throws IOException if the server socket cannot be opened.
+     */
+    public void start() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress())) {
+            System.out.println("Othello server listening on port " + serverSocket.getLocalPort());
+            serve(serverSocket);
+        } finally {
+            computerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * This method searches the move of the computer on the computer pool. The calling session waits
+     * for the result, which only parks its virtual thread.
+     * @param game the game of the session, it is not changed by the search.
+     * @param colour the square color of the computer.
+     * @return the move of the computer, or a pass if it has no valid move.
+     * @throws InterruptedException if the session is interrupted while it waits.
+     */
+    Move computerMove(Game game, Square colour) throws InterruptedException {
+        try {
+            return computerPool.submit(() -> engines.get().search(game, colour).toMove(colour)).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The computer player failed", e.getCause());
+        }
+    }
+
+    /**
+     * This method searches the move of the computer on the computer pool within the deadlines of a clock.
+     * The move is started on the clock before it waits for a pool thread, and the search stops at the deadlines
+     * of the clock instead of the depth and the time limit of the server. When the search has not returned at the
+     * hard deadline, because the pool is too busy, the session doesn't wait for it and plays the fallback move
+     * of the search engine instead.
+     * @param game the game of the session, it is not changed by the search.
+     * @param colour the square color of the computer.
+     * @param clock the clock of the computer for the game.
+     * @return the move of the computer, or a pass if it has no valid move.
+     * @throws InterruptedException if the session is interrupted while it waits.
+     */
+    Move computerMove(Game game, Square colour, TimeManager clock) throws InterruptedException {
+        Position position = game.getPosition();
+        clock.startMove(position.getEmptyCount());
+        long softDeadline = clock.getSoftDeadline();
+        long hardDeadline = clock.getHardDeadline();
+        Future<Move> search = computerPool.submit(() -> engines.get().search(position.getPlayerDiscs(),
+                position.getOpponentDiscs(), colour, softDeadline, hardDeadline).toMove(colour));
+        try {
+            return search.get(Math.max(0, hardDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            search.cancel(true);
+            int move = SearchEngine.fallbackMove(position.getPlayerDiscs(), position.getOpponentDiscs());
+            return new Move(move / 8, move % 8, colour);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The computer player failed", e.getCause());
+        } finally {
+            clock.finishMove();
+        }
+    }
+
+    /**
+     * This method analyses a position on the computer pool with the depth and the time limit of the server.
+     * The calling session waits for the end of the analysis, while the listener gets the lines of the analysis
+     * on the pool thread.
+     * @param position the position, the player to move is the one for which the moves are analysed.
+     * @param lines the number of best moves that are analysed.
+     * @param listener the listener that gets the lines of the analysis.
+     * @return the result of the best line.
+     * @throws InterruptedException if the session is interrupted while it waits.
+     */
+    SearchResult analyze(Position position, int lines, AnalysisListener listener) throws InterruptedException {
+        try {
+            return computerPool.submit(() -> engines.get().analyze(position, lines, listener)).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The analysis failed", e.getCause());
+        }
+    }
+
+    /**
+     * This main method starts the server.
+     * @param args optionally the port, the search depth, the time limit in milliseconds and the number of
+     * computer threads.
+     * @throws IOException if the server socket cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5555;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long timeLimit = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        int computerThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        SearchConfig config = new SearchConfig().setMaxDepth(depth).setTimeLimitMillis(timeLimit)
+                .setTranspositionTableMegabytes(16);
+        new GameServer(port, config, computerThreads).start();
+    }
+}
@@ -0,0 +1,250 @@
+package view;
+
+import controller.SearchResult;
+import controller.TimeManager;
+import model.BitBoard;
+import model.Board;
+import model.Game;
+import model.Move;
+import model.SilentPlayer;
+import model.Square;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This class represents one client of the game server. It reads the commands of the client line by line and
+ * plays the game of the client against the computer. The protocol is:
+ * NEW BLACK or NEW WHITE starts a new game in which the client plays that colour, optionally followed by the
+ * milliseconds on the clock of the computer for the whole game (NEW BLACK 60000),
+ * MOVE index plays the move of the client (-1 passes),
+ * MOVES lists the valid moves of the client, BOARD shows the board, CLOCK shows the milliseconds left on the
+ * clock of the computer, ANALYZE or ANALYZE lines analyses the best moves of the player to move and QUIT closes
+ * the session. The analysis answers with an INFO line every time a line of the analysis reaches a new depth, while
+ * the analysis goes on, and ends with BESTMOVE index.
+ * The server answers OK, MOVE index for every move of the computer, GAMEOVER black white when the game
+ * is finished, or ERROR with a message.
+ * A session only keeps its game on a BitBoard and small socket buffers, so an idle session uses little memory.
+ */
+class GameSession implements Runnable {
+    private static final int BUFFER_SIZE = 256;
+
+    /**
+     * The most best moves that a client can ask the analysis for.
+     */
+    private static final int MAX_ANALYSIS_LINES = 10;
+
+    private final Socket socket;
+    private final GameServer server;
+    private Game game;
+    private Square clientColour;
+    private TimeManager computerClock;
+
+    /**
+     * This method constructs a new session for a client.
+     * @param socket the socket of the client.
+     * @param server the server that searches the computer moves.
+     */
+    GameSession(Socket socket, GameServer server) {
+        this.socket = socket;
+        this.server = server;
+    }
+
+    /**
+     * This method reads and answers the commands of the client until the client quits or disconnects.
+     */
+    @Override
+    public void run() {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE);
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            send(out, "WELCOME OTHELLO");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] command = line.trim().split("\\s+");
+                if (command[0].equalsIgnoreCase("QUIT")) {
+                    send(out, "BYE");
+                    break;
+                }
+                if (command[0].equalsIgnoreCase("ANALYZE")) {
+                    send(out, analyze(out, command));
+                    continue;
+                }
+                send(out, handle(command));
+            }
+        } catch (IOException e) {
+            // The client has disconnected, there is nobody left to tell.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This method carries out one command of the client.
+     * @param command the words of the command line.
+     * @return the answer to the client, which can be several lines.
+     * @throws InterruptedException if the session is interrupted while the computer searches.
+     */
+    private String handle(String[] command) throws InterruptedException {
+        switch (command[0].toUpperCase()) {
+            case "NEW":
+                if (command.length < 2 || command.length > 3
+                        || !(command[1].equalsIgnoreCase("BLACK") || command[1].equalsIgnoreCase("WHITE"))) {
+                    return "ERROR usage: NEW BLACK or NEW WHITE, optionally with the clock in milliseconds";
+                }
+                try {
+                    computerClock = command.length == 3 ? new TimeManager(Long.parseLong(command[2])) : null;
+                } catch (IllegalArgumentException e) {
+                    return "ERROR the clock must be a positive number of milliseconds";
+                }
+                clientColour = command[1].equalsIgnoreCase("BLACK") ? Square.BLACK : Square.WHITE;
+                game = new Game(new SilentPlayer("Black", Square.BLACK), new SilentPlayer("White", Square.WHITE),
+                        new BitBoard());
+                return "OK" + playComputer();
+            case "MOVE":
+                if (game == null) {
+                    return "ERROR no game, start one with NEW BLACK or NEW WHITE";
+                }
+                if (command.length != 2) {
+                    return "ERROR usage: MOVE index";
+                }
+                return playClient(command[1]);
+            case "MOVES":
+                if (game == null) {
+                    return "ERROR no game, start one with NEW BLACK or NEW WHITE";
+                }
+                List<Integer> validMoves = game.getAllValidMoves(clientColour);
+                StringBuilder moves = new StringBuilder("MOVES");
+                for (int index : validMoves) {
+                    moves.append(' ').append(index);
+                }
+                return moves.toString();
+            case "CLOCK":
+                if (computerClock == null) {
+                    return "ERROR the game has no clock";
+                }
+                return "CLOCK " + computerClock.getRemainingMillis();
+            case "BOARD":
+                if (game == null) {
+                    return "ERROR no game, start one with NEW BLACK or NEW WHITE";
+                }
+                return "BOARD " + game.getPosition();
+            default:
+                return "ERROR unknown command " + command[0];
+        }
+    }
+
+    /**
+     * This method analyses the position of the game and sends the lines of the analysis to the client while the
+     * analysis goes on.
+     * @param out the writer of the socket.
+     * @param command the words of the command line.
+     * @return the last answer to the client.
+     * @throws InterruptedException if the session is interrupted while the computer analyses.
+     */
+    private String analyze(BufferedWriter out, String[] command) throws InterruptedException {
+        if (game == null) {
+            return "ERROR no game, start one with NEW BLACK or NEW WHITE";
+        }
+        if (game.isGameOver()) {
+            return "ERROR the game is over";
+        }
+        int lines;
+        try {
+            lines = command.length > 1 ? Integer.parseInt(command[1]) : 1;
+        } catch (NumberFormatException e) {
+            return "ERROR the number of lines must be a number";
+        }
+        if (command.length > 2 || lines < 1 || lines > MAX_ANALYSIS_LINES) {
+            return "ERROR usage: ANALYZE or ANALYZE lines, with 1 to " + MAX_ANALYSIS_LINES + " lines";
+        }
+        SearchResult result = server.analyze(game.getPosition(), lines, line -> {
+            try {
+                send(out, "INFO " + line);
+            } catch (IOException e) {
+                // The client has disconnected, the analysis ends at the time limit of the server.
+            }
+        });
+        return "BESTMOVE " + result.getBestMove();
+    }
+
+    /**
+     * This method plays the move of the client and then the moves of the computer.
+     * @param argument the index of the move, or -1 to pass.
+     * @return the answer to the client.
+     * @throws InterruptedException if the session is interrupted while the computer searches.
+     */
+    private String playClient(String argument) throws InterruptedException {
+        if (game.isGameOver()) {
+            return "ERROR the game is over";
+        }
+        if (game.getTurn().getColor() != clientColour) {
+            return "ERROR it is not your turn";
+        }
+        int index;
+        try {
+            index = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            return "ERROR the move must be a number";
+        }
+        boolean canMove = game.getValidMoveMask(clientColour) != 0;
+        if (index == -1) {
+            if (canMove) {
+                return "ERROR you cannot pass because there are valid moves to be played";
+            }
+        } else if (index < 0 || index > 63 || !game.isValidMove(new Move(index / 8, index % 8, clientColour))) {
+            return "ERROR move " + argument + " is not valid";
+        } else {
+            game.makeMove(index, clientColour);
+        }
+        game.changeTurns();
+        return "OK" + playComputer();
+    }
+
+    /**
+     * This method plays the computer while it is the computer's turn and the game is not over.
+     * @return the lines with the moves of the computer and the end of the game, each starting with a line break.
+     * @throws InterruptedException if the session is interrupted while the computer searches.
+     */
+    private String playComputer() throws InterruptedException {
+        StringBuilder answer = new StringBuilder();
+        while (!game.isGameOver() && game.getTurn().getColor() != clientColour) {
+            Square colour = game.getTurn().getColor();
+            if (game.getValidMoveMask(colour) == 0) {
+                answer.append("\nMOVE -1");
+            } else {
+                Move move = computerClock != null ? server.computerMove(game, colour, computerClock)
+                        : server.computerMove(game, colour);
+                game.makeMove(move.getIndex(), colour);
+                answer.append("\nMOVE ").append(move.getIndex());
+            }
+            game.changeTurns();
+        }
+        if (game.isGameOver()) {
+            Board board = game.returnBoard();
+            answer.append("\nGAMEOVER ").append(board.calculateTheScore(Square.BLACK))
+                    .append(' ').append(board.calculateTheScore(Square.WHITE));
+        }
+        return answer.toString();
+    }
+
+    /**
+     * This method writes one answer to the client.
+     * @param out the writer of the socket.
+     * @param answer the answer.
+     * @throws IOException if the client has disconnected.
+     */
+    private static void send(BufferedWriter out, String answer) throws IOException {
+        out.write(answer);
+        out.write('\n');
+        out.flush();
+    }
+}
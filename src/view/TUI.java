@@ -1,9 +1,20 @@
 package view;
 
+import archive.GameRecord;
+import archive.GameRecordWriter;
 import controller.ComputerPlayer;
 import controller.HumanPlayer;
+import controller.MctsConfig;
+import controller.MctsPlayer;
+import controller.OpeningBook;
+import controller.SearchConfig;
+import controller.SearchEngine;
 import model.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -13,6 +24,30 @@ import java.util.Scanner;
  * and shows all the current moves placed on the board for both players.
  */
 public class TUI {
+    /**
+     * The game archive in the working directory where every finished game is saved.
+     */
+    private static final Path GAME_ARCHIVE = Path.of("games.oth");
+
+    /**
+     * The opening book in the working directory that the computer players use if it exists.
+     */
+    private static final Path OPENING_BOOK = Path.of("book.bin");
+
+    /**
+     * The memory in megabytes of the transposition table of the engine that gives the human players their hints.
+     */
+    private static final int HINT_TABLE_MEGABYTES = 4;
+
+    private final SearchConfig searchConfig = new SearchConfig().setMaxDepth(8).setTimeLimitMillis(2000)
+            .setPondering(true);
+    private final SearchConfig hintConfig = new SearchConfig().setMaxDepth(8).setTimeLimitMillis(2000)
+            .setTranspositionTableMegabytes(HINT_TABLE_MEGABYTES);
+    private final MctsConfig mctsConfig = new MctsConfig().setPlayouts(0).setTimeLimitMillis(2000);
+    private final SearchEngine[] engines = new SearchEngine[2];
+    private SearchEngine hintEngine;
+    private OpeningBook book;
+
     /**
      * This main method to run the TUI class.
      * @param args ignored
@@ -23,47 +58,76 @@ public class TUI {
     }
 
     /**
-     *  This method initialise two players, requires them to enter their chosen name and select whether they would like to play with human player or computer player.
+     *  This method initialise two players, requires them to enter their chosen name and select whether they would like to play with human player, computer player or Monte Carlo computer player.
      *  Sets the positions of both players in the game.
      *  It displays the current name and scores of both players and all the valid moves each player can make.
      *  If a player has taken their turn, then the next player will be prompted to enter their move. If neither player can make a valid move they must enter -1 which indicates a pass.
      *  It checks to see if both players have a draw or a player has won the game.
      *  Once the game is the finished it displays game over and displays the current score the game finished at for both players.
      *  To display the winner after the game is finished, the opposing player's score must be higher than other player's score.
+     *  The moves of the game are recorded and the finished game is saved in the game archive.
+     *  The computer players play the moves of the opening book while the game is in the book, and they ponder
+     *  while the other player thinks, so they often answer at once.
      *  The user will be prompted to start a new game. If they wish to play a new game they must enter y otherwise n.
+     *  The search engines are created once and are used again in every new game, so their memory is not
+     *  allocated again for every game, and their threads are stopped when the user does not want a new game.
      */
     public void playGame(){
         Scanner stdin = new Scanner(System.in);
+        book = loadBook();
+        do {
+            playOneGame(stdin);
+        } while (askNewGame(stdin));
+        for (SearchEngine engine : new SearchEngine[]{engines[0], engines[1], hintEngine}) {
+            if (engine != null) {
+                engine.shutdown();
+            }
+        }
+        System.out.println("Thanks for playing, goodbye!");
+    }
+
+    /**
+     * This method plays one game, from the choice of the players until the finished game is saved.
+     * @param stdin the scanner of the standard input.
+     */
+    private void playOneGame(Scanner stdin) {
         Player player1 = null;
         Player player2 = null;
         for (int i = 1; i<=2; i++) {
             System.out.println("Enter Player " +  i + "'s name:");
             String playerName = stdin.nextLine();
-            System.out.println("Please choose 1 if you would like to play with human player or " +
-                    "2 if you would like to play with the computer player");
+            System.out.println("Please choose 1 if you would like to play with human player, " +
+                    "2 if you would like to play with the computer player or " +
+                    "3 if you would like to play with the Monte Carlo computer player");
 
             String choice = stdin.nextLine();
-            while(!(choice.equals("1") || choice.equals("2"))){
-                System.out.println("Invalid input. Please enter 1 for a human player or 2 for a computer player.");
+            while(!(choice.equals("1") || choice.equals("2") || choice.equals("3"))){
+                System.out.println("Invalid input. Please enter 1 for a human player, 2 for a computer player " +
+                        "or 3 for a Monte Carlo computer player.");
                 choice = stdin.nextLine();
             }
 
             if (i == 1 ){
                 if(choice.equals("1")){
-                    player1 = new HumanPlayer(playerName, Square.BLACK);
+                    player1 = new HumanPlayer(playerName, Square.BLACK, hintEngine());
+                } else if (choice.equals("3")) {
+                    player1 = new MctsPlayer(playerName, Square.BLACK, mctsConfig);
                 } else {
-                    player1 = new ComputerPlayer(playerName, Square.BLACK);
+                    player1 = new ComputerPlayer(playerName, Square.BLACK, engine(Square.BLACK), book);
                 }
             } else {
                 if(choice.equals("1")){
-                    player2 = new HumanPlayer(playerName, Square.WHITE);
+                    player2 = new HumanPlayer(playerName, Square.WHITE, hintEngine());
+                } else if (choice.equals("3")) {
+                    player2 = new MctsPlayer(playerName, Square.WHITE, mctsConfig);
                 } else {
-                    player2 = new ComputerPlayer(playerName, Square.WHITE);
+                    player2 = new ComputerPlayer(playerName, Square.WHITE, engine(Square.WHITE), book);
                 }
             }
         }
 
         Game game = new Game(player1,player2);
+        ByteArrayOutputStream moves = new ByteArrayOutputStream(64);
         while (!game.isGameOver()) {
             System.out.println(game.returnBoard());
 
@@ -80,7 +144,13 @@ public class TUI {
             } else {
                 System.out.println(currentPlayer.getName() + ", enter number for your move" + "(e.g." + game.getAllValidMoves(currentPlayer.getColor()) + "):");
             }
-            game.doMove(currentPlayer.makeMove(game), true);
+            Move move = currentPlayer.makeMove(game);
+            if (game.getAllValidMoves(currentPlayer.getColor()).isEmpty()) {
+                moves.write(GameRecord.PASS);
+            } else if (game.isValidMove(move)) {
+                moves.write(move.getIndex());
+            }
+            game.doMove(move, true);
             game.changeTurns();
         }
 
@@ -95,6 +165,22 @@ public class TUI {
             );
         }
 
+        for (Player player : new Player[]{player1, player2}) {
+            if (player instanceof ComputerPlayer computer) {
+                computer.stopPondering();
+            } else if (player instanceof MctsPlayer mcts) {
+                mcts.shutdown();
+            }
+        }
+        saveGame(game, player1, player2, moves.toByteArray());
+    }
+
+    /**
+     * This method asks the user whether they would like to play a new game.
+     * @param stdin the scanner of the standard input.
+     * @return true if the user entered y, false if they entered n.
+     */
+    private boolean askNewGame(Scanner stdin) {
         System.out.println("Would you like to play a new game (Y/N).");
         String playerInput = stdin.nextLine().toLowerCase();
 
@@ -102,11 +188,67 @@ public class TUI {
             System.out.println("Please enter y/n");
             playerInput = stdin.nextLine().toLowerCase();
         }
+        return playerInput.equals("y");
+    }
 
-        if (playerInput.equals("y")) {
-           playGame();
-        } else {
-            System.out.println("Thanks for playing, goodbye!");
+    /**
+     * This method returns the search engine of the computer player of a colour. The engine is created when a
+     * computer player first plays that colour, and every later computer player of that colour uses it again.
+     * Each colour has its own engine, because a computer player ponders on its engine while the other one searches.
+     * @param colour the colour of the computer player.
+     * @return the search engine of the colour.
+     */
+    private SearchEngine engine(Square colour) {
+        int side = colour == Square.BLACK ? 0 : 1;
+        if (engines[side] == null) {
+            engines[side] = new SearchEngine(searchConfig);
+        }
+        return engines[side];
+    }
+
+    /**
+     * This method returns the search engine that gives the human players the best move and the analysis. It has a
+     * small transposition table and is created when a human player first joins a game. Both human players share it,
+     * because only the player whose turn it is can ask for a hint.
+     * @return the search engine of the hints.
+     */
+    private SearchEngine hintEngine() {
+        if (hintEngine == null) {
+            hintEngine = new SearchEngine(hintConfig);
+        }
+        return hintEngine;
+    }
+
+    /**
+     * This method adds a finished game to the game archive. The game is only lost if the archive cannot be written.
+     * @param game the finished game.
+     * @param black the player with the black discs.
+     * @param white the player with the white discs.
+     * @param moves the moves of the game, one byte per move.
+     */
+    private void saveGame(Game game, Player black, Player white, byte[] moves) {
+        try (GameRecordWriter writer = new GameRecordWriter(GAME_ARCHIVE)) {
+            writer.write(new GameRecord(black.getName(), white.getName(), game.calculatePlayerScore(black),
+                    game.calculatePlayerScore(white), moves));
+            System.out.println("The game was saved in " + GAME_ARCHIVE + ".");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("The game could not be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method loads the opening book of the computer players.
+     * @return the opening book, or null if there is no book file or it cannot be read.
+     */
+    private OpeningBook loadBook() {
+        if (!Files.exists(OPENING_BOOK)) {
+            return null;
+        }
+        try {
+            return OpeningBook.load(OPENING_BOOK);
+        } catch (IOException e) {
+            System.out.println("The opening book could not be loaded: " + e.getMessage());
+            return null;
         }
     }
 }